@@ -2,12 +2,15 @@ package com.example.apartment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ApartmentApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ApartmentApplication.class, args);
+		SpringApplication app = new SpringApplication(ApartmentApplication.class);
+		app.setApplicationStartup(new BufferingApplicationStartup(4096));
+		app.run(args);
 	}
 
 }
@@ -0,0 +1,55 @@
+package com.example.apartment;
+
+import com.example.apartment.model.ImportJob;
+import com.example.apartment.service.ImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a bulk import from the command line and exits:
+ * <pre>
+ * java -jar apartment.jar --spring.main.web-application-type=none \
+ *     --import.file=apartments.csv --import.type=apartments [--import.format=CSV]
+ * java -jar apartment.jar --spring.main.web-application-type=none --import.resume=42
+ * </pre>
+ */
+@Component
+public class ImportCommandLineRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportCommandLineRunner.class);
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ImportJob job;
+        if (args.containsOption("import.resume")) {
+            job = importService.resumeNow(Long.valueOf(option(args, "import.resume")));
+        } else if (args.containsOption("import.file")) {
+            job = importService.importFile(option(args, "import.type"), option(args, "import.format"),
+                    Path.of(option(args, "import.file")));
+        } else {
+            return;
+        }
+        log.info("Import job {} {}: {} rows read, {} imported, {} failed", job.getId(), job.getStatus(),
+                job.getRowsRead(), job.getRowsImported(), job.getRowsFailed());
+        int exitCode = "COMPLETED".equals(job.getStatus()) ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        return args.containsOption(name) ? args.getOptionValues(name).get(0) : null;
+    }
+}
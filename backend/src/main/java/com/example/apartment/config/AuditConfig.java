@@ -0,0 +1,40 @@
+package com.example.apartment.config;
+
+import com.example.apartment.service.AuditJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * The audit journal behind the payment, booking and installment plan entity
+ * listeners, configured from the audit.* properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class AuditConfig {
+
+    @Bean
+    public AuditJournal auditJournal(ObjectMapper objectMapper,
+                                     @Value("${audit.directory:${java.io.tmpdir}/apartment-audit}") String directory,
+                                     @Value("${audit.buffer-capacity:8192}") int capacity,
+                                     @Value("${audit.overflow-policy:block}") String policy,
+                                     @Value("${audit.block-timeout-millis:50}") long blockTimeoutMillis,
+                                     @Value("${audit.segment-bytes:16777216}") long segmentBytes,
+                                     @Value("${audit.block-bytes:65536}") int blockBytes,
+                                     @Value("${audit.flush-interval-millis:500}") long flushIntervalMillis,
+                                     @Value("${audit.retention-days:0}") long retentionDays) {
+        AuditJournal.OverflowPolicy overflow;
+        try {
+            overflow = AuditJournal.OverflowPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown audit.overflow-policy " + policy);
+        }
+        return new AuditJournal(Path.of(directory), objectMapper, capacity, overflow,
+                Duration.ofMillis(blockTimeoutMillis), segmentBytes, blockBytes, Duration.ofMillis(flushIntervalMillis),
+                Duration.ofDays(retentionDays));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.apartment.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.TypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON converter that keeps one pre-built {@link ObjectWriter} per response
+ * type and view, so the root serializer is resolved once instead of on every
+ * request, and renders into pooled byte buffers. A response that fits in one
+ * buffer goes out with a Content-Length in a single write; larger ones are
+ * streamed buffer by buffer as before.
+ */
+public class CachedWriterJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int POOL_SIZE = 64;
+
+    private final Map<WriterKey, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private record WriterKey(JavaType type, Class<?> view) {
+    }
+
+    public CachedWriterJsonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Object value = object;
+        Class<?> view = null;
+        if (object instanceof MappingJacksonValue container) {
+            if (container.getFilters() != null) {
+                super.writeInternal(object, type, outputMessage);
+                return;
+            }
+            value = container.getValue();
+            view = container.getSerializationView();
+        }
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        if (value == null || (contentType != null && contentType.getCharset() != null
+                && !StandardCharsets.UTF_8.equals(contentType.getCharset()))) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        // Same rule as the parent: the declared type is only used for containers, where erasure loses the element type
+        JavaType javaType = type != null && TypeUtils.isAssignable(type, value.getClass())
+                ? getJavaType(type, null) : null;
+        if (javaType == null || !javaType.isContainerType()) {
+            javaType = defaultObjectMapper.constructType(value.getClass());
+        }
+        ObjectWriter writer = writers.computeIfAbsent(new WriterKey(javaType, view), this::createWriter);
+
+        byte[] buffer = buffers.poll();
+        if (buffer == null) buffer = new byte[BUFFER_SIZE];
+        try {
+            SpillingOutputStream out = new SpillingOutputStream(buffer, outputMessage);
+            writer.writeValue(out, value);
+            out.finish();
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+
+    private ObjectWriter createWriter(WriterKey key) {
+        ObjectWriter writer = defaultObjectMapper.writerFor(key.type());
+        return key.view() == null ? writer : writer.withView(key.view());
+    }
+
+    /**
+     * Collects output in a fixed buffer. If the whole document fits, finish()
+     * sets Content-Length and writes it at once; otherwise the buffer is
+     * flushed to the response body each time it fills. Nothing is sent when
+     * serialization fails before the first spill, so the error can still be
+     * turned into a proper response.
+     */
+    private static final class SpillingOutputStream extends OutputStream {
+        private final byte[] buffer;
+        private final HttpOutputMessage message;
+        private OutputStream body;
+        private int count;
+
+        SpillingOutputStream(byte[] buffer, HttpOutputMessage message) {
+            this.buffer = buffer;
+            this.message = message;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) spill();
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) spill();
+                int chunk = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, chunk);
+                count += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        // Jackson flushes and closes the target when it is done (or fails); output is only sent by spill() and finish()
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void finish() throws IOException {
+            if (body == null) {
+                message.getHeaders().setContentLength(count);
+                body = message.getBody();
+            }
+            body.write(buffer, 0, count);
+            body.flush();
+        }
+
+        private void spill() throws IOException {
+            if (body == null) body = message.getBody();
+            body.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
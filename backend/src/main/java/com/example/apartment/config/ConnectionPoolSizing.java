@@ -0,0 +1,37 @@
+package com.example.apartment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes the Hikari pool from the CPU count when
+ * {@code datasource.pool.connections-per-core} is set: cores * perCore + 1,
+ * the usual starting point for a pool in front of a single database.
+ * An explicit {@code spring.datasource.hikari.maximum-pool-size} wins.
+ */
+@Component
+public class ConnectionPoolSizing implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolSizing.class);
+
+    @Value("${datasource.pool.connections-per-core:0}")
+    private int connectionsPerCore;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:0}")
+    private int explicitMaximumPoolSize;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource && connectionsPerCore > 0 && explicitMaximumPoolSize <= 0) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            int size = cores * connectionsPerCore + 1;
+            dataSource.setMaximumPoolSize(size);
+            log.info("Connection pool sized to {} for {} cores", size, cores);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.apartment.config;
+
+import com.example.apartment.service.InvalidationBus;
+import com.example.apartment.service.LocalInvalidationBus;
+import com.example.apartment.service.MulticastInvalidationBus;
+import com.example.apartment.service.TcpInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks the transport that carries cache invalidations between backend
+ * nodes (cache.invalidation.transport). local is the default and stays in
+ * this JVM; multicast and tcp (with an explicit peer list) are opt-in, since
+ * they accept unauthenticated frames from the network.
+ */
+@Configuration(proxyBeanMethods = false)
+public class InvalidationBusConfig {
+
+    @Bean
+    public InvalidationBus invalidationBus(@Value("${cache.invalidation.transport:local}") String transport,
+                                           @Value("${cache.invalidation.cluster:${spring.application.name}}") String cluster,
+                                           @Value("${cache.invalidation.batch-window-micros:1000}") long batchWindowMicros,
+                                           @Value("${cache.invalidation.heartbeat-seconds:5}") long heartbeatSeconds,
+                                           @Value("${cache.invalidation.port:45600}") int port,
+                                           @Value("${cache.invalidation.multicast-group:239.255.76.67}") String group,
+                                           @Value("${cache.invalidation.multicast-interface:}") String networkInterface,
+                                           @Value("${cache.invalidation.multicast-ttl:1}") int timeToLive,
+                                           @Value("${cache.invalidation.peers:}") String peers) {
+        Duration batchWindow = Duration.ofNanos(batchWindowMicros * 1000);
+        Duration heartbeat = Duration.ofSeconds(heartbeatSeconds);
+        return switch (transport.toLowerCase(Locale.ROOT)) {
+            case "multicast" -> new MulticastInvalidationBus(cluster, batchWindow, heartbeat,
+                    new InetSocketAddress(group, port), networkInterface, timeToLive);
+            case "tcp" -> new TcpInvalidationBus(cluster, batchWindow, heartbeat, port, parsePeers(peers));
+            case "local" -> new LocalInvalidationBus(cluster, batchWindow, heartbeat);
+            default -> throw new IllegalArgumentException("Unknown cache.invalidation.transport " + transport);
+        };
+    }
+
+    // host:port entries separated by commas; resolved when connecting, not here
+    private static List<InetSocketAddress> parsePeers(String peers) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers.split(",")) {
+            String trimmed = peer.trim();
+            if (trimmed.isEmpty()) continue;
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0) throw new IllegalArgumentException("Expected host:port in cache.invalidation.peers, got " + trimmed);
+            addresses.add(InetSocketAddress.createUnresolved(trimmed.substring(0, colon),
+                    Integer.parseInt(trimmed.substring(colon + 1))));
+        }
+        return addresses;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.apartment.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Serialization tuning. Blackbird replaces reflective getter calls with
+ * generated lambdas (the Java 11+ successor of Afterburner); Spring Boot adds
+ * any Module bean to the shared ObjectMapper. Declaring the converter here
+ * replaces Boot's default one with {@link CachedWriterJsonConverter}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JacksonConfig {
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new CachedWriterJsonConverter(objectMapper);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.apartment.config;
+
+import com.example.apartment.service.PriceHistoryStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * The apartment price history store, backed by price-history.file when it
+ * is set and kept in memory otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PriceHistoryConfig {
+
+    @Bean
+    public PriceHistoryStore priceHistoryStore(@Value("${price-history.file:}") String file) {
+        return new PriceHistoryStore(file.isBlank() ? null : Path.of(file));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.apartment.config;
+
+import com.example.apartment.service.ResilienceGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * The bulkheads, timeouts and circuit breakers around the apartment and
+ * inventory endpoints, configured from the resilience.* properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ResilienceConfig {
+
+    @Bean
+    public ResilienceGuard resilienceGuard(@Value("${resilience.read.concurrency:32}") int readConcurrency,
+                                           @Value("${resilience.read.timeout-millis:2000}") long readTimeoutMillis,
+                                           @Value("${resilience.write.concurrency:8}") int writeConcurrency,
+                                           @Value("${resilience.write.timeout-millis:5000}") long writeTimeoutMillis,
+                                           @Value("${resilience.breaker.failure-threshold:5}") int failureThreshold,
+                                           @Value("${resilience.breaker.open-seconds:10}") long openSeconds,
+                                           @Value("${resilience.snapshot.max-entries:10000}") int maxSnapshots) {
+        return new ResilienceGuard(readConcurrency, Duration.ofMillis(readTimeoutMillis), writeConcurrency,
+                Duration.ofMillis(writeTimeoutMillis), failureThreshold, Duration.ofSeconds(openSeconds), maxSnapshots);
+    }
+}
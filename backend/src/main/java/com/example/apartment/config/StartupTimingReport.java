@@ -0,0 +1,93 @@
+package com.example.apartment.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs the slowest bean initialisations and the process RSS once the
+ * application is ready, and writes them as JSON to {@code startup.report.file}
+ * so CI can track boot time across builds.
+ */
+@Component
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    private static final int TOP_BEANS = 20;
+
+    @Value("${startup.report.file:}")
+    private String reportFile;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startupMillis", event.getTimeTaken() == null ? null : event.getTimeTaken().toMillis());
+        report.put("jvmUptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+        report.put("rssKb", residentSetSizeKb());
+        report.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        report.put("beans", slowestBeans(event.getApplicationContext().getApplicationStartup()));
+
+        log.info("Started in {} ms, RSS {} kB", report.get("startupMillis"), report.get("rssKb"));
+        if (reportFile.isBlank()) return;
+        try {
+            Files.write(Path.of(reportFile), new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(report));
+        } catch (IOException e) {
+            log.warn("Could not write startup report to {}", reportFile, e);
+        }
+    }
+
+    private List<Map<String, Object>> slowestBeans(ApplicationStartup startup) {
+        List<Map<String, Object>> beans = new ArrayList<>();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) return beans;
+        List<StartupTimeline.TimelineEvent> events = new ArrayList<>(buffering.getBufferedTimeline().getEvents());
+        events.removeIf(e -> !"spring.beans.instantiate".equals(e.getStartupStep().getName()));
+        events.sort(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed());
+        for (StartupTimeline.TimelineEvent e : events.subList(0, Math.min(TOP_BEANS, events.size()))) {
+            Map<String, Object> bean = new LinkedHashMap<>();
+            bean.put("name", beanName(e.getStartupStep()));
+            bean.put("millis", e.getDuration().toMillis());
+            beans.add(bean);
+        }
+        return beans;
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) return tag.getValue();
+        }
+        return step.getName();
+    }
+
+    // Linux only; null elsewhere
+    private static Long residentSetSizeKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not available on this platform
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.AnalyticsReport;
+import com.example.apartment.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin("*")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService service;
+
+    // from/to are inclusive months in yyyy-MM form, both optional
+    @GetMapping
+    public ResponseEntity<AnalyticsReport> report(@RequestParam(required = false) String from,
+                                                  @RequestParam(required = false) String to) {
+        try {
+            YearMonth fromMonth = from == null ? null : YearMonth.parse(from);
+            YearMonth toMonth = to == null ? null : YearMonth.parse(to);
+            return ResponseEntity.ok(service.report(fromMonth, toMonth));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
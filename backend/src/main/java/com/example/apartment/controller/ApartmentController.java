@@ -1,32 +1,181 @@
 package com.example.apartment.controller;
 
 import com.example.apartment.model.Apartment;
+import com.example.apartment.model.ListingCard;
+import com.example.apartment.model.NearbyApartment;
+import com.example.apartment.model.PriceBucket;
+import com.example.apartment.model.PriceDrop;
+import com.example.apartment.model.PricePoint;
+import com.example.apartment.model.SimilarApartment;
 import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.GeoIndexService;
+import com.example.apartment.service.ListingCardService;
+import com.example.apartment.service.PriceHistoryService;
+import com.example.apartment.service.RecommendationService;
+import com.example.apartment.service.ResilienceGuard;
+import com.example.apartment.service.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/apartments")
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = ResilienceGuard.STALE_HEADER)
 public class ApartmentController {
 
+    private static final String CIRCUIT = "apartments";
+
     @Autowired
     private ApartmentService service;
 
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private RecommendationService recommendations;
+
+    @Autowired
+    private PriceHistoryService priceHistory;
+
+    @Autowired
+    private ResilienceGuard resilience;
+
     @GetMapping
     public ResponseEntity<List<Apartment>> getAll() {
-        List<Apartment> apartments = service.getAll();
-        return ResponseEntity.ok(apartments);
+        try {
+            List<Apartment> apartments = resilience.read(CIRCUIT, "apartments", service::getAll);
+            return ResponseEntity.ok(apartments);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    @GetMapping("/cards")
+    public ResponseEntity<List<ListingCard>> getCards() {
+        try {
+            // Served from memory, but a cold or refreshing cache still reads the database
+            List<ListingCard> cards = resilience.read(CIRCUIT, "cards", listingCards::getAll);
+            return ResponseEntity.ok(cards);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyApartment>> nearby(@RequestParam double lat, @RequestParam double lng,
+                                                        @RequestParam(defaultValue = "5") double radiusKm,
+                                                        @RequestParam(required = false) Double minPrice,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) Integer minSize,
+                                                        @RequestParam(required = false) Integer maxSize,
+                                                        @RequestParam(defaultValue = "false") boolean availableOnly,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            GeoIndexService.Filter filter = new GeoIndexService.Filter(minPrice, maxPrice, minSize, maxSize, availableOnly, limit);
+            return ResponseEntity.ok(geoIndex.findWithinRadius(lat, lng, radiusKm, filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/within")
+    public ResponseEntity<List<NearbyApartment>> within(@RequestParam double minLat, @RequestParam double minLng,
+                                                        @RequestParam double maxLat, @RequestParam double maxLng,
+                                                        @RequestParam(required = false) Double minPrice,
+                                                        @RequestParam(required = false) Double maxPrice,
+                                                        @RequestParam(required = false) Integer minSize,
+                                                        @RequestParam(required = false) Integer maxSize,
+                                                        @RequestParam(defaultValue = "false") boolean availableOnly,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        try {
+            GeoIndexService.Filter filter = new GeoIndexService.Filter(minPrice, maxPrice, minSize, maxSize, availableOnly, limit);
+            return ResponseEntity.ok(geoIndex.findWithinBox(minLat, minLng, maxLat, maxLng, filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Listed apartments cheaper now than when the last `days` days began, largest drop first
+    @GetMapping("/price-drops")
+    public ResponseEntity<List<PriceDrop>> priceDrops(@RequestParam(defaultValue = "7") int days,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(priceHistory.getRecentDrops(days, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/card")
+    public ResponseEntity<ListingCard> getCard(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(listingCards.getById(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Precomputed nearest neighbours by price, size, location, features and rating; empty until first computed
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarApartment>> similar(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(resilience.read(CIRCUIT, "similar:" + id + ":" + limit,
+                    () -> recommendations.getSimilar(id, limit)));
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Every recorded price/availability change, oldest first; e.g. ?from=2025-06-01T00:00:00Z
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<List<PricePoint>> priceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        try {
+            return ResponseEntity.ok(priceHistory.getHistory(id, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Open/low/high/close per day or week (UTC, weeks from Monday); only buckets with a change are listed
+    @GetMapping("/{id}/price-history/{period}")
+    public ResponseEntity<List<PriceBucket>> priceRollup(
+            @PathVariable Long id, @PathVariable String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(priceHistory.getRollup(id, period, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Apartment> getById(@PathVariable Long id) {
         try {
-            Apartment apartment = service.getById(id);
+            Apartment apartment = resilience.read(CIRCUIT, "apartment:" + id, () -> service.getById(id));
             return ResponseEntity.ok(apartment);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -34,25 +183,42 @@ public class ApartmentController {
 
     @PostMapping
     public ResponseEntity<Apartment> create(@RequestBody Apartment apartment) {
-        Apartment saved = service.create(apartment);
-        return ResponseEntity.status(201).body(saved);
+        try {
+            Apartment saved = resilience.write(CIRCUIT, () -> service.create(apartment));
+            return ResponseEntity.status(201).body(saved);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Apartment> update(@PathVariable Long id, @RequestBody Apartment apartment) {
         try {
-            Apartment updated = service.update(id, apartment);
+            Apartment updated = resilience.write(CIRCUIT, () -> service.update(id, apartment));
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<Apartment> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                           @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch,
+                version -> resilience.write(CIRCUIT, () -> service.patch(id, patch, version)));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
-            service.delete(id);
+            resilience.write(CIRCUIT, () -> service.delete(id));
             return ResponseEntity.noContent().build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,42 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.AuditEvent;
+import com.example.apartment.model.AuditStats;
+import com.example.apartment.service.AuditJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin("*")
+public class AuditController {
+
+    @Autowired
+    private AuditJournal journal;
+
+    // e.g. ?entity=Payment&entityId=42&from=2025-06-01T00:00:00Z; newest first
+    @GetMapping
+    public ResponseEntity<List<AuditEvent>> query(
+            @RequestParam(required = false) String entity,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (entityId != null && entity == null) return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(journal.query(entity, entityId, from, to, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<AuditStats> getStats() {
+        return ResponseEntity.ok(journal.getStats());
+    }
+}
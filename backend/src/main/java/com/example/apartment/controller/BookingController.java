@@ -1,11 +1,18 @@
 package com.example.apartment.controller;
 
 import com.example.apartment.model.Booking;
+import com.example.apartment.model.response.BookingResponse;
+import com.example.apartment.model.response.Views;
 import com.example.apartment.service.BookingService;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,38 +24,65 @@ public class BookingController {
     private BookingService service;
 
     @GetMapping
-    public ResponseEntity<List<Booking>> getAll() {
+    @JsonView(Views.Summary.class)
+    public ResponseEntity<List<BookingResponse>> getAll() {
         List<Booking> bookings = service.getAll();
         if (bookings.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(bookings);
+        return ResponseEntity.ok(BookingResponse.fromAll(bookings));
+    }
+
+    // e.g. ?from=2025-06-01 for everything since June; to defaults to today
+    @GetMapping("/period")
+    @JsonView(Views.Summary.class)
+    public ResponseEntity<List<BookingResponse>> getInPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<Booking> bookings = service.getInPeriod(from, to == null ? LocalDate.now() : to);
+            return ResponseEntity.ok(BookingResponse.fromAll(bookings));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getById(@PathVariable Long id) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<BookingResponse> getById(@PathVariable Long id) {
         try {
             Booking booking = service.getById(id);
-            return ResponseEntity.ok(booking);
+            return ResponseEntity.ok(BookingResponse.from(booking));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping
-    public ResponseEntity<Booking> create(@RequestBody Booking booking) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<BookingResponse> create(@RequestBody Booking booking) {
         Booking saved = service.create(booking);
-        return ResponseEntity.status(201).body(saved);
+        return ResponseEntity.status(201).body(BookingResponse.from(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Booking> update(@PathVariable Long id, @RequestBody Booking booking) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<BookingResponse> update(@PathVariable Long id, @RequestBody Booking booking) {
         try {
             Booking updated = service.update(id, booking);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok(BookingResponse.from(updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<BookingResponse> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                 @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch, version -> service.patch(id, patch, version), BookingResponse::from);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
@@ -0,0 +1,38 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.CheckoutRequest;
+import com.example.apartment.model.CheckoutResult;
+import com.example.apartment.service.CheckoutService;
+import com.example.apartment.service.IdempotencyCache;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/checkout")
+@CrossOrigin("*")
+public class CheckoutController {
+
+    @Autowired
+    private CheckoutService service;
+
+    // Send a fresh Idempotency-Key per purchase attempt and reuse it on retries
+    @PostMapping
+    public ResponseEntity<CheckoutResult> checkout(@RequestBody CheckoutRequest request,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String key) {
+        try {
+            IdempotencyCache.Outcome<CheckoutResult> outcome = service.checkout(key, request);
+            return ResponseEntity.status(outcome.replayed() ? 200 : 201)
+                    .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                    .body(outcome.value());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
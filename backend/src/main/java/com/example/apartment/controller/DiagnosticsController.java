@@ -0,0 +1,47 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.ArchivalStats;
+import com.example.apartment.model.CircuitStats;
+import com.example.apartment.model.PoolStats;
+import com.example.apartment.service.ArchivalService;
+import com.example.apartment.service.DiagnosticsService;
+import com.example.apartment.service.ResilienceGuard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin("*")
+public class DiagnosticsController {
+
+    @Autowired
+    private DiagnosticsService service;
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private ResilienceGuard resilience;
+
+    // supported is false, with only poolType set, when the data source is not a Hikari pool
+    @GetMapping("/pool")
+    public ResponseEntity<PoolStats> getPoolStats() {
+        return ResponseEntity.ok(service.getPoolStats());
+    }
+
+    // Counts from the most recent archival pass; 204 before the first one finishes
+    @GetMapping("/archival")
+    public ResponseEntity<ArchivalStats> getArchivalStats() {
+        ArchivalStats stats = archival.getLastRun();
+        return stats == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(stats);
+    }
+
+    // Circuits around the apartment and inventory repositories; listed once first used
+    @GetMapping("/circuits")
+    public ResponseEntity<List<CircuitStats>> getCircuits() {
+        return ResponseEntity.ok(resilience.getCircuits());
+    }
+}
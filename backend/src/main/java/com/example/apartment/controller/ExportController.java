@@ -0,0 +1,116 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.ExportJob;
+import com.example.apartment.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin("*")
+public class ExportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ExportService service;
+
+    // type is payments or bookings; poll GET /{id} until status is COMPLETED
+    @PostMapping("/{type}")
+    public ResponseEntity<ExportJob> submit(@PathVariable String type) {
+        try {
+            return ResponseEntity.accepted().body(service.submit(type));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJob> getById(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(service.getById(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Downloads a finished export. On Tomcat the file (or the single requested
+     * range) is handed to the connector's sendfile support, so the bytes go
+     * from the page cache to the socket without passing through the heap.
+     * Other containers and multi-range requests fall back to Spring's
+     * resource handling, which also honours Range headers.
+     */
+    @GetMapping("/{id}/file")
+    public ResponseEntity<?> download(@PathVariable Long id, @RequestHeader HttpHeaders headers,
+                                      HttpServletRequest request) throws IOException {
+        Path file;
+        try {
+            file = service.getFile(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!Files.exists(file)) return ResponseEntity.notFound().build();
+
+        long length = Files.size(file);
+        List<HttpRange> ranges;
+        try {
+            ranges = headers.getRange();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(416).header(HttpHeaders.CONTENT_RANGE, "bytes */" + length).build();
+        }
+        String disposition = "attachment; filename=\"" + file.getFileName() + "\"";
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support")) && ranges.size() <= 1) {
+            long start = 0;
+            long end = length - 1;
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(416).header(HttpHeaders.CONTENT_RANGE, "bytes */" + length).build();
+                }
+            }
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            ResponseEntity.BodyBuilder response = ranges.isEmpty() ? ResponseEntity.ok() : ResponseEntity.status(206)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            return response
+                    .contentType(CSV)
+                    .contentLength(end - start + 1)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(CSV)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        try {
+            service.delete(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
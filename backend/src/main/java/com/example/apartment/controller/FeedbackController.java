@@ -1,8 +1,13 @@
 package com.example.apartment.controller;
 
 import com.example.apartment.model.Feedback;
+import com.example.apartment.model.response.FeedbackResponse;
+import com.example.apartment.model.response.Views;
 import com.example.apartment.service.FeedbackService;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,38 +22,51 @@ public class FeedbackController {
     private FeedbackService service;
 
     @GetMapping
-    public ResponseEntity<List<Feedback>> getAll() {
+    @JsonView(Views.Summary.class)
+    public ResponseEntity<List<FeedbackResponse>> getAll() {
         List<Feedback> feedbacks = service.getAll();
         if (feedbacks.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(feedbacks);
+        return ResponseEntity.ok(FeedbackResponse.fromAll(feedbacks));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Feedback> getById(@PathVariable Long id) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<FeedbackResponse> getById(@PathVariable Long id) {
         try {
             Feedback feedback = service.getById(id);
-            return ResponseEntity.ok(feedback);
+            return ResponseEntity.ok(FeedbackResponse.from(feedback));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping
-    public ResponseEntity<Feedback> create(@RequestBody Feedback feedback) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<FeedbackResponse> create(@RequestBody Feedback feedback) {
         Feedback saved = service.create(feedback);
-        return ResponseEntity.status(201).body(saved);
+        return ResponseEntity.status(201).body(FeedbackResponse.from(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Feedback> update(@PathVariable Long id, @RequestBody Feedback feedback) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<FeedbackResponse> update(@PathVariable Long id, @RequestBody Feedback feedback) {
         try {
             Feedback updated = service.update(id, feedback);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok(FeedbackResponse.from(updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<FeedbackResponse> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                  @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch, version -> service.patch(id, patch, version), FeedbackResponse::from);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
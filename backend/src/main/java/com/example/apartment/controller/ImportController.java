@@ -0,0 +1,66 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.ImportJob;
+import com.example.apartment.model.ImportRowError;
+import com.example.apartment.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin("*")
+public class ImportController {
+
+    @Autowired
+    private ImportService service;
+
+    // type is apartments or inventories; format is CSV or NDJSON, guessed from the file name when omitted
+    @PostMapping("/{type}")
+    public ResponseEntity<ImportJob> submit(@PathVariable String type,
+                                            @RequestParam("file") MultipartFile file,
+                                            @RequestParam(required = false) String format) {
+        try (InputStream content = file.getInputStream()) {
+            ImportJob job = service.submit(type, format, file.getOriginalFilename(), content);
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> getById(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(service.getById(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<List<ImportRowError>> getErrors(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(service.getErrors(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJob> resume(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(service.resume(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
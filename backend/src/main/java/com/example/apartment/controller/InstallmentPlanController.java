@@ -1,8 +1,11 @@
 package com.example.apartment.controller;
 
+import com.example.apartment.model.Installment;
 import com.example.apartment.model.InstallmentPlan;
 import com.example.apartment.service.InstallmentPlanService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,6 +36,15 @@ public class InstallmentPlanController {
         }
     }
 
+    @GetMapping("/{id}/installments")
+    public ResponseEntity<List<Installment>> getInstallments(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(service.getInstallments(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<InstallmentPlan> create(@RequestBody InstallmentPlan plan) {
         InstallmentPlan saved = service.create(plan);
@@ -44,11 +56,19 @@ public class InstallmentPlanController {
         try {
             InstallmentPlan updated = service.update(id, plan);
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<InstallmentPlan> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                 @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch, version -> service.patch(id, patch, version));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
@@ -1,8 +1,16 @@
 package com.example.apartment.controller;
 
 import com.example.apartment.model.Inventory;
+import com.example.apartment.model.StockAdjustment;
+import com.example.apartment.model.StockLevel;
+import com.example.apartment.model.StockMovement;
+import com.example.apartment.service.InventoryLedger;
 import com.example.apartment.service.InventoryService;
+import com.example.apartment.service.ResilienceGuard;
+import com.example.apartment.service.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,24 +19,38 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/inventories")
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = ResilienceGuard.STALE_HEADER)
 public class InventoryController {
 
+    private static final String CIRCUIT = "inventories";
+
     @Autowired
     private InventoryService service;
 
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private ResilienceGuard resilience;
+
     @GetMapping
     public ResponseEntity<List<Inventory>> getAll() {
-        List<Inventory> inventories = service.getAll();
-        if (inventories.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(inventories);
+        try {
+            List<Inventory> inventories = resilience.read(CIRCUIT, "inventories", service::getAll);
+            if (inventories.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(inventories);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Optional<Inventory>> getById(@PathVariable Long id) {
         try {
-            Optional<Inventory> inventory = service.getById(id);
+            Optional<Inventory> inventory = resilience.read(CIRCUIT, "inventory:" + id, () -> service.getById(id));
             return ResponseEntity.ok(inventory);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -36,25 +58,82 @@ public class InventoryController {
 
     @PostMapping
     public ResponseEntity<Inventory> create(@RequestBody Inventory inventory) {
-        Inventory saved = service.create(inventory);
-        return ResponseEntity.status(201).body(saved);
+        try {
+            Inventory saved = resilience.write(CIRCUIT, () -> service.create(inventory));
+            return ResponseEntity.status(201).body(saved);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Inventory> update(@PathVariable Long id, @RequestBody Inventory inventory) {
         try {
-            Inventory updated = service.update(id, inventory);
+            Inventory updated = resilience.write(CIRCUIT, () -> service.update(id, inventory));
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<Inventory> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                           @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch,
+                version -> resilience.write(CIRCUIT, () -> service.patch(id, patch, version)));
+    }
+
     @PatchMapping("/{id}/photo")
     public ResponseEntity<Inventory> updatePhotoUrl(@PathVariable Long id, @RequestBody String photoUrl) {
         try {
-            Inventory updated = service.updatePhotoUrl(id, photoUrl);
+            Inventory updated = resilience.write(CIRCUIT, () -> service.updatePhotoUrl(id, photoUrl));
             return ResponseEntity.ok(updated);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // reserve, release, sell or restock; 409 when there is not enough stock (or reserved units) left
+    @PostMapping("/{id}/adjust")
+    public ResponseEntity<StockLevel> adjust(@PathVariable Long id, @RequestBody StockAdjustment adjustment) {
+        try {
+            StockLevel level = resilience.write(CIRCUIT, () -> ledger.adjust(id, adjustment.getType(),
+                    adjustment.getQuantity(), adjustment.getReference()));
+            return ResponseEntity.ok(level);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockLevel> getStock(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ledger.getLevel(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<StockMovement>> getMovements(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(resilience.read(CIRCUIT, "movements:" + id + ":" + limit,
+                    () -> ledger.getMovements(id, limit)));
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -63,8 +142,10 @@ public class InventoryController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
-            service.delete(id);
+            resilience.write(CIRCUIT, () -> service.delete(id));
             return ResponseEntity.noContent().build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,41 @@
+package com.example.apartment.controller;
+
+import com.example.apartment.model.Versioned;
+import com.example.apartment.service.MergePatcher;
+import com.example.apartment.service.ServiceUnavailableException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Function;
+
+/**
+ * Shared response handling of the JSON Merge Patch endpoints. Clients send the
+ * entity version in If-Match (or a "version" field in the patch) to guard
+ * against lost updates; a stale version answers 412 and the new version comes
+ * back as the ETag.
+ */
+final class MergePatchResponses {
+
+    private MergePatchResponses() {
+    }
+
+    static <T extends Versioned> ResponseEntity<T> patch(String ifMatch, Function<Long, T> patcher) {
+        return patch(ifMatch, patcher, Function.identity());
+    }
+
+    static <T extends Versioned, R> ResponseEntity<R> patch(String ifMatch, Function<Long, T> patcher,
+                                                            Function<T, R> body) {
+        try {
+            T patched = patcher.apply(MergePatcher.parseVersion(ifMatch));
+            return ResponseEntity.ok().eTag(String.valueOf(patched.getVersion())).body(body.apply(patched));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(412).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(503).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.apartment.controller;
 
 import com.example.apartment.model.Payment;
+import com.example.apartment.model.response.PaymentResponse;
+import com.example.apartment.model.response.Views;
 import com.example.apartment.service.PaymentService;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,38 +24,65 @@ public class PaymentController {
     private PaymentService service;
 
     @GetMapping
-    public ResponseEntity<List<Payment>> getAll() {
+    @JsonView(Views.Summary.class)
+    public ResponseEntity<List<PaymentResponse>> getAll() {
         List<Payment> payments = service.getAll();
         if (payments.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(payments);
+        return ResponseEntity.ok(PaymentResponse.fromAll(payments));
+    }
+
+    // e.g. ?from=2025-06-01 for everything since June; to defaults to today
+    @GetMapping("/period")
+    @JsonView(Views.Summary.class)
+    public ResponseEntity<List<PaymentResponse>> getInPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<Payment> payments = service.getInPeriod(from, to == null ? LocalDate.now() : to);
+            return ResponseEntity.ok(PaymentResponse.fromAll(payments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Payment> getById(@PathVariable Long id) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<PaymentResponse> getById(@PathVariable Long id) {
         try {
             Payment payment = service.getById(id);
-            return ResponseEntity.ok(payment);
+            return ResponseEntity.ok(PaymentResponse.from(payment));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PostMapping
-    public ResponseEntity<Payment> create(@RequestBody Payment payment) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<PaymentResponse> create(@RequestBody Payment payment) {
         Payment saved = service.create(payment);
-        return ResponseEntity.status(201).body(saved);
+        return ResponseEntity.status(201).body(PaymentResponse.from(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Payment> update(@PathVariable Long id, @RequestBody Payment payment) {
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<PaymentResponse> update(@PathVariable Long id, @RequestBody Payment payment) {
         try {
             Payment updated = service.update(id, payment);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok(PaymentResponse.from(updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", "application/json"})
+    @JsonView(Views.Detail.class)
+    public ResponseEntity<PaymentResponse> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                 @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return MergePatchResponses.patch(ifMatch, version -> service.patch(id, patch, version), PaymentResponse::from);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         try {
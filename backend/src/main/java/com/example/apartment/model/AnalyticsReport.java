@@ -0,0 +1,23 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class AnalyticsReport {
+    private String from;
+    private String to;
+    private double totalRevenue;
+    // Completed payments only, keyed by yyyy-MM / location
+    private Map<String, Double> revenueByMonth;
+    private Map<String, Double> revenueByLocation;
+    // All payments, keyed by payment status
+    private Map<String, Double> revenueByStatus;
+    private Map<String, Long> bookingsByStatus;
+    // Share of apartments with a non-cancelled booking in the month
+    private Map<String, Double> occupancyByMonth;
+    private double occupancyRate;
+    // p50, p90, p99, min, max of apartment list prices
+    private Map<String, Double> pricePercentiles;
+}
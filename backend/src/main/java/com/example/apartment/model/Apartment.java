@@ -1,16 +1,26 @@
 package com.example.apartment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@SQLDelete(sql = "update apartments set deleted_at = current_timestamp, version = version + 1 where id = ? and version = ?")
+@SQLRestriction("deleted_at is null")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "apartments")
-public class Apartment {
+public class Apartment implements Versioned, SoftDeletable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,5 +39,17 @@ public class Apartment {
     @Column(length = 2048)
     private String photoUrl;
     private Boolean available;
+    // WGS84 coordinates for proximity search; optional
+    private Double latitude;
+    private Double longitude;
+
+    // Set by delete; the row stays hidden until ArchivalService moves or removes it
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
 
@@ -0,0 +1,25 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One precomputed nearest neighbour of an apartment; rows are rewritten by RecommendationService
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "apartment_similarity",
+        uniqueConstraints = @UniqueConstraint(name = "uk_apartment_similarity", columnNames = {"apartmentId", "neighbourRank"}))
+public class ApartmentSimilarity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long apartmentId;
+    // 0 is the most similar
+    private int neighbourRank;
+    @Column(nullable = false)
+    private Long similarId;
+    private double score;
+}
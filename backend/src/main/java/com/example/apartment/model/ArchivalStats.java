@@ -0,0 +1,25 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Row counts of one ArchivalService pass
+@Data
+public class ArchivalStats {
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    // Children of deleted parents that were soft-deleted in turn
+    private long cascadedBookings;
+    private long cascadedPayments;
+    private long cascadedFeedback;
+    private long purgedInventory;
+    // Installment plans (with their installments) of deleted payments
+    private long purgedInstallmentPlans;
+    private long archivedBookings;
+    private long archivedPayments;
+    private long archivedFeedback;
+    // Deleted apartments removed once nothing referenced them
+    private long purgedApartments;
+    private String error;
+}
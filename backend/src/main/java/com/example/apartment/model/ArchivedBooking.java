@@ -0,0 +1,24 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Booking moved out of the hot table by ArchivalService; keeps the original id and plain foreign key values
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "booking_archive")
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    private Long userId;
+    private Long apartmentId;
+    private LocalDateTime bookingDate;
+    private String status;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+}
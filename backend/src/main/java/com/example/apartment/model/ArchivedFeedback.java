@@ -0,0 +1,24 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Feedback moved out of the hot table by ArchivalService; keeps the original id and plain foreign key values
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "feedback_archive")
+public class ArchivedFeedback {
+    @Id
+    private Long id;
+
+    private Long userId;
+    private Long apartmentId;
+    private String comment;
+    private int rating;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+}
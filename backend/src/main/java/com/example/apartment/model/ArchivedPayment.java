@@ -0,0 +1,24 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Payment moved out of the hot table by ArchivalService; keeps the original id and plain foreign key values
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "payment_archive")
+public class ArchivedPayment {
+    @Id
+    private Long id;
+
+    private Long bookingId;
+    private double amount;
+    private LocalDateTime paymentDate;
+    private String status;
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,28 @@
+package com.example.apartment.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// One journaled change of an audited entity, or a marker for events the journal had to drop
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuditEvent {
+    // Assigned by the journal writer, increasing across restarts
+    private long sequence;
+    private Instant time;
+    // CREATE, UPDATE, DELETE, ARCHIVE (moved to an archive table) or DROPPED
+    private String action;
+    // Entity class name, e.g. Payment
+    private String entity;
+    private Long entityId;
+    // X-User-Id of the request that made the change, "system" outside a request
+    private String actor;
+    // Field name -> [before, after]; associations by id
+    private Map<String, List<Object>> changes;
+    // DROPPED markers only: events lost since the previous marker
+    private Long dropped;
+}
@@ -0,0 +1,18 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+// Counters of the audit journal since startup
+@Data
+public class AuditStats {
+    private String overflowPolicy;
+    private int capacity;
+    // Events waiting in the ring buffer
+    private long buffered;
+    private long accepted;
+    private long dropped;
+    private long written;
+    private int segments;
+    private long blocks;
+    private long bytesOnDisk;
+}
@@ -0,0 +1,16 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+@Data
+public class CheckoutRequest {
+    private Long userId;
+    private Long apartmentId;
+    // Total price; defaults to the apartment's list price
+    private Double amount;
+    // Defaults to 40% of the amount when paying in installments
+    private Double downPayment;
+    // 0 pays in full without an installment plan
+    private int installments;
+    private String schedule;
+}
@@ -0,0 +1,17 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResult {
+    private Booking booking;
+    private Payment payment;
+    private InstallmentPlan installmentPlan;
+    private List<Installment> installments;
+}
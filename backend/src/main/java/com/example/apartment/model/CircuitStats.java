@@ -0,0 +1,19 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CircuitStats {
+    private String name;
+    // CLOSED, OPEN or HALF_OPEN
+    private String state;
+    private int consecutiveFailures;
+    private long retryAfterSeconds;
+    // Stale snapshot responses served for this circuit since startup
+    private long staleResponses;
+    private long rejectedCalls;
+}
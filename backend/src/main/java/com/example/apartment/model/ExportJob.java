@@ -0,0 +1,27 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+public class ExportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // PAYMENTS or BOOKINGS
+    private String exportType;
+    // PENDING, RUNNING, COMPLETED, FAILED, EXPIRED
+    private String status;
+    private long rowsWritten;
+    private long bytesWritten;
+    private String filePath;
+    @Column(length = 1024)
+    private String message;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
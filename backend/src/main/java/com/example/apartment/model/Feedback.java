@@ -1,15 +1,25 @@
 package com.example.apartment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@SQLDelete(sql = "update feedback set deleted_at = current_timestamp, version = version + 1 where id = ? and version = ?")
+@SQLRestriction("deleted_at is null")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Feedback {
+public class Feedback implements Versioned, SoftDeletable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,6 +32,15 @@ public class Feedback {
 
     private String comment;
     private int rating;
+
+    // Set by delete; the row stays hidden until ArchivalService moves or removes it
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
 
 
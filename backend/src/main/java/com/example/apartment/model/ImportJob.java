@@ -0,0 +1,34 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // APARTMENT or INVENTORY
+    private String entityType;
+    // CSV or NDJSON
+    private String format;
+    private String fileName;
+    private String sourcePath;
+
+    // PENDING, RUNNING, COMPLETED, FAILED, INTERRUPTED
+    private String status;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    // Data rows covered by committed chunks; a resumed job skips this many rows
+    private long committedRows;
+    @Column(length = 1024)
+    private String message;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
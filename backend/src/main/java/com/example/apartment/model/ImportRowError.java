@@ -0,0 +1,22 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long jobId;
+    // 1-based data row number in the uploaded file (header excluded)
+    private long rowIndex;
+    @Column(length = 1024)
+    private String message;
+}
@@ -0,0 +1,29 @@
+package com.example.apartment.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One scheduled instalment of an InstallmentPlan
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Installment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    private InstallmentPlan plan;
+
+    private int installmentNumber;
+    private LocalDate dueDate;
+    private double amount;
+    private String status;
+}
@@ -1,15 +1,20 @@
 package com.example.apartment.model;
 
+import com.example.apartment.service.AuditListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@EntityListeners(AuditListener.class)
+@DynamicUpdate
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class InstallmentPlan {
+public class InstallmentPlan implements Versioned {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,6 +25,11 @@ public class InstallmentPlan {
     private int installments;
     private double monthlyAmount;
     private String schedule;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
 
 
@@ -2,13 +2,16 @@ package com.example.apartment.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class Inventory {
+public class Inventory implements Versioned {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -16,10 +19,19 @@ public class Inventory {
     @OneToOne
     private Apartment apartment;
 
+    // Units free to reserve; held units are in reserved. Adjusted through InventoryLedger
     private int stock;
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int reserved;
     private String status;
     @Column(length = 2048)
     private String photoUrl;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
 
@@ -0,0 +1,25 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Precomputed view of an apartment for the listing grid: apartment columns,
+// inventory stock/status and feedback rating aggregates in one row.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListingCard {
+    private Long id;
+    private String location;
+    private Double price;
+    private Integer size;
+    private Boolean available;
+    private String photoUrl;
+    private Double latitude;
+    private Double longitude;
+    private Integer stock;
+    private String status;
+    private Double averageRating;
+    private long ratingCount;
+}
@@ -0,0 +1,13 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyApartment {
+    private ListingCard apartment;
+    private double distanceKm;
+}
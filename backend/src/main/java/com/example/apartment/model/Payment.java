@@ -1,17 +1,28 @@
 package com.example.apartment.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.apartment.service.AuditListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(AuditListener.class)
+@DynamicUpdate
+@SQLDelete(sql = "update payment set deleted_at = current_timestamp, version = version + 1 where id = ? and version = ?")
+@SQLRestriction("deleted_at is null")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Payment {
+@Table(indexes = @Index(name = "idx_payment_date", columnList = "paymentDate"))
+public class Payment implements Versioned, SoftDeletable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,6 +31,17 @@ public class Payment {
     private Booking booking;
 
     private double amount;
+    // Partitioning column in production (Flyway V8); set to now on create when missing
+    @Column(nullable = false)
     private LocalDateTime paymentDate;
     private String status;
+
+    // Set by delete; the row stays hidden until ArchivalService moves or removes it
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
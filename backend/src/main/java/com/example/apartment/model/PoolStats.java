@@ -0,0 +1,21 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+@Data
+public class PoolStats {
+    // Data source class; the other fields are only filled in when it is a supported (Hikari) pool
+    private String poolType;
+    private boolean supported;
+    private String poolName;
+    private int active;
+    private int idle;
+    private int total;
+    // Threads blocked waiting for a connection; non-zero means the pool is saturated
+    private int waiting;
+    private int maximumPoolSize;
+    private int minimumIdle;
+    private long connectionTimeoutMillis;
+    private long leakDetectionThresholdMillis;
+    private boolean saturated;
+}
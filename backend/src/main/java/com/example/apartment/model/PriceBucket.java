@@ -0,0 +1,23 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceBucket {
+    // First day of the bucket (UTC); weeks start on Monday
+    private LocalDate start;
+    // Price in effect when the bucket began
+    private double open;
+    private double low;
+    private double high;
+    private double close;
+    // Price or availability changes within the bucket
+    private int changes;
+    private boolean available;
+}
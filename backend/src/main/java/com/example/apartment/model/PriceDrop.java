@@ -0,0 +1,20 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceDrop {
+    private ListingCard apartment;
+    // Price at the end of the day before the window began
+    private double previousPrice;
+    private double price;
+    private double dropPercent;
+    // Latest price or availability change
+    private Instant changedAt;
+}
@@ -0,0 +1,14 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarApartment {
+    private ListingCard apartment;
+    // 1 for an identical apartment, approaching 0 as they differ
+    private double score;
+}
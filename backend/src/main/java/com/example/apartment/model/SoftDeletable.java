@@ -0,0 +1,8 @@
+package com.example.apartment.model;
+
+import java.time.LocalDateTime;
+
+// Entities whose delete only stamps deleted_at; ArchivalService cascades and removes them later
+public interface SoftDeletable {
+    LocalDateTime getDeletedAt();
+}
@@ -0,0 +1,13 @@
+package com.example.apartment.model;
+
+import lombok.Data;
+
+@Data
+public class StockAdjustment {
+    // RESERVE, RELEASE, SELL or RESTOCK
+    private String type;
+    // Always positive; the type decides the direction
+    private int quantity;
+    // Free text kept with the movement, e.g. a booking id
+    private String reference;
+}
@@ -0,0 +1,15 @@
+package com.example.apartment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Live stock of one inventory row, including movements not yet flushed to it
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockLevel {
+    private Long inventoryId;
+    private int stock;
+    private int reserved;
+}
@@ -0,0 +1,27 @@
+package com.example.apartment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One entry of the append-only inventory ledger, written in batches by InventoryLedger
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "stock_movement", indexes = @Index(name = "idx_stock_movement_inventory", columnList = "inventoryId, id"))
+public class StockMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+    @Column(nullable = false, length = 16)
+    private String type;
+    private int quantity;
+    private String reference;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,6 @@
+package com.example.apartment.model;
+
+// Entities with an optimistic lock version, used by MergePatcher for If-Match checks
+public interface Versioned {
+    Long getVersion();
+}
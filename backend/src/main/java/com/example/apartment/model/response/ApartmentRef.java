@@ -0,0 +1,19 @@
+package com.example.apartment.model.response;
+
+import com.example.apartment.model.Apartment;
+import com.fasterxml.jackson.annotation.JsonView;
+
+// The apartment as embedded in booking and feedback responses
+public record ApartmentRef(
+        @JsonView(Views.Summary.class) Long id,
+        @JsonView(Views.Summary.class) String location,
+        @JsonView(Views.Summary.class) Double price,
+        @JsonView(Views.Detail.class) Integer size,
+        @JsonView(Views.Detail.class) String photoUrl,
+        @JsonView(Views.Detail.class) Boolean available) {
+
+    public static ApartmentRef from(Apartment apartment) {
+        return apartment == null ? null : new ApartmentRef(apartment.getId(), apartment.getLocation(),
+                apartment.getPrice(), apartment.getSize(), apartment.getPhotoUrl(), apartment.getAvailable());
+    }
+}
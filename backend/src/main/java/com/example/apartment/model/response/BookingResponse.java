@@ -0,0 +1,26 @@
+package com.example.apartment.model.response;
+
+import com.example.apartment.model.Booking;
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record BookingResponse(
+        @JsonView(Views.Summary.class) Long id,
+        @JsonView(Views.Summary.class) UserRef user,
+        @JsonView(Views.Summary.class) ApartmentRef apartment,
+        @JsonView(Views.Summary.class) LocalDateTime bookingDate,
+        @JsonView(Views.Summary.class) String status,
+        @JsonView(Views.Summary.class) Long version) {
+
+    public static BookingResponse from(Booking booking) {
+        return booking == null ? null : new BookingResponse(booking.getId(), UserRef.from(booking.getUser()),
+                ApartmentRef.from(booking.getApartment()), booking.getBookingDate(), booking.getStatus(),
+                booking.getVersion());
+    }
+
+    public static List<BookingResponse> fromAll(List<Booking> bookings) {
+        return bookings.stream().map(BookingResponse::from).toList();
+    }
+}
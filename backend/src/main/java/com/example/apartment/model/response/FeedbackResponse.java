@@ -0,0 +1,25 @@
+package com.example.apartment.model.response;
+
+import com.example.apartment.model.Feedback;
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.util.List;
+
+public record FeedbackResponse(
+        @JsonView(Views.Summary.class) Long id,
+        @JsonView(Views.Summary.class) UserRef user,
+        @JsonView(Views.Summary.class) ApartmentRef apartment,
+        @JsonView(Views.Summary.class) String comment,
+        @JsonView(Views.Summary.class) int rating,
+        @JsonView(Views.Summary.class) Long version) {
+
+    public static FeedbackResponse from(Feedback feedback) {
+        return feedback == null ? null : new FeedbackResponse(feedback.getId(), UserRef.from(feedback.getUser()),
+                ApartmentRef.from(feedback.getApartment()), feedback.getComment(), feedback.getRating(),
+                feedback.getVersion());
+    }
+
+    public static List<FeedbackResponse> fromAll(List<Feedback> feedbacks) {
+        return feedbacks.stream().map(FeedbackResponse::from).toList();
+    }
+}
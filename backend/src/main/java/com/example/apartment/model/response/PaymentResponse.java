@@ -0,0 +1,25 @@
+package com.example.apartment.model.response;
+
+import com.example.apartment.model.Payment;
+import com.fasterxml.jackson.annotation.JsonView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PaymentResponse(
+        @JsonView(Views.Summary.class) Long id,
+        @JsonView(Views.Summary.class) BookingResponse booking,
+        @JsonView(Views.Summary.class) double amount,
+        @JsonView(Views.Summary.class) LocalDateTime paymentDate,
+        @JsonView(Views.Summary.class) String status,
+        @JsonView(Views.Summary.class) Long version) {
+
+    public static PaymentResponse from(Payment payment) {
+        return payment == null ? null : new PaymentResponse(payment.getId(), BookingResponse.from(payment.getBooking()),
+                payment.getAmount(), payment.getPaymentDate(), payment.getStatus(), payment.getVersion());
+    }
+
+    public static List<PaymentResponse> fromAll(List<Payment> payments) {
+        return payments.stream().map(PaymentResponse::from).toList();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.apartment.model.response;
+
+import com.example.apartment.model.User;
+import com.fasterxml.jackson.annotation.JsonView;
+
+// The user as embedded in booking and feedback responses; never carries the password
+public record UserRef(
+        @JsonView(Views.Summary.class) Long id,
+        @JsonView(Views.Summary.class) String username,
+        @JsonView(Views.Summary.class) String email,
+        @JsonView(Views.Detail.class) String role) {
+
+    public static UserRef from(User user) {
+        return user == null ? null : new UserRef(user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.apartment.model.response;
+
+/**
+ * Jackson views for the response models. List endpoints render
+ * {@link Summary}, single-resource endpoints {@link Detail}; with
+ * DEFAULT_VIEW_INCLUSION off (the Spring Boot default) a property without a
+ * view is never written.
+ */
+public final class Views {
+
+    public interface Summary {
+    }
+
+    public interface Detail extends Summary {
+    }
+
+    private Views() {
+    }
+}
@@ -2,8 +2,25 @@ package com.example.apartment.repository;
 
 import com.example.apartment.model.Apartment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ApartmentRepository extends JpaRepository<Apartment, Long> {
+
+    // Rows of [id, location, price]
+    @Query("select a.id, a.location, a.price from Apartment a")
+    List<Object[]> findPriceColumns();
+
+    // Rows of [id, latitude, longitude, price, size, available] for apartments with coordinates
+    @Query("select a.id, a.latitude, a.longitude, a.price, a.size, a.available from Apartment a " +
+            "where a.latitude is not null and a.longitude is not null")
+    List<Object[]> findGeoColumns();
+
+    @Query("select a.id from Apartment a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
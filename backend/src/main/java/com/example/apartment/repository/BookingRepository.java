@@ -1,9 +1,45 @@
 package com.example.apartment.repository;
 
 import com.example.apartment.model.Booking;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    // Rows of [id, bookingDate, status, apartment id], must be consumed inside a transaction
+    @Query("select b.id, b.bookingDate, b.status, b.apartment.id from Booking b where b.id > :afterId order by b.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamOccupancyColumns(@Param("afterId") Long afterId);
+
+    // Same columns for bookings archived by the retention policy (not deletes)
+    @Query("select b.id, b.bookingDate, b.status, b.apartmentId from ArchivedBooking b where b.deletedAt is null order by b.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamArchivedOccupancyColumns();
+
+    String EXPORT_ROWS = "select b.id, b.bookingDate, b.status, a.id, a.location, a.price, u.id, u.username, u.email " +
+            "from Booking b left join b.apartment a left join b.user u order by b.id";
+
+    // Rows of [booking id, bookingDate, status, apartment id, location, price, user id, username, email],
+    // must be consumed inside a transaction
+    @Query(EXPORT_ROWS)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamExportRows();
+
+    // Integer.MIN_VALUE makes Connector/J stream rows one at a time; other drivers reject it
+    @Query(EXPORT_ROWS)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE))
+    Stream<Object[]> streamExportRowsFromMySql();
+
+    // Half-open range on the partitioning column so MySQL only reads the partitions of the months involved
+    @Query("select b from Booking b where b.bookingDate >= :from and b.bookingDate < :to order by b.bookingDate")
+    List<Booking> findInPeriod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
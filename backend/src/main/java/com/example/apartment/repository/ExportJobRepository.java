@@ -0,0 +1,16 @@
+package com.example.apartment.repository;
+
+import com.example.apartment.model.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    List<ExportJob> findByStatusIn(List<String> statuses);
+
+    List<ExportJob> findByStatusAndCompletedAtBefore(String status, LocalDateTime before);
+}
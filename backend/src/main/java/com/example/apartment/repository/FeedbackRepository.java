@@ -2,8 +2,19 @@ package com.example.apartment.repository;
 
 import com.example.apartment.model.Feedback;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
+
+    // Rows of [apartmentId, averageRating, ratingCount]
+    @Query("select f.apartment.id, avg(f.rating), count(f) from Feedback f where f.apartment is not null group by f.apartment.id")
+    List<Object[]> findRatingAggregates();
+
+    @Query("select f.apartment.id, avg(f.rating), count(f) from Feedback f where f.apartment.id = :apartmentId group by f.apartment.id")
+    List<Object[]> findRatingAggregate(@Param("apartmentId") Long apartmentId);
 }
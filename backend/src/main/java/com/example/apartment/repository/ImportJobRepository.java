@@ -0,0 +1,25 @@
+package com.example.apartment.repository;
+
+import com.example.apartment.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    List<ImportJob> findByStatus(String status);
+
+    // Only one of two concurrent resumes of the same job sees a count of 1
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = 'PENDING', j.updatedAt = :now " +
+            "where j.id = :id and j.status in ('FAILED', 'INTERRUPTED')")
+    int markPendingIfStopped(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,13 @@
+package com.example.apartment.repository;
+
+import com.example.apartment.model.ImportRowError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportRowErrorRepository extends JpaRepository<ImportRowError, Long> {
+
+    List<ImportRowError> findByJobIdOrderByRowIndex(Long jobId);
+}
@@ -0,0 +1,20 @@
+package com.example.apartment.repository;
+
+import com.example.apartment.model.Installment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InstallmentRepository extends JpaRepository<Installment, Long> {
+
+    List<Installment> findByPlanIdOrderByInstallmentNumber(Long planId);
+
+    @Modifying
+    @Query("delete from Installment i where i.plan.id = :planId")
+    int deleteByPlanId(@Param("planId") Long planId);
+}
@@ -3,7 +3,12 @@ package com.example.apartment.repository;
 import com.example.apartment.model.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    Optional<Inventory> findFirstByApartmentId(Long apartmentId);
 }
 
@@ -1,10 +1,50 @@
-
 package com.example.apartment.repository;
 
 import com.example.apartment.model.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
-}
\ No newline at end of file
+    // Rows of [id, amount, paymentDate, status, apartment location], must be consumed inside a transaction
+    @Query("select p.id, p.amount, p.paymentDate, p.status, a.location from Payment p " +
+            "left join p.booking b left join b.apartment a where p.id > :afterId order by p.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamRevenueColumns(@Param("afterId") Long afterId);
+
+    // Same columns for payments archived by the retention policy (not deletes); the booking may be archived too
+    @Query("select p.id, p.amount, p.paymentDate, p.status, a.location from ArchivedPayment p " +
+            "left join Booking b on b.id = p.bookingId left join ArchivedBooking ab on ab.id = p.bookingId " +
+            "left join Apartment a on a.id = coalesce(b.apartment.id, ab.apartmentId) " +
+            "where p.deletedAt is null order by p.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamArchivedRevenueColumns();
+
+    String EXPORT_ROWS = "select p.id, p.amount, p.paymentDate, p.status, b.id, b.bookingDate, b.status, " +
+            "a.id, a.location, u.id, u.username, u.email from Payment p " +
+            "left join p.booking b left join b.apartment a left join b.user u order by p.id";
+
+    // Rows of [payment id, amount, paymentDate, status, booking id, bookingDate, booking status,
+    // apartment id, location, user id, username, email], must be consumed inside a transaction
+    @Query(EXPORT_ROWS)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<Object[]> streamExportRows();
+
+    // Integer.MIN_VALUE makes Connector/J stream rows one at a time; other drivers reject it
+    @Query(EXPORT_ROWS)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + Integer.MIN_VALUE))
+    Stream<Object[]> streamExportRowsFromMySql();
+
+    // Half-open range on the partitioning column so MySQL only reads the partitions of the months involved
+    @Query("select p from Payment p where p.paymentDate >= :from and p.paymentDate < :to order by p.paymentDate")
+    List<Payment> findInPeriod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
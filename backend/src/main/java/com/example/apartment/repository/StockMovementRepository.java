@@ -0,0 +1,14 @@
+package com.example.apartment.repository;
+
+import com.example.apartment.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findByInventoryIdOrderByIdDesc(Long inventoryId, Pageable pageable);
+}
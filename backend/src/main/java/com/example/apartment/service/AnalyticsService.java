@@ -0,0 +1,488 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.AnalyticsReport;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.repository.BookingRepository;
+import com.example.apartment.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Revenue and occupancy reporting. Payments, bookings and apartment prices are
+ * streamed once into primitive column arrays, then aggregated with fork/join
+ * tasks. New rows are appended incrementally (by id) the next time a report is
+ * requested after a write; edits and deletes force a full reload, which also
+ * reads the settled rows archived by retention. IDENTITY ids can commit out of
+ * order, so each incremental load re-reads the last {@value #ID_SAFETY_WINDOW}
+ * ids and skips the ones it already has. Reports are cached per month window
+ * until the underlying columns change.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final int NO_MONTH = -1;
+    private static final String COMPLETED = "COMPLETED";
+    private static final String CANCELLED = "CANCELLED";
+    // Ids below the highest seen that may still commit; wider than the inserts in flight at once
+    private static final long ID_SAFETY_WINDOW = 1000;
+    private static final int MAX_CACHED_REPORTS = 64;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    private final TransactionTemplate readOnlyTx;
+
+    private final Dictionary locations = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+    private PaymentColumns payments = new PaymentColumns();
+    private BookingColumns bookings = new BookingColumns();
+    private double[] prices = new double[0];
+    private int apartmentCount;
+
+    // Keyed by client-chosen windows, so least recently used ones are dropped
+    private final Map<String, AnalyticsReport> reports = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AnalyticsReport> eldest) {
+                    return size() > MAX_CACHED_REPORTS;
+                }
+            });
+    private volatile boolean stale = true;
+    private volatile boolean fullReload = true;
+
+    public AnalyticsService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // New payments, bookings or apartments: append on next report
+    public void markChanged() {
+        stale = true;
+    }
+
+    // Existing rows edited or deleted: rebuild the columns on next report
+    public void markRewritten() {
+        fullReload = true;
+        stale = true;
+    }
+
+    public AnalyticsReport report(YearMonth from, YearMonth to) {
+        String key = from + ".." + to;
+        if (!stale) {
+            AnalyticsReport cached = reports.get(key);
+            if (cached != null) return cached;
+        }
+        synchronized (this) {
+            if (stale) refresh();
+            return reports.computeIfAbsent(key, k -> compute(from, to));
+        }
+    }
+
+    private void refresh() {
+        stale = false;
+        boolean full = fullReload;
+        if (full) {
+            fullReload = false;
+            payments = new PaymentColumns();
+            bookings = new BookingColumns();
+        }
+        // Taken before the archived rows move lastId
+        long paymentsAfter = payments.after();
+        long bookingsAfter = bookings.after();
+        readOnlyTx.executeWithoutResult(status -> {
+            // Rows archived under archive.retention-days still count; incremental loads already hold them
+            if (full) {
+                try (Stream<Object[]> rows = paymentRepository.streamArchivedRevenueColumns()) {
+                    rows.forEach(this::appendPayment);
+                }
+                try (Stream<Object[]> rows = bookingRepository.streamArchivedOccupancyColumns()) {
+                    rows.forEach(this::appendBooking);
+                }
+            }
+            try (Stream<Object[]> rows = paymentRepository.streamRevenueColumns(paymentsAfter)) {
+                rows.forEach(this::appendPayment);
+            }
+            try (Stream<Object[]> rows = bookingRepository.streamOccupancyColumns(bookingsAfter)) {
+                rows.forEach(this::appendBooking);
+            }
+        });
+        payments.prune();
+        bookings.prune();
+        List<Object[]> apartments = apartmentRepository.findPriceColumns();
+        double[] loaded = new double[apartments.size()];
+        for (int i = 0; i < loaded.length; i++) {
+            Object[] row = apartments.get(i);
+            locations.code((String) row[1]);
+            loaded[i] = row[2] == null ? 0 : (Double) row[2];
+        }
+        prices = loaded;
+        apartmentCount = loaded.length;
+        reports.clear();
+    }
+
+    // [id, amount, paymentDate, status, location]
+    private void appendPayment(Object[] row) {
+        payments.append((Long) row[0], (Double) row[1], month((LocalDateTime) row[2]),
+                statuses.code((String) row[3]), locations.code((String) row[4]));
+    }
+
+    // [id, bookingDate, status, apartment id]
+    private void appendBooking(Object[] row) {
+        bookings.append((Long) row[0], month((LocalDateTime) row[1]), statuses.code((String) row[2]),
+                row[3] == null ? 0L : (Long) row[3]);
+    }
+
+    private AnalyticsReport compute(YearMonth from, YearMonth to) {
+        int fromMonth = from == null ? Integer.MIN_VALUE : month(from);
+        int toMonth = to == null ? Integer.MAX_VALUE : month(to);
+        boolean unbounded = from == null && to == null;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        RevenuePartial revenue = pool.invoke(new RevenueTask(payments, 0, payments.size,
+                fromMonth, toMonth, unbounded, statuses.find(COMPLETED), locations.size(), statuses.size()));
+        BookingPartial occupancy = pool.invoke(new BookingTask(bookings, 0, bookings.size,
+                fromMonth, toMonth, unbounded, statuses.find(CANCELLED), statuses.size()));
+
+        AnalyticsReport report = new AnalyticsReport();
+        report.setFrom(from == null ? null : from.toString());
+        report.setTo(to == null ? null : to.toString());
+        report.setTotalRevenue(revenue.total);
+        report.setRevenueByMonth(byMonth(revenue.byMonth));
+        report.setRevenueByLocation(byCode(revenue.byLocation, locations));
+        report.setRevenueByStatus(byCode(revenue.byStatus, statuses));
+
+        Map<String, Long> bookingsByStatus = new TreeMap<>();
+        for (int code = 0; code < occupancy.byStatus.length; code++) {
+            if (occupancy.byStatus[code] > 0) bookingsByStatus.put(statuses.value(code), occupancy.byStatus[code]);
+        }
+        report.setBookingsByStatus(bookingsByStatus);
+
+        Map<String, Double> occupancyByMonth = new TreeMap<>();
+        Set<Long> occupied = new HashSet<>();
+        for (Map.Entry<Integer, Set<Long>> e : occupancy.apartmentsByMonth.entrySet()) {
+            occupied.addAll(e.getValue());
+            if (e.getKey() != NO_MONTH) {
+                occupancyByMonth.put(label(e.getKey()), rate(e.getValue().size()));
+            }
+        }
+        report.setOccupancyByMonth(occupancyByMonth);
+        report.setOccupancyRate(rate(occupied.size()));
+        report.setPricePercentiles(percentiles(prices));
+        return report;
+    }
+
+    private double rate(int occupied) {
+        return apartmentCount == 0 ? 0 : Math.min(1.0, (double) occupied / apartmentCount);
+    }
+
+    private static Map<String, Double> percentiles(double[] values) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (values.length == 0) return result;
+        double[] sorted = values.clone();
+        Arrays.parallelSort(sorted);
+        result.put("min", sorted[0]);
+        result.put("p50", nearestRank(sorted, 0.50));
+        result.put("p90", nearestRank(sorted, 0.90));
+        result.put("p99", nearestRank(sorted, 0.99));
+        result.put("max", sorted[sorted.length - 1]);
+        return result;
+    }
+
+    private static double nearestRank(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static Map<String, Double> byMonth(Map<Integer, Double> sums) {
+        Map<String, Double> result = new TreeMap<>();
+        sums.forEach((month, sum) -> {
+            if (month != NO_MONTH) result.put(label(month), sum);
+        });
+        return result;
+    }
+
+    private static Map<String, Double> byCode(double[] sums, Dictionary dictionary) {
+        Map<String, Double> result = new TreeMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (sums[code] != 0) result.put(dictionary.value(code), sums[code]);
+        }
+        return result;
+    }
+
+    private static int month(LocalDateTime date) {
+        return date == null ? NO_MONTH : month(YearMonth.from(date));
+    }
+
+    private static int month(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static String label(int month) {
+        return YearMonth.of(month / 12, month % 12 + 1).toString();
+    }
+
+    private static boolean inWindow(int month, int fromMonth, int toMonth, boolean unbounded) {
+        if (month == NO_MONTH) return unbounded;
+        return month >= fromMonth && month <= toMonth;
+    }
+
+    // Small string-to-code table so group-by keys are array indexes
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            String key = value == null ? "UNKNOWN" : value;
+            return codes.computeIfAbsent(key, k -> {
+                values.add(k);
+                return values.size() - 1;
+            });
+        }
+
+        int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private static final class PaymentColumns {
+        long lastId;
+        // Ids loaded within the safety window, which the next load reads again
+        final Set<Long> recent = new HashSet<>();
+        int size;
+        double[] amount = new double[1024];
+        int[] month = new int[1024];
+        int[] status = new int[1024];
+        int[] location = new int[1024];
+
+        long after() {
+            return Math.max(0, lastId - ID_SAFETY_WINDOW);
+        }
+
+        void prune() {
+            long after = after();
+            recent.removeIf(id -> id <= after);
+        }
+
+        void append(Long id, Double amountValue, int monthValue, int statusCode, int locationCode) {
+            if (!recent.add(id)) return;
+            if (size == amount.length) {
+                int capacity = size * 2;
+                amount = Arrays.copyOf(amount, capacity);
+                month = Arrays.copyOf(month, capacity);
+                status = Arrays.copyOf(status, capacity);
+                location = Arrays.copyOf(location, capacity);
+            }
+            amount[size] = amountValue == null ? 0 : amountValue;
+            month[size] = monthValue;
+            status[size] = statusCode;
+            location[size] = locationCode;
+            size++;
+            lastId = Math.max(lastId, id);
+        }
+    }
+
+    private static final class BookingColumns {
+        long lastId;
+        final Set<Long> recent = new HashSet<>();
+        int size;
+        int[] month = new int[1024];
+        int[] status = new int[1024];
+        long[] apartment = new long[1024];
+
+        long after() {
+            return Math.max(0, lastId - ID_SAFETY_WINDOW);
+        }
+
+        void prune() {
+            long after = after();
+            recent.removeIf(id -> id <= after);
+        }
+
+        void append(Long id, int monthValue, int statusCode, long apartmentId) {
+            if (!recent.add(id)) return;
+            if (size == month.length) {
+                int capacity = size * 2;
+                month = Arrays.copyOf(month, capacity);
+                status = Arrays.copyOf(status, capacity);
+                apartment = Arrays.copyOf(apartment, capacity);
+            }
+            month[size] = monthValue;
+            status[size] = statusCode;
+            apartment[size] = apartmentId;
+            size++;
+            lastId = Math.max(lastId, id);
+        }
+    }
+
+    private static final class RevenuePartial {
+        final Map<Integer, Double> byMonth = new HashMap<>();
+        final double[] byLocation;
+        final double[] byStatus;
+        double total;
+
+        RevenuePartial(int locationCount, int statusCount) {
+            byLocation = new double[locationCount];
+            byStatus = new double[statusCount];
+        }
+
+        RevenuePartial merge(RevenuePartial other) {
+            other.byMonth.forEach((month, sum) -> byMonth.merge(month, sum, Double::sum));
+            for (int i = 0; i < byLocation.length; i++) byLocation[i] += other.byLocation[i];
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] += other.byStatus[i];
+            total += other.total;
+            return this;
+        }
+    }
+
+    private static final class RevenueTask extends RecursiveTask<RevenuePartial> {
+        private static final int THRESHOLD = 16_384;
+
+        private final PaymentColumns columns;
+        private final int lo;
+        private final int hi;
+        private final int fromMonth;
+        private final int toMonth;
+        private final boolean unbounded;
+        private final int completedCode;
+        private final int locationCount;
+        private final int statusCount;
+
+        RevenueTask(PaymentColumns columns, int lo, int hi, int fromMonth, int toMonth, boolean unbounded,
+                    int completedCode, int locationCount, int statusCount) {
+            this.columns = columns;
+            this.lo = lo;
+            this.hi = hi;
+            this.fromMonth = fromMonth;
+            this.toMonth = toMonth;
+            this.unbounded = unbounded;
+            this.completedCode = completedCode;
+            this.locationCount = locationCount;
+            this.statusCount = statusCount;
+        }
+
+        @Override
+        protected RevenuePartial compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                RevenueTask left = split(lo, mid);
+                left.fork();
+                RevenuePartial right = split(mid, hi).compute();
+                return left.join().merge(right);
+            }
+            RevenuePartial partial = new RevenuePartial(locationCount, statusCount);
+            for (int i = lo; i < hi; i++) {
+                int month = columns.month[i];
+                if (!inWindow(month, fromMonth, toMonth, unbounded)) continue;
+                double amount = columns.amount[i];
+                partial.byStatus[columns.status[i]] += amount;
+                if (columns.status[i] != completedCode) continue;
+                partial.total += amount;
+                partial.byLocation[columns.location[i]] += amount;
+                partial.byMonth.merge(month, amount, Double::sum);
+            }
+            return partial;
+        }
+
+        private RevenueTask split(int from, int to) {
+            return new RevenueTask(columns, from, to, fromMonth, toMonth, unbounded,
+                    completedCode, locationCount, statusCount);
+        }
+    }
+
+    private static final class BookingPartial {
+        final long[] byStatus;
+        final Map<Integer, Set<Long>> apartmentsByMonth = new HashMap<>();
+
+        BookingPartial(int statusCount) {
+            byStatus = new long[statusCount];
+        }
+
+        BookingPartial merge(BookingPartial other) {
+            for (int i = 0; i < byStatus.length; i++) byStatus[i] += other.byStatus[i];
+            other.apartmentsByMonth.forEach((month, ids) ->
+                    apartmentsByMonth.computeIfAbsent(month, m -> new HashSet<>()).addAll(ids));
+            return this;
+        }
+    }
+
+    private static final class BookingTask extends RecursiveTask<BookingPartial> {
+        private static final int THRESHOLD = 16_384;
+
+        private final BookingColumns columns;
+        private final int lo;
+        private final int hi;
+        private final int fromMonth;
+        private final int toMonth;
+        private final boolean unbounded;
+        private final int cancelledCode;
+        private final int statusCount;
+
+        BookingTask(BookingColumns columns, int lo, int hi, int fromMonth, int toMonth, boolean unbounded,
+                    int cancelledCode, int statusCount) {
+            this.columns = columns;
+            this.lo = lo;
+            this.hi = hi;
+            this.fromMonth = fromMonth;
+            this.toMonth = toMonth;
+            this.unbounded = unbounded;
+            this.cancelledCode = cancelledCode;
+            this.statusCount = statusCount;
+        }
+
+        @Override
+        protected BookingPartial compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                BookingTask left = split(lo, mid);
+                left.fork();
+                BookingPartial right = split(mid, hi).compute();
+                return left.join().merge(right);
+            }
+            BookingPartial partial = new BookingPartial(statusCount);
+            for (int i = lo; i < hi; i++) {
+                int month = columns.month[i];
+                if (!inWindow(month, fromMonth, toMonth, unbounded)) continue;
+                partial.byStatus[columns.status[i]]++;
+                if (columns.status[i] == cancelledCode || columns.apartment[i] == 0L) continue;
+                partial.apartmentsByMonth.computeIfAbsent(month, m -> new HashSet<>()).add(columns.apartment[i]);
+            }
+            return partial;
+        }
+
+        private BookingTask split(int from, int to) {
+            return new BookingTask(columns, from, to, fromMonth, toMonth, unbounded, cancelledCode, statusCount);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.Apartment;
 import com.example.apartment.repository.ApartmentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class ApartmentService {
@@ -14,6 +16,30 @@ public class ApartmentService {
     @Autowired
     private ApartmentRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private InvalidationBus invalidations;
+
+    @Autowired
+    private RecommendationService recommendations;
+
+    @Autowired
+    private PriceHistoryService priceHistory;
+
     public List<Apartment> getAll() throws RuntimeException {
         List<Apartment> apartments = repository.findAll();
         return apartments;
@@ -21,6 +47,7 @@ public class ApartmentService {
 
     public Apartment getById(Long id) {
         return repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Apartment with id " + id + " not found"));
     }
 
@@ -29,22 +56,60 @@ public class ApartmentService {
         if (apartment == null) {
             throw new IllegalArgumentException("Apartment cannot be null");
         }
-        return repository.save(apartment);
+        Apartment saved = repository.save(apartment);
+        listingCards.refresh(saved.getId());
+        geoIndex.upsert(saved);
+        analytics.markChanged();
+        recommendations.requestRefresh(saved.getId());
+        priceHistory.record(saved);
+        invalidations.publish(InvalidationBus.Kind.APARTMENT, saved.getId());
+        return saved;
     }
 
     public Apartment update(Long id, Apartment apartment) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Apartment with id " + id + " not found");
-        }
+        Apartment existing = getById(id);
+        if (apartment.getVersion() == null) apartment.setVersion(existing.getVersion());
         apartment.setId(id);
-        return repository.save(apartment);
+        Apartment saved = repository.save(apartment);
+        listingCards.refresh(id);
+        geoIndex.upsert(saved);
+        analyticsChanged(!Objects.equals(existing.getLocation(), saved.getLocation()));
+        recommendations.requestRefresh(id);
+        priceHistory.record(saved);
+        invalidations.publish(InvalidationBus.Kind.APARTMENT, id);
+        return saved;
     }
 
-    public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Apartment with id " + id + " not found");
+    public Apartment patch(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatcher.Result<Apartment> result = patcher.apply(Apartment.class, id, patch, expectedVersion);
+        if (!result.changed()) return result.entity();
+        listingCards.refresh(id);
+        geoIndex.upsert(result.entity());
+        analyticsChanged(patch.has("location"));
+        recommendations.requestRefresh(id);
+        priceHistory.record(result.entity());
+        invalidations.publish(InvalidationBus.Kind.APARTMENT, id);
+        return result.entity();
+    }
+
+    // Payments carry the apartment's location, so only a move rewrites them; prices are re-read on every report
+    private void analyticsChanged(boolean locationChanged) {
+        if (locationChanged) {
+            analytics.markRewritten();
+        } else {
+            analytics.markChanged();
         }
-        repository.deleteById(id);
+    }
+
+    // Soft delete; bookings, feedback and inventory are cleaned up by the archival worker
+    public void delete(Long id) {
+        repository.delete(getById(id));
+        listingCards.evict(id);
+        geoIndex.remove(id);
+        analytics.markRewritten();
+        recommendations.requestRefresh(id);
+        invalidations.publish(InvalidationBus.Kind.APARTMENT, id);
+        archival.requestRun();
     }
 }
 
@@ -0,0 +1,260 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.ArchivalStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Background cleanup behind soft deletes. A delete only stamps deleted_at on
+ * the row, so it returns at once; this worker then cascades deleted
+ * apartments and bookings to their bookings, payments, feedback and
+ * inventory, removes the installment plans of deleted payments, moves
+ * deleted bookings, payments and feedback to the
+ * *_archive tables and drops deleted apartments nothing refers to any more.
+ * With a retention period set, settled payments and bookings older than it
+ * are archived too. Work is done in id chunks, each in its own short
+ * transaction, so the hot tables are never locked for long. Bookings,
+ * payments and installment plans it deletes or archives are journaled to
+ * the {@link AuditJournal} by the "system" actor once their chunk commits.
+ */
+@Service
+public class ArchivalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivalService.class);
+
+    private static final String ORPHANED_BOOKINGS = "select b.id from booking b join apartments a on a.id = b.apartment_id "
+            + "where a.deleted_at is not null and b.deleted_at is null order by b.id limit ?";
+    private static final String ORPHANED_FEEDBACK = "select f.id from feedback f join apartments a on a.id = f.apartment_id "
+            + "where a.deleted_at is not null and f.deleted_at is null order by f.id limit ?";
+    private static final String ORPHANED_PAYMENTS = "select p.id from payment p join booking b on b.id = p.booking_id "
+            + "where b.deleted_at is not null and p.deleted_at is null order by p.id limit ?";
+    private static final String ORPHANED_PLANS = "select ip.id from installment_plan ip join payment p on p.id = ip.payment_id "
+            + "where p.deleted_at is not null order by ip.id limit ?";
+    private static final String ORPHANED_INVENTORY = "select i.id from inventory i join apartments a on a.id = i.apartment_id "
+            + "where a.deleted_at is not null order by i.id limit ?";
+
+    // Payments still carrying an installment plan stay until the plan is deleted
+    private static final String ARCHIVABLE_PAYMENTS = "select p.id from payment p where %s "
+            + "and not exists (select 1 from installment_plan ip where ip.payment_id = p.id) order by p.id limit ?";
+    private static final String ARCHIVABLE_BOOKINGS = "select b.id from booking b where %s "
+            + "and not exists (select 1 from payment p where p.booking_id = b.id) order by b.id limit ?";
+    private static final String ARCHIVABLE_FEEDBACK = "select f.id from feedback f where f.deleted_at is not null "
+            + "order by f.id limit ?";
+    private static final String PURGEABLE_APARTMENTS = "select a.id from apartments a where a.deleted_at is not null "
+            + "and not exists (select 1 from booking b where b.apartment_id = a.id) "
+            + "and not exists (select 1 from feedback f where f.apartment_id = a.id) "
+            + "and not exists (select 1 from inventory i where i.apartment_id = a.id) order by a.id limit ?";
+
+    private static final String COPY_PAYMENTS = "insert into payment_archive "
+            + "(id, booking_id, amount, payment_date, status, deleted_at, archived_at) "
+            + "select id, booking_id, amount, payment_date, status, deleted_at, ? from payment where id in (%s)";
+    private static final String COPY_BOOKINGS = "insert into booking_archive "
+            + "(id, user_id, apartment_id, booking_date, status, deleted_at, archived_at) "
+            + "select id, user_id, apartment_id, booking_date, status, deleted_at, ? from booking where id in (%s)";
+    private static final String COPY_FEEDBACK = "insert into feedback_archive "
+            + "(id, user_id, apartment_id, comment, rating, deleted_at, archived_at) "
+            + "select id, user_id, apartment_id, comment, rating, deleted_at, ? from feedback where id in (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private AuditJournal journal;
+
+    @Value("${archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${archive.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${archive.interval-seconds:300}")
+    private long intervalSeconds;
+
+    private final TransactionTemplate chunkTx;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "archival-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean runRequested = new AtomicBoolean();
+    private volatile ArchivalStats lastRun;
+
+    public ArchivalService(PlatformTransactionManager transactionManager) {
+        this.chunkTx = new TransactionTemplate(transactionManager);
+    }
+
+    // Started once the context is up, so the CDS training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (intervalSeconds > 0) {
+            worker.scheduleWithFixedDelay(this::runSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+        requestRun();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Called after deletes; requests arriving while a pass is queued share that pass
+    public void requestRun() {
+        if (runRequested.compareAndSet(false, true)) {
+            worker.submit(this::runSafely);
+        }
+    }
+
+    public ArchivalStats getLastRun() {
+        return lastRun;
+    }
+
+    private void runSafely() {
+        runRequested.set(false);
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            log.warn("Archival pass failed", e);
+        }
+    }
+
+    ArchivalStats runOnce() {
+        ArchivalStats stats = new ArchivalStats();
+        LocalDateTime now = LocalDateTime.now();
+        stats.setStartedAt(now);
+        long start = System.nanoTime();
+        try {
+            // Cascade first so the archive steps see every row below a deleted parent
+            stats.setCascadedBookings(inChunks(ORPHANED_BOOKINGS, List.of(),
+                    ids -> audited("DELETE", "Booking", ids, markDeleted("booking", ids, now))));
+            stats.setCascadedFeedback(inChunks(ORPHANED_FEEDBACK, List.of(), ids -> markDeleted("feedback", ids, now)));
+            stats.setCascadedPayments(inChunks(ORPHANED_PAYMENTS, List.of(),
+                    ids -> audited("DELETE", "Payment", ids, markDeleted("payment", ids, now))));
+            stats.setPurgedInventory(inChunks(ORPHANED_INVENTORY, List.of(), ids -> delete("inventory", ids)));
+            // A plan keeps its payment in the hot table, and with it the booking and apartment
+            stats.setPurgedInstallmentPlans(inChunks(ORPHANED_PLANS, List.of(),
+                    ids -> audited("DELETE", "InstallmentPlan", ids, deletePlans(ids))));
+
+            LocalDateTime cutoff = retentionDays > 0 ? now.minusDays(retentionDays) : null;
+            List<Object> cutoffArgs = cutoff == null ? List.of() : List.of(cutoff);
+            // Payments go before bookings because payment.booking_id references the hot booking row
+            String payments = String.format(ARCHIVABLE_PAYMENTS, cutoff == null
+                    ? "p.deleted_at is not null"
+                    : "(p.deleted_at is not null or (p.payment_date < ? and p.status <> 'PENDING'))");
+            stats.setArchivedPayments(inChunks(payments, cutoffArgs,
+                    ids -> audited("ARCHIVE", "Payment", ids, move(COPY_PAYMENTS, "payment", ids, now))));
+            String bookings = String.format(ARCHIVABLE_BOOKINGS, cutoff == null
+                    ? "b.deleted_at is not null"
+                    : "(b.deleted_at is not null or b.booking_date < ?)");
+            stats.setArchivedBookings(inChunks(bookings, cutoffArgs,
+                    ids -> audited("ARCHIVE", "Booking", ids, move(COPY_BOOKINGS, "booking", ids, now))));
+            stats.setArchivedFeedback(inChunks(ARCHIVABLE_FEEDBACK, List.of(), ids -> move(COPY_FEEDBACK, "feedback", ids, now)));
+
+            stats.setPurgedApartments(inChunks(PURGEABLE_APARTMENTS, List.of(), ids -> delete("apartments", ids)));
+        } catch (RuntimeException e) {
+            stats.setError(e.getMessage());
+            throw e;
+        } finally {
+            stats.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            lastRun = stats;
+            if (stats.getCascadedBookings() + stats.getCascadedPayments() > 0) {
+                analytics.markRewritten();
+            }
+            long total = stats.getCascadedBookings() + stats.getCascadedPayments() + stats.getCascadedFeedback()
+                    + stats.getPurgedInventory() + stats.getPurgedInstallmentPlans() + stats.getArchivedBookings() + stats.getArchivedPayments()
+                    + stats.getArchivedFeedback() + stats.getPurgedApartments();
+            if (total > 0) {
+                log.info("Archival pass: {}", stats);
+            }
+        }
+        return stats;
+    }
+
+    // Selects up to chunkSize ids and processes them in one transaction until the select comes back empty
+    private long inChunks(String selectIds, List<Object> args, Function<List<Long>, Integer> action) {
+        List<Object> selectArgs = new ArrayList<>(args);
+        selectArgs.add(chunkSize);
+        long total = 0;
+        while (true) {
+            Integer affected = chunkTx.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(selectIds, Long.class, selectArgs.toArray());
+                return ids.isEmpty() ? 0 : action.apply(ids);
+            });
+            // Nothing selected, or another writer got there first; either way the next select would repeat
+            if (affected == null || affected == 0) return total;
+            total += affected;
+        }
+    }
+
+    // Plain SQL bypasses AuditListener, so the chunk's ids are journaled here, after the commit like its events
+    private int audited(String action, String entity, List<Long> ids, int affected) {
+        List<Long> changed = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                journal.appendSystem(action, entity, changed);
+            }
+        });
+        return affected;
+    }
+
+    private int markDeleted(String table, List<Long> ids, LocalDateTime deletedAt) {
+        // Bumping the version makes a concurrent JPA write to the same row fail its optimistic lock
+        String sql = "update " + table + " set deleted_at = ?, version = version + 1 where deleted_at is null and id in ("
+                + placeholders(ids.size()) + ")";
+        return jdbcTemplate.update(sql, withLeading(deletedAt, ids));
+    }
+
+    private int move(String copySql, String table, List<Long> ids, LocalDateTime archivedAt) {
+        jdbcTemplate.update(String.format(copySql, placeholders(ids.size())), withLeading(archivedAt, ids));
+        return delete(table, ids);
+    }
+
+    private int deletePlans(List<Long> ids) {
+        jdbcTemplate.update("delete from installment where plan_id in (" + placeholders(ids.size()) + ")", ids.toArray());
+        return delete("installment_plan", ids);
+    }
+
+    private int delete(String table, List<Long> ids) {
+        return jdbcTemplate.update("delete from " + table + " where id in (" + placeholders(ids.size()) + ")",
+                ids.toArray());
+    }
+
+    private static Object[] withLeading(Object first, List<Long> ids) {
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = first;
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        return args;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
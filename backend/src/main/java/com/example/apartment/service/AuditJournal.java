@@ -0,0 +1,540 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.AuditEvent;
+import com.example.apartment.model.AuditStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only journal of audit events. Callers hand events to a bounded
+ * lock-free ring buffer and return; one writer thread numbers them, groups
+ * them into blocks of JSON lines and appends each block to the current
+ * segment as its own gzip member, so a segment also reads with plain zcat.
+ * Segments roll over after {@code segmentBytes}. Each block gets a
+ * fixed-size entry in the segment's .idx file with its offset, time range and
+ * a Bloom filter of the entities it touches; queries decompress only the
+ * blocks that can match. A block closes at {@code blockBytes} or
+ * {@link #MAX_BLOCK_EVENTS} events, whichever comes first, so its filter
+ * never holds more keys than it was sized for.
+ *
+ * <p>When the buffer is full, DROP discards the event at once and BLOCK lets
+ * the caller wait up to {@code blockTimeout} for room before discarding it.
+ * Either way the writer journals a DROPPED marker with the count, so gaps
+ * show in the log itself. A block that cannot be written is dropped the
+ * same way rather than kept in memory.
+ */
+public class AuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("audit-(\\d{8})\\.(jsonl\\.gz|idx)");
+    private static final int BLOOM_LONGS = 64;
+    private static final int BLOOM_BITS = BLOOM_LONGS * 64;
+    // 16 bits per entity id keeps false positives near 0.5% with three probes; entity-only keys repeat
+    public static final int MAX_BLOCK_EVENTS = BLOOM_BITS / 16;
+    // offset, length, count, min time, max time, last sequence, Bloom filter
+    private static final int INDEX_ENTRY_BYTES = 8 + 4 + 4 + 8 + 8 + 8 + BLOOM_LONGS * 8;
+    private static final int MAX_QUERY_LIMIT = 1000;
+    private static final long PRODUCER_PARK_NANOS = 50_000;
+    // Under sustained load the buffer never empties, so drops are also checked every this many events
+    private static final int DROP_CHECK_EVENTS = 1024;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutNanos;
+    private final long segmentBytes;
+    private final int blockBytes;
+    private final long flushIntervalNanos;
+    private final Duration retention;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long written;
+
+    // Indexed blocks of every segment, oldest first
+    private final ConcurrentLinkedDeque<Block> blocks = new ConcurrentLinkedDeque<>();
+
+    // Writer thread only (the closing thread once the writer has stopped)
+    private long nextSequence = 1;
+    private long droppedJournaled;
+    private int segmentNumber;
+    private FileChannel segment;
+    private FileChannel index;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final long[] pendingBloom = new long[BLOOM_LONGS];
+    private int pendingCount;
+    private long pendingMinTime;
+    private long pendingMaxTime;
+    private long pendingSince;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+    // Set while the writer sleeps on an empty buffer; producers unpark it
+    private volatile boolean writerParked;
+
+    private record Block(int segment, long offset, int length, int count, long minTime, long maxTime,
+                         long lastSequence, long[] bloom) {
+    }
+
+    public AuditJournal(Path directory, ObjectMapper objectMapper, int capacity, OverflowPolicy policy,
+                        Duration blockTimeout, long segmentBytes, int blockBytes, Duration flushInterval,
+                        Duration retention) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.policy = policy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.segmentBytes = segmentBytes;
+        this.blockBytes = blockBytes;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.retention = retention;
+    }
+
+    // Started once the context is up, so the CDS training run never creates journal files
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) return;
+        try {
+            Files.createDirectories(directory);
+            loadIndexes();
+            // Never append to an earlier segment; its tail may be torn
+            openSegment(segmentNumber + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit journal in " + directory, e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit journal in {} continuing at sequence {}", directory, nextSequence);
+    }
+
+    @PreDestroy
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            current = writer;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            log.warn("Audit writer did not stop; {} buffered events are lost", buffer.size());
+            return;
+        }
+        try {
+            for (AuditEvent event = buffer.poll(); event != null; event = buffer.poll()) {
+                add(event);
+            }
+            journalDrops();
+            flushBlock();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the last audit block", e);
+        } finally {
+            closeSegment();
+        }
+    }
+
+    /**
+     * Queues an event for the writer. Never throws and never waits longer
+     * than the BLOCK timeout; an event that does not fit is counted as
+     * dropped.
+     */
+    public void append(AuditEvent event) {
+        if (buffer.offer(event)) {
+            accepted.incrementAndGet();
+            wakeWriter();
+            return;
+        }
+        if (policy == OverflowPolicy.BLOCK && running) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    accepted.incrementAndGet();
+                    wakeWriter();
+                    return;
+                }
+            }
+        }
+        dropped.incrementAndGet();
+        wakeWriter();
+    }
+
+    private void wakeWriter() {
+        if (writerParked) LockSupport.unpark(writer);
+    }
+
+    /**
+     * Journals rows changed with plain SQL, which never pass through
+     * {@link AuditListener}: one event per id, by the "system" actor.
+     */
+    public void appendSystem(String action, String entity, Collection<Long> ids) {
+        for (Long id : ids) {
+            append(systemEvent(action, entity, id));
+        }
+    }
+
+    public static AuditEvent systemEvent(String action, String entity, Long entityId) {
+        AuditEvent event = new AuditEvent();
+        event.setTime(Instant.now());
+        event.setAction(action);
+        event.setEntity(entity);
+        event.setEntityId(entityId);
+        event.setActor("system");
+        return event;
+    }
+
+    /**
+     * Newest first. Entity names match case-insensitively; a null entity
+     * matches every event including DROPPED markers. Events still in the
+     * buffer or the open block are not visible yet.
+     */
+    public List<AuditEvent> query(String entity, Long entityId, Instant from, Instant to, int limit) {
+        int capped = Math.min(Math.max(limit, 1), MAX_QUERY_LIMIT);
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        int[] probe = entity == null ? null : bloomPositions(entity, entityId);
+        List<AuditEvent> result = new ArrayList<>();
+        for (Iterator<Block> it = blocks.descendingIterator(); it.hasNext() && result.size() < capped; ) {
+            Block block = it.next();
+            if (block.maxTime() < fromMillis || block.minTime() > toMillis) continue;
+            if (probe != null && !mightContain(block.bloom(), probe)) continue;
+            List<AuditEvent> events = read(block);
+            for (int i = events.size() - 1; i >= 0 && result.size() < capped; i--) {
+                AuditEvent event = events.get(i);
+                long time = event.getTime() == null ? 0 : event.getTime().toEpochMilli();
+                if (time < fromMillis || time > toMillis) continue;
+                if (entity != null && !entity.equalsIgnoreCase(event.getEntity())) continue;
+                if (entityId != null && !entityId.equals(event.getEntityId())) continue;
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    public AuditStats getStats() {
+        AuditStats stats = new AuditStats();
+        stats.setOverflowPolicy(policy.name());
+        stats.setCapacity(buffer.capacity());
+        stats.setBuffered(buffer.size());
+        stats.setAccepted(accepted.get());
+        stats.setDropped(dropped.get());
+        stats.setWritten(written);
+        Set<Integer> segments = new HashSet<>();
+        long blockCount = 0;
+        long bytes = 0;
+        for (Block block : blocks) {
+            segments.add(block.segment());
+            blockCount++;
+            bytes += block.length();
+        }
+        stats.setSegments(segments.size());
+        stats.setBlocks(blockCount);
+        stats.setBytesOnDisk(bytes);
+        return stats;
+    }
+
+    private void writeLoop() {
+        int sinceDropCheck = 0;
+        while (running) {
+            try {
+                AuditEvent event = buffer.poll();
+                if (event != null) {
+                    add(event);
+                    if (++sinceDropCheck >= DROP_CHECK_EVENTS) {
+                        sinceDropCheck = 0;
+                        journalDrops();
+                    }
+                    continue;
+                }
+                journalDrops();
+                long waited = System.nanoTime() - pendingSince;
+                if (pendingCount > 0 && waited >= flushIntervalNanos) flushBlock();
+                writerParked = true;
+                // Checked again after publishing the flag, so a producer that missed it left work behind
+                if (running && buffer.size() == 0 && dropped.get() == droppedJournaled) {
+                    if (pendingCount > 0) {
+                        LockSupport.parkNanos(flushIntervalNanos - waited);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+                writerParked = false;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Audit journal write failed", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void add(AuditEvent event) throws IOException {
+        event.setSequence(nextSequence++);
+        byte[] line = objectMapper.writeValueAsBytes(event);
+        long time = event.getTime().toEpochMilli();
+        if (pendingCount == 0) {
+            pendingSince = System.nanoTime();
+            pendingMinTime = time;
+            pendingMaxTime = time;
+        }
+        pending.write(line);
+        pending.write('\n');
+        pendingCount++;
+        pendingMinTime = Math.min(pendingMinTime, time);
+        pendingMaxTime = Math.max(pendingMaxTime, time);
+        if (event.getEntity() != null) {
+            setBits(pendingBloom, bloomPositions(event.getEntity(), null));
+            setBits(pendingBloom, bloomPositions(event.getEntity(), event.getEntityId()));
+        }
+        if (pending.size() >= blockBytes || pendingCount >= MAX_BLOCK_EVENTS) flushBlock();
+    }
+
+    private void journalDrops() throws IOException {
+        long total = dropped.get();
+        if (total == droppedJournaled) return;
+        AuditEvent marker = new AuditEvent();
+        marker.setTime(Instant.now());
+        marker.setAction("DROPPED");
+        marker.setDropped(total - droppedJournaled);
+        droppedJournaled = total;
+        log.warn("Audit journal dropped {} events ({} policy, capacity {})", marker.getDropped(), policy, buffer.capacity());
+        add(marker);
+    }
+
+    private void flushBlock() throws IOException {
+        if (pendingCount == 0) return;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(pending.size() / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            pending.writeTo(gzip);
+        }
+        byte[] bytes = compressed.toByteArray();
+        long offset = segment.position();
+        long indexOffset = index.position();
+        Block block = new Block(segmentNumber, offset, bytes.length, pendingCount, pendingMinTime, pendingMaxTime,
+                nextSequence - 1, pendingBloom.clone());
+        pending.reset();
+        pendingCount = 0;
+        Arrays.fill(pendingBloom, 0);
+
+        try {
+            writeFully(segment, ByteBuffer.wrap(bytes));
+            segment.force(false);
+            writeFully(index, encode(block));
+            index.force(false);
+        } catch (IOException e) {
+            dropped.addAndGet(block.count());
+            try {
+                segment.truncate(offset).position(offset);
+                index.truncate(indexOffset).position(indexOffset);
+            } catch (IOException ignored) {
+                // The block stays unindexed, so queries never see the partial write
+            }
+            throw e;
+        }
+        blocks.addLast(block);
+        written += block.count();
+        if (segment.position() >= segmentBytes) {
+            closeSegment();
+            openSegment(segmentNumber + 1);
+            applyRetention();
+        }
+    }
+
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        index = FileChannel.open(indexPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void closeSegment() {
+        try {
+            if (segment != null) segment.close();
+            if (index != null) index.close();
+        } catch (IOException e) {
+            log.debug("Could not close audit segment {}", segmentNumber, e);
+        }
+    }
+
+    private void applyRetention() {
+        if (retention.isZero()) return;
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        Map<Integer, Long> newest = new HashMap<>();
+        for (Block block : blocks) {
+            newest.merge(block.segment(), block.maxTime(), Math::max);
+        }
+        for (Map.Entry<Integer, Long> entry : newest.entrySet()) {
+            int number = entry.getKey();
+            if (number == segmentNumber || entry.getValue() >= cutoff) continue;
+            blocks.removeIf(block -> block.segment() == number);
+            try {
+                Files.deleteIfExists(segmentPath(number));
+                Files.deleteIfExists(indexPath(number));
+                log.info("Removed audit segment {} past the retention period", number);
+            } catch (IOException e) {
+                log.warn("Could not remove audit segment {}", number, e);
+            }
+        }
+    }
+
+    private void loadIndexes() throws IOException {
+        Set<Integer> numbers = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) numbers.add(Integer.parseInt(matcher.group(1)));
+            });
+        }
+        for (int number : numbers) {
+            segmentNumber = Math.max(segmentNumber, number);
+            Path path = indexPath(number);
+            if (!Files.exists(path)) continue;
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(path));
+            // A torn last entry means its block was never acknowledged; ignore it
+            while (entries.remaining() >= INDEX_ENTRY_BYTES) {
+                Block block = decode(number, entries);
+                blocks.addLast(block);
+                nextSequence = Math.max(nextSequence, block.lastSequence() + 1);
+            }
+        }
+    }
+
+    private List<AuditEvent> read(Block block) {
+        ByteBuffer bytes = ByteBuffer.allocate(block.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(block.segment()), StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, block.offset() + bytes.position()) < 0) throw new EOFException();
+            }
+        } catch (NoSuchFileException e) {
+            // Removed by retention while the query ran
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<AuditEvent> events = new ArrayList<>(block.count());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(bytes.array())), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) events.add(objectMapper.readValue(line, AuditEvent.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt audit block at " + block.offset() + " of segment " + block.segment(), e);
+        }
+        return events;
+    }
+
+    private static ByteBuffer encode(Block block) {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+        entry.putLong(block.offset()).putInt(block.length()).putInt(block.count())
+                .putLong(block.minTime()).putLong(block.maxTime()).putLong(block.lastSequence());
+        for (long word : block.bloom()) {
+            entry.putLong(word);
+        }
+        return entry.flip();
+    }
+
+    private static Block decode(int segment, ByteBuffer entries) {
+        long offset = entries.getLong();
+        int length = entries.getInt();
+        int count = entries.getInt();
+        long minTime = entries.getLong();
+        long maxTime = entries.getLong();
+        long lastSequence = entries.getLong();
+        long[] bloom = new long[BLOOM_LONGS];
+        for (int i = 0; i < BLOOM_LONGS; i++) {
+            bloom[i] = entries.getLong();
+        }
+        return new Block(segment, offset, length, count, minTime, maxTime, lastSequence, bloom);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("audit-%08d.jsonl.gz", number));
+    }
+
+    private Path indexPath(int number) {
+        return directory.resolve(String.format("audit-%08d.idx", number));
+    }
+
+    // Three bits per key: the entity alone, or the entity and one id
+    private static int[] bloomPositions(String entity, Long entityId) {
+        long hash = entity.toLowerCase(Locale.ROOT).hashCode() * 0x9E3779B97F4A7C15L + (entityId == null ? -1 : entityId);
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return new int[]{(int) (hash & (BLOOM_BITS - 1)), (int) ((hash >>> 16) & (BLOOM_BITS - 1)),
+                (int) ((hash >>> 32) & (BLOOM_BITS - 1))};
+    }
+
+    private static void setBits(long[] bloom, int[] positions) {
+        for (int position : positions) {
+            bloom[position >>> 6] |= 1L << position;
+        }
+    }
+
+    private static boolean mightContain(long[] bloom, int[] positions) {
+        for (int position : positions) {
+            if ((bloom[position >>> 6] & (1L << position)) == 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.AuditEvent;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JPA callbacks of the audited entities. Field values are captured when an
+ * entity is loaded inside a read-write transaction and compared with the
+ * flushed values; only changed fields are kept. Events reach the
+ * {@link AuditJournal} after the transaction commits, so rolled-back writes
+ * are never journaled, and the request thread does no I/O. The actor is the
+ * X-User-Id header of the current request.
+ */
+public class AuditListener {
+
+    private static final Object SNAPSHOTS = new Object();
+    private static final int MAX_VALUE_LENGTH = 256;
+    private static final String ACTOR_HEADER = "X-User-Id";
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Field> ID_FIELDS = new ConcurrentHashMap<>();
+
+    // Hibernate creates listeners through Spring's bean container
+    @Autowired
+    private ObjectProvider<AuditJournal> journal;
+
+    private record Key(Class<?> type, Object id) {
+    }
+
+    @PostLoad
+    void loaded(Object entity) {
+        Map<Key, Object[]> snapshots = snapshots();
+        if (snapshots != null) snapshots.put(key(entity), values(entity));
+    }
+
+    @PostPersist
+    void created(Object entity) {
+        Object[] after = values(entity);
+        record(entity, "CREATE", null, after);
+        remember(entity, after);
+    }
+
+    @PostUpdate
+    void updated(Object entity) {
+        Object[] after = values(entity);
+        Map<Key, Object[]> snapshots = snapshots();
+        // Without a snapshot (loaded outside this transaction) every set field is recorded
+        Object[] before = snapshots == null ? null : snapshots.get(key(entity));
+        record(entity, "UPDATE", before, after);
+        remember(entity, after);
+    }
+
+    @PostRemove
+    void deleted(Object entity) {
+        record(entity, "DELETE", null, null);
+    }
+
+    private void record(Object entity, String action, Object[] before, Object[] after) {
+        AuditJournal target = journal == null ? null : journal.getIfAvailable();
+        if (target == null) return;
+        Map<String, List<Object>> changes = null;
+        if (after != null) {
+            Field[] fields = fields(entity.getClass());
+            changes = new LinkedHashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                Object previous = before == null ? null : before[i];
+                if (Objects.equals(previous, after[i])) continue;
+                changes.put(fields[i].getName(), Arrays.asList(previous, after[i]));
+            }
+            // Only the version moved
+            if (changes.isEmpty() && action.equals("UPDATE")) return;
+        }
+        AuditEvent event = new AuditEvent();
+        event.setTime(Instant.now());
+        event.setAction(action);
+        event.setEntity(entity.getClass().getSimpleName());
+        Object id = idOf(entity);
+        event.setEntityId(id instanceof Number number ? number.longValue() : null);
+        event.setActor(actor());
+        event.setChanges(changes);
+        afterCommit(() -> target.append(event));
+    }
+
+    private void remember(Object entity, Object[] values) {
+        Map<Key, Object[]> snapshots = snapshots();
+        if (snapshots != null) snapshots.put(key(entity), values);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Per transaction, released when it completes; read-only transactions take no snapshots
+    @SuppressWarnings("unchecked")
+    private static Map<Key, Object[]> snapshots() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        Map<Key, Object[]> snapshots = (Map<Key, Object[]>) TransactionSynchronizationManager.getResource(SNAPSHOTS);
+        if (snapshots == null) {
+            snapshots = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(SNAPSHOTS, snapshots);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SNAPSHOTS);
+                }
+            });
+        }
+        return snapshots;
+    }
+
+    private static String actor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) return "system";
+        String user = servlet.getRequest().getHeader(ACTOR_HEADER);
+        if (user == null || user.isBlank()) return "anonymous";
+        return truncate(user.trim());
+    }
+
+    private static Key key(Object entity) {
+        return new Key(entity.getClass(), idOf(entity));
+    }
+
+    private static Object[] values(Object entity) {
+        Field[] fields = fields(entity.getClass());
+        Object[] values = new Object[fields.length];
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = normalize(fields[i].get(entity));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read audited fields of " + entity.getClass().getSimpleName(), e);
+        }
+        return values;
+    }
+
+    // Plain JSON values; associations by id, anything else by its string form
+    private static Object normalize(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) return value;
+        if (value instanceof String text) return truncate(text);
+        if (value instanceof Enum<?> constant) return constant.name();
+        if (value instanceof HibernateProxy proxy) return proxy.getHibernateLazyInitializer().getIdentifier();
+        if (value.getClass().isAnnotationPresent(Entity.class)) return idOf(value);
+        return truncate(value.toString());
+    }
+
+    private static String truncate(String text) {
+        return text.length() <= MAX_VALUE_LENGTH ? text : text.substring(0, MAX_VALUE_LENGTH);
+    }
+
+    // Persistent, non-key fields; collections and the version are left out
+    private static Field[] fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> audited = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                            || field.isAnnotationPresent(Transient.class) || field.isAnnotationPresent(Id.class)
+                            || field.isAnnotationPresent(Version.class)
+                            || Collection.class.isAssignableFrom(field.getType())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    audited.add(field);
+                }
+            }
+            return audited.toArray(Field[]::new);
+        });
+    }
+
+    private static Object idOf(Object entity) {
+        Field field = ID_FIELDS.computeIfAbsent(entity.getClass(), t -> {
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field candidate : c.getDeclaredFields()) {
+                    if (candidate.isAnnotationPresent(Id.class)) {
+                        candidate.setAccessible(true);
+                        return candidate;
+                    }
+                }
+            }
+            throw new IllegalStateException(t.getSimpleName() + " has no @Id field");
+        });
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read id of " + entity.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.apartment.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Batching, framing and loss detection shared by the transports. A publisher
+ * thread waits for the first invalidation, gives the rest of the batch
+ * window (1 ms by default) to arrive, drops duplicates and sends them as one
+ * frame. Every data frame carries the next sequence number of its node, and
+ * an empty heartbeat frame repeats the last one when the node is idle, so a
+ * receiver notices a lost frame within one heartbeat and drops everything it
+ * caches instead of serving stale entries.
+ *
+ * <p>Frame: magic, cluster hash, node id (16 bytes), sequence, entry count,
+ * then one kind byte and one id per entry, 9 bytes each.
+ */
+public abstract class BatchingInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingInvalidationBus.class);
+
+    static final int MAGIC = 0x49564231; // "IVB1"
+    static final int HEADER_BYTES = 4 + 4 + 16 + 8 + 2;
+    static final int ENTRY_BYTES = 1 + 8;
+    // Fits in one unfragmented datagram on a standard Ethernet MTU
+    static final int MAX_FRAME_BYTES = 1400;
+    static final int MAX_ENTRIES = (MAX_FRAME_BYTES - HEADER_BYTES) / ENTRY_BYTES;
+    private static final int MAX_PENDING = 100_000;
+
+    private static final List<Invalidation> EVERYTHING = List.of(
+            new Invalidation(Kind.APARTMENT, ALL), new Invalidation(Kind.INVENTORY, ALL));
+
+    private final int cluster;
+    private final UUID node = UUID.randomUUID();
+    private final long windowNanos;
+    private final long heartbeatMillis;
+
+    private final LinkedBlockingQueue<Invalidation> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final List<Consumer<List<Invalidation>>> listeners = new CopyOnWriteArrayList<>();
+    // Highest sequence seen per sending node, guarded by itself
+    private final Map<UUID, Long> lastSequence = new HashMap<>();
+    // Only touched by the publisher thread
+    private long sequence;
+    private volatile boolean overflowed;
+    private volatile boolean disabled;
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "invalidation-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected BatchingInvalidationBus(String cluster, Duration batchWindow, Duration heartbeat) {
+        // String.hashCode is specified, so every node derives the same value
+        this.cluster = cluster.hashCode();
+        this.windowNanos = batchWindow.toNanos();
+        this.heartbeatMillis = Math.max(heartbeat.toMillis(), 1);
+    }
+
+    protected abstract void openTransport() throws IOException;
+
+    // Called from the publisher thread only
+    protected abstract void send(byte[] frame) throws IOException;
+
+    protected abstract void closeTransport();
+
+    // Started once the context is up, so the CDS training run never opens a socket
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            openTransport();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cache invalidation bus could not start; other nodes will not see writes made here", e);
+            disabled = true;
+            pending.clear();
+            return;
+        }
+        publisher.submit(this::publishLoop);
+    }
+
+    @PreDestroy
+    public void close() {
+        publisher.shutdownNow();
+        closeTransport();
+    }
+
+    @Override
+    public void publish(Kind kind, Long id) {
+        if (id != null && id != ALL) enqueue(new Invalidation(kind, id));
+    }
+
+    @Override
+    public void publishAll(Kind kind) {
+        enqueue(new Invalidation(kind, ALL));
+    }
+
+    @Override
+    public void subscribe(Consumer<List<Invalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    private void enqueue(Invalidation invalidation) {
+        if (disabled) return;
+        // Peers re-read the database on receipt, so they must not hear about a write before it commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(invalidation);
+                }
+            });
+        } else {
+            offer(invalidation);
+        }
+    }
+
+    private void offer(Invalidation invalidation) {
+        // A full queue means peers cannot keep up anyway; tell them to drop everything instead
+        if (!pending.offer(invalidation)) overflowed = true;
+    }
+
+    private void publishLoop() {
+        List<Invalidation> drained = new ArrayList<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Invalidation first = pending.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (first == null && !overflowed) {
+                    sendSafely(encode(sequence, List.of()));
+                    continue;
+                }
+                TimeUnit.NANOSECONDS.sleep(windowNanos);
+                drained.clear();
+                if (first != null) drained.add(first);
+                pending.drainTo(drained);
+                if (overflowed) {
+                    overflowed = false;
+                    drained.addAll(EVERYTHING);
+                }
+                List<Invalidation> batch = compact(drained);
+                for (int from = 0; from < batch.size(); from += MAX_ENTRIES) {
+                    // Counted even if the send fails, so receivers see the gap
+                    sequence++;
+                    sendSafely(encode(sequence, batch.subList(from, Math.min(from + MAX_ENTRIES, batch.size()))));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private void sendSafely(byte[] frame) {
+        try {
+            send(frame);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not send invalidation frame", e);
+        }
+    }
+
+    // Drops duplicates, and single ids of a kind that is invalidated as a whole in the same batch
+    static List<Invalidation> compact(List<Invalidation> invalidations) {
+        Set<Kind> whole = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.isAll()) whole.add(invalidation.kind());
+        }
+        Set<Invalidation> unique = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.isAll() || !whole.contains(invalidation.kind())) unique.add(invalidation);
+        }
+        return new ArrayList<>(unique);
+    }
+
+    byte[] encode(long frameSequence, List<Invalidation> entries) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES);
+        frame.putInt(MAGIC)
+                .putInt(cluster)
+                .putLong(node.getMostSignificantBits())
+                .putLong(node.getLeastSignificantBits())
+                .putLong(frameSequence)
+                .putShort((short) entries.size());
+        for (Invalidation entry : entries) {
+            frame.put(entry.kind().code).putLong(entry.id());
+        }
+        return frame.array();
+    }
+
+    /**
+     * Decodes a frame from a transport and hands it to the listeners. Frames
+     * from other clusters, from this node and malformed ones are ignored; a
+     * sequence gap turns the batch into "everything changed".
+     */
+    protected void receive(ByteBuffer frame) {
+        if (frame.remaining() < HEADER_BYTES || frame.getInt() != MAGIC || frame.getInt() != cluster) return;
+        UUID sender = new UUID(frame.getLong(), frame.getLong());
+        if (sender.equals(node)) return;
+        long frameSequence = frame.getLong();
+        int count = frame.getShort() & 0xFFFF;
+        if (frame.remaining() < count * ENTRY_BYTES) return;
+
+        boolean missed;
+        synchronized (lastSequence) {
+            Long previous = lastSequence.get(sender);
+            // A heartbeat repeats the last sequence, a data frame brings the next one
+            long expected = previous == null ? frameSequence : count == 0 ? previous : previous + 1;
+            missed = frameSequence > expected;
+            if (previous == null || frameSequence > previous) lastSequence.put(sender, frameSequence);
+        }
+
+        List<Invalidation> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Kind kind = Kind.of(frame.get());
+            long id = frame.getLong();
+            if (kind != null) batch.add(new Invalidation(kind, id));
+        }
+        if (missed) {
+            log.info("Missed invalidations from node {}, dropping cached apartments and inventory", sender);
+            batch = EVERYTHING;
+        }
+        if (batch.isEmpty()) return;
+        for (Consumer<List<Invalidation>> listener : listeners) {
+            try {
+                listener.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed", e);
+            }
+        }
+    }
+}
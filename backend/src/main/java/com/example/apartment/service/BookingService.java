@@ -2,9 +2,12 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.Booking;
 import com.example.apartment.repository.BookingRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -13,32 +16,65 @@ public class BookingService {
     @Autowired
     private BookingRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private AnalyticsService analytics;
+
     public List<Booking> getAll() {
         return repository.findAll();
     }
 
     public Booking getById(Long id) {
         return repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Booking with id " + id + " not found"));
     }
 
+    /**
+     * Bookings dated within [from, to], both days inclusive. On the partitioned
+     * production schema only the monthly partitions covering the period are read.
+     */
+    public List<Booking> getInPeriod(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return repository.findInPeriod(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
     public Booking create(Booking booking) {
-        return repository.save(booking);
+        if (booking.getBookingDate() == null) booking.setBookingDate(LocalDateTime.now());
+        Booking saved = repository.save(booking);
+        analytics.markChanged();
+        return saved;
     }
 
     public Booking update(Long id, Booking booking) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Booking with id " + id + " not found");
-        }
+        Booking existing = getById(id);
+        if (booking.getVersion() == null) booking.setVersion(existing.getVersion());
+        if (booking.getBookingDate() == null) booking.setBookingDate(existing.getBookingDate());
         booking.setId(id);
-        return repository.save(booking);
+        Booking saved = repository.save(booking);
+        analytics.markRewritten();
+        return saved;
     }
 
+    public Booking patch(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatcher.Result<Booking> result = patcher.apply(Booking.class, id, patch, expectedVersion);
+        if (!result.changed()) return result.entity();
+        analytics.markRewritten();
+        return result.entity();
+    }
+
+    // Soft delete; the archival worker cascades to payments and moves the row to booking_archive
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Booking with id " + id + " not found");
-        }
-        repository.deleteById(id);
+        repository.delete(getById(id));
+        analytics.markRewritten();
+        archival.requestRun();
     }
 }
 
@@ -0,0 +1,156 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.Booking;
+import com.example.apartment.model.CheckoutRequest;
+import com.example.apartment.model.CheckoutResult;
+import com.example.apartment.model.Installment;
+import com.example.apartment.model.InstallmentPlan;
+import com.example.apartment.model.Payment;
+import com.example.apartment.model.User;
+import com.example.apartment.repository.InstallmentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buys an apartment in one transaction: booking, payment, installment plan
+ * and its generated installment rows. Retries carrying the same
+ * Idempotency-Key get the original result instead of a second purchase.
+ */
+@Service
+public class CheckoutService {
+
+    private static final double DEFAULT_DOWN_PAYMENT_RATE = 0.40;
+    private static final int MAX_INSTALLMENTS = 360;
+
+    private static final String INSERT_INSTALLMENT =
+            "insert into installment (plan_id, installment_number, due_date, amount, status) values (?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private InvalidationBus invalidations;
+
+    private final TransactionTemplate tx;
+
+    // In-process only: a retry that reaches another node, or arrives after eviction, is not deduplicated.
+    // A retry of a checkout still running waits up to 10 seconds for it, then answers 409
+    private final IdempotencyCache<CheckoutResult> completed =
+            new IdempotencyCache<>(10_000, Duration.ofHours(24), Duration.ofSeconds(10));
+
+    public CheckoutService(PlatformTransactionManager transactionManager) {
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public IdempotencyCache.Outcome<CheckoutResult> checkout(String idempotencyKey, CheckoutRequest request) {
+        validate(request);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new IdempotencyCache.Outcome<>(execute(request), false);
+        }
+        return completed.execute(idempotencyKey, request.toString(), () -> execute(request));
+    }
+
+    private CheckoutResult execute(CheckoutRequest request) {
+        CheckoutResult result = tx.execute(status -> purchase(request));
+        listingCards.refresh(request.getApartmentId());
+        geoIndex.upsert(result.getBooking().getApartment());
+        analytics.markChanged();
+        invalidations.publish(InvalidationBus.Kind.APARTMENT, request.getApartmentId());
+        return result;
+    }
+
+    private CheckoutResult purchase(CheckoutRequest request) {
+        Apartment apartment = entityManager.find(Apartment.class, request.getApartmentId());
+        if (apartment == null || apartment.getDeletedAt() != null) {
+            throw new EntityNotFoundException("Apartment with id " + request.getApartmentId() + " not found");
+        }
+        if (Boolean.FALSE.equals(apartment.getAvailable())) {
+            throw new IllegalStateException("Apartment " + apartment.getId() + " is not available");
+        }
+        User user = entityManager.find(User.class, request.getUserId());
+        if (user == null) {
+            throw new EntityNotFoundException("User with id " + request.getUserId() + " not found");
+        }
+        double amount = request.getAmount() != null ? request.getAmount() : apartment.getPrice();
+        int count = request.getInstallments();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Version-checked at commit, so two concurrent checkouts of one apartment cannot both succeed
+        apartment.setAvailable(false);
+
+        Booking booking = new Booking(null, user, apartment, now, "CONFIRMED", null, null);
+        entityManager.persist(booking);
+        Payment payment = new Payment(null, booking, amount, now, count > 0 ? "PENDING" : "COMPLETED", null, null);
+        entityManager.persist(payment);
+        if (count == 0) {
+            return new CheckoutResult(booking, payment, null, List.of());
+        }
+
+        double downPayment = request.getDownPayment() != null
+                ? request.getDownPayment() : round(amount * DEFAULT_DOWN_PAYMENT_RATE);
+        double remaining = Math.max(amount - downPayment, 0);
+        double monthly = round(remaining / count);
+        String schedule = request.getSchedule() == null ? "MONTHLY" : request.getSchedule();
+        InstallmentPlan plan = new InstallmentPlan(null, payment, count, monthly, schedule, null);
+        entityManager.persist(plan);
+
+        List<Object[]> rows = new ArrayList<>(count);
+        LocalDate firstDue = now.toLocalDate();
+        for (int i = 1; i <= count; i++) {
+            // The last installment absorbs the rounding difference
+            double due = i < count ? monthly : round(remaining - monthly * (count - 1));
+            rows.add(new Object[]{plan.getId(), i, firstDue.plusMonths(i), due, "PENDING"});
+        }
+        jdbcTemplate.batchUpdate(INSERT_INSTALLMENT, rows);
+        // The batch does not return generated keys; one select gives the response the installment ids
+        List<Installment> installments = installmentRepository.findByPlanIdOrderByInstallmentNumber(plan.getId());
+        return new CheckoutResult(booking, payment, plan, installments);
+    }
+
+    private static void validate(CheckoutRequest request) {
+        if (request == null || request.getUserId() == null || request.getApartmentId() == null) {
+            throw new IllegalArgumentException("userId and apartmentId are required");
+        }
+        if (request.getInstallments() < 0 || request.getInstallments() > MAX_INSTALLMENTS) {
+            throw new IllegalArgumentException("installments must be between 0 and " + MAX_INSTALLMENTS);
+        }
+        if (request.getAmount() != null && request.getAmount() <= 0) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+        if (request.getDownPayment() != null && request.getDownPayment() < 0) {
+            throw new IllegalArgumentException("downPayment must not be negative");
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apartment.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold}
+ * failures in a row the circuit opens and refuses calls for
+ * {@code openNanos}; then one trial call is let through (half-open) and its
+ * outcome closes or reopens it. The closed path is a volatile read, so
+ * healthy traffic never takes the lock.
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile int failures;
+    // Guarded by this
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openNanos) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be at least 1");
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    // False while open, or half-open with the trial call still running
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) return true;
+        synchronized (this) {
+            if (state == State.CLOSED) return true;
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+            }
+            if (trialInFlight) return false;
+            trialInFlight = true;
+            return true;
+        }
+    }
+
+    public void onSuccess() {
+        if (state == State.CLOSED && failures == 0) return;
+        synchronized (this) {
+            if (state != State.CLOSED) log.info("Circuit {} closed", name);
+            failures = 0;
+            trialInFlight = false;
+            state = State.CLOSED;
+        }
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            if (state != State.OPEN) log.warn("Circuit {} opened after {} consecutive failures", name, failures);
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    // The acquired call never reached the database, e.g. its bulkhead was full
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    // Whole seconds until an open circuit lets a trial call through; 0 otherwise
+    public synchronized long getRetryAfterSeconds() {
+        if (state != State.OPEN) return 0;
+        long remaining = openNanos - (System.nanoTime() - openedAt);
+        return remaining <= 0 ? 0 : (remaining + 999_999_999) / 1_000_000_000;
+    }
+}
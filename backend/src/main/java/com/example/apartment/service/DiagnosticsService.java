@@ -0,0 +1,46 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.PoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Service
+public class DiagnosticsService {
+
+    @Autowired
+    private DataSource dataSource;
+
+    public PoolStats getPoolStats() {
+        PoolStats stats = new PoolStats();
+        stats.setPoolType(dataSource.getClass().getName());
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) return stats;
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return stats;
+        }
+        stats.setPoolType(HikariDataSource.class.getName());
+        stats.setSupported(true);
+        stats.setPoolName(hikari.getPoolName());
+        stats.setMaximumPoolSize(hikari.getMaximumPoolSize());
+        stats.setMinimumIdle(hikari.getMinimumIdle());
+        stats.setConnectionTimeoutMillis(hikari.getConnectionTimeout());
+        stats.setLeakDetectionThresholdMillis(hikari.getLeakDetectionThreshold());
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        // Null until the first connection is requested
+        if (pool != null) {
+            stats.setActive(pool.getActiveConnections());
+            stats.setIdle(pool.getIdleConnections());
+            stats.setTotal(pool.getTotalConnections());
+            stats.setWaiting(pool.getThreadsAwaitingConnection());
+            stats.setSaturated(pool.getThreadsAwaitingConnection() > 0);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.ExportJob;
+import com.example.apartment.repository.BookingRepository;
+import com.example.apartment.repository.ExportJobRepository;
+import com.example.apartment.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous CSV exports of payments and bookings. Rows are streamed from
+ * the database one at a time and encoded straight into a direct buffer that is
+ * drained to a spool file, so memory use does not depend on the row count.
+ * Finished files are served by {@code ExportController} with sendfile and
+ * range support until they expire after {@code export.retention-minutes}.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String PAYMENTS = "PAYMENTS";
+    public static final String BOOKINGS = "BOOKINGS";
+
+    private static final String PAYMENT_HEADER = "paymentId,amount,paymentDate,paymentStatus,bookingId,bookingDate,"
+            + "bookingStatus,apartmentId,location,userId,username,email";
+    private static final String BOOKING_HEADER = "bookingId,bookingDate,status,apartmentId,location,price,"
+            + "userId,username,email";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    @Autowired
+    private ExportJobRepository jobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${export.spool-dir:${java.io.tmpdir}/apartment-exports}")
+    private String spoolDir;
+
+    @Value("${export.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final TransactionTemplate readOnlyTx;
+
+    // Worker thread only; null until the first export
+    private Boolean mySql;
+
+    // Runs exports one at a time and expires finished files
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "export-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // Exports cut off by a restart have a partial file; mark them failed so clients re-request
+    @EventListener(ApplicationReadyEvent.class)
+    void failInterruptedJobs() {
+        for (ExportJob job : jobRepository.findByStatusIn(List.of("PENDING", "RUNNING"))) {
+            deleteQuietly(spoolFile(job));
+            job.setStatus("FAILED");
+            job.setMessage("Interrupted by restart");
+            jobRepository.save(job);
+        }
+        // Files live between retention-minutes and twice that after completion
+        long period = Math.max(1, retentionMinutes);
+        worker.scheduleWithFixedDelay(this::expireFiles, period, period, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public ExportJob getById(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Export job with id " + id + " not found"));
+    }
+
+    public ExportJob submit(String exportType) {
+        String type = exportType == null ? "" : exportType.toUpperCase(Locale.ROOT);
+        if (!type.equals(PAYMENTS) && !type.equals(BOOKINGS)) {
+            throw new IllegalArgumentException("Unsupported export type " + exportType);
+        }
+        ExportJob job = new ExportJob();
+        job.setExportType(type);
+        job.setStatus("PENDING");
+        job.setCreatedAt(LocalDateTime.now());
+        ExportJob saved = jobRepository.save(job);
+        worker.submit(() -> run(saved.getId()));
+        return saved;
+    }
+
+    // Completed export file, or an exception if the job is unknown or not finished
+    public Path getFile(Long id) {
+        ExportJob job = getById(id);
+        if (!"COMPLETED".equals(job.getStatus())) {
+            throw new IllegalStateException("Export job " + id + " is " + job.getStatus());
+        }
+        return Path.of(job.getFilePath());
+    }
+
+    public void delete(Long id) {
+        ExportJob job = getById(id);
+        if (job.getFilePath() != null) deleteQuietly(Path.of(job.getFilePath()));
+        jobRepository.deleteById(id);
+    }
+
+    // Deletes completed files older than the retention; the job stays visible as EXPIRED
+    void expireFiles() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+            for (ExportJob job : jobRepository.findByStatusAndCompletedAtBefore("COMPLETED", cutoff)) {
+                if (job.getFilePath() != null) deleteQuietly(Path.of(job.getFilePath()));
+                job.setStatus("EXPIRED");
+                jobRepository.save(job);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not expire export files", e);
+        }
+    }
+
+    private void run(Long jobId) {
+        ExportJob job = getById(jobId);
+        job.setStatus("RUNNING");
+        job = jobRepository.save(job);
+        try {
+            Files.createDirectories(Path.of(spoolDir));
+            Path file = spoolFile(job);
+            boolean payments = PAYMENTS.equals(job.getExportType());
+            long[] counts;
+            try (CsvChannelWriter writer = new CsvChannelWriter(file)) {
+                writer.writeLine(payments ? PAYMENT_HEADER : BOOKING_HEADER);
+                readOnlyTx.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = exportRows(payments)) {
+                        rows.forEach(writer::writeRow);
+                    }
+                });
+                counts = writer.finish();
+            }
+            job.setFilePath(file.toString());
+            job.setRowsWritten(counts[0]);
+            job.setBytesWritten(counts[1]);
+            job.setStatus("COMPLETED");
+        } catch (Exception e) {
+            log.warn("Export job {} failed", jobId, e);
+            deleteQuietly(spoolFile(job));
+            job.setStatus("FAILED");
+            job.setMessage(e.getMessage());
+        }
+        job.setCompletedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    // Connector/J buffers the whole result unless asked to stream; other drivers page with a fetch size
+    private Stream<Object[]> exportRows(boolean payments) {
+        if (mySql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            mySql = "MySQL".equalsIgnoreCase(product);
+        }
+        if (payments) {
+            return mySql ? paymentRepository.streamExportRowsFromMySql() : paymentRepository.streamExportRows();
+        }
+        return mySql ? bookingRepository.streamExportRowsFromMySql() : bookingRepository.streamExportRows();
+    }
+
+    private Path spoolFile(ExportJob job) {
+        return Path.of(spoolDir).resolve("export-" + job.getId() + "-"
+                + job.getExportType().toLowerCase(Locale.ROOT) + ".csv");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    // Encodes CSV rows into a reusable direct buffer and writes it to the file channel when full
+    private static final class CsvChannelWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final StringBuilder line = new StringBuilder(256);
+        private long rows;
+        private long bytes;
+
+        CsvChannelWriter(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void writeRow(Object[] row) {
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) line.append(',');
+                appendField(row[i]);
+            }
+            writeLine(line);
+            rows++;
+        }
+
+        void writeLine(CharSequence text) {
+            try {
+                CharBuffer chars = CharBuffer.wrap(text + "\n");
+                while (true) {
+                    CoderResult result = encoder.encode(chars, buffer, false);
+                    if (result.isOverflow()) {
+                        drain();
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Returns [rows, bytes]
+        long[] finish() throws IOException {
+            drain();
+            channel.force(false);
+            return new long[]{rows, bytes};
+        }
+
+        private void appendField(Object value) {
+            if (value == null) return;
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                line.append(text);
+                return;
+            }
+            line.append('"').append(text.replace("\"", "\"\"")).append('"');
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                bytes += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
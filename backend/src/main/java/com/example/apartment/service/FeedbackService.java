@@ -2,6 +2,7 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.Feedback;
 import com.example.apartment.repository.FeedbackRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,32 +14,72 @@ public class FeedbackService {
     @Autowired
     private FeedbackRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private RecommendationService recommendations;
+
     public List<Feedback> getAll() {
         return repository.findAll();
     }
 
     public Feedback getById(Long id) {
         return repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Feedback with id " + id + " not found"));
     }
 
     public Feedback create(Feedback feedback) {
-        return repository.save(feedback);
+        Feedback saved = repository.save(feedback);
+        changed(apartmentId(saved));
+        return saved;
     }
 
     public Feedback update(Long id, Feedback feedback) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Feedback with id " + id + " not found");
-        }
+        Feedback existing = getById(id);
+        Long previousApartmentId = apartmentId(existing);
+        if (feedback.getVersion() == null) feedback.setVersion(existing.getVersion());
         feedback.setId(id);
-        return repository.save(feedback);
+        Feedback saved = repository.save(feedback);
+        changed(previousApartmentId);
+        changed(apartmentId(saved));
+        return saved;
+    }
+
+    public Feedback patch(Long id, JsonNode patch, Long expectedVersion) {
+        // Moving the review to another apartment changes the cards of both
+        boolean moves = patch != null && patch.has("apartment");
+        Long previousApartmentId = moves ? repository.findById(id).map(FeedbackService::apartmentId).orElse(null) : null;
+        MergePatcher.Result<Feedback> result = patcher.apply(Feedback.class, id, patch, expectedVersion);
+        if (!result.changed()) return result.entity();
+        if (moves) changed(previousApartmentId);
+        changed(apartmentId(result.entity()));
+        return result.entity();
     }
 
+    // Soft delete; the archival worker moves the row to feedback_archive
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Feedback with id " + id + " not found");
-        }
-        repository.deleteById(id);
+        Feedback existing = getById(id);
+        repository.delete(existing);
+        changed(apartmentId(existing));
+        archival.requestRun();
+    }
+
+    // Ratings feed both the listing card and the recommendation vector of the apartment
+    private void changed(Long apartmentId) {
+        listingCards.refresh(apartmentId);
+        recommendations.requestRefresh(apartmentId);
+    }
+
+    private static Long apartmentId(Feedback feedback) {
+        return feedback.getApartment() == null ? null : feedback.getApartment().getId();
     }
 }
 
@@ -0,0 +1,334 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.ListingCard;
+import com.example.apartment.model.NearbyApartment;
+import com.example.apartment.repository.ApartmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index over apartment coordinates. Apartments are bucketed
+ * into fixed cells of {@link #CELL_DEGREES}; a radius or bounding-box query
+ * only visits the cells overlapping the search area and keeps the nearest
+ * matches in a bounded heap. Point data lives in primitive arrays indexed by
+ * slot so a million listings stay compact. Kept in sync by ApartmentService;
+ * writes made while the index is dropped or being rebuilt are buffered and
+ * replayed over the rebuilt index. Search windows that cross the
+ * antimeridian are split in two, and ones reaching a pole cover every
+ * longitude.
+ */
+@Service
+public class GeoIndexService {
+
+    private static final double CELL_DEGREES = 0.05;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // Same sphere as haversineKm, so the search window never cuts into the circle
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+    private static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private ApartmentRepository repository;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    private long[] ids = new long[1024];
+    private double[] lats = new double[1024];
+    private double[] lons = new double[1024];
+    private double[] prices = new double[1024];
+    private int[] sizes = new int[1024];
+    private boolean[] available = new boolean[1024];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    // Latest write per apartment while not loaded (null: no coordinates or removed); guarded by itself
+    private final Map<Long, Point> pending = new HashMap<>();
+
+    public record Filter(Double minPrice, Double maxPrice, Integer minSize, Integer maxSize, boolean availableOnly,
+                         int limit) {
+    }
+
+    private record Hit(double distanceKm, long id) {
+    }
+
+    private record Point(double lat, double lon, Double price, Integer size, Boolean available) {
+    }
+
+    private record LonRange(double min, double max) {
+    }
+
+    public List<NearbyApartment> findWithinRadius(double lat, double lon, double radiusKm, Filter filter) {
+        if (radiusKm <= 0) throw new IllegalArgumentException("radiusKm must be positive");
+        checkCoordinates(lat, lon);
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = lat - dLat;
+        double maxLat = lat + dLat;
+        if (minLat <= -90 || maxLat >= 90) {
+            // The circle contains a pole, so it spans every longitude
+            return search(Math.max(minLat, -90), Math.min(maxLat, 90), List.of(new LonRange(-180, 180)),
+                    lat, lon, radiusKm, filter);
+        }
+        // Widest at the edge of the window nearest the pole
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLon = radiusKm / (KM_PER_DEGREE * Math.max(cos, 0.01));
+        return search(minLat, maxLat, lonRanges(lon - dLon, lon + dLon), lat, lon, radiusKm, filter);
+    }
+
+    /**
+     * Results are ordered by distance from the centre of the box. A box with
+     * minLon greater than maxLon crosses the antimeridian.
+     */
+    public List<NearbyApartment> findWithinBox(double minLat, double minLon, double maxLat, double maxLon, Filter filter) {
+        checkCoordinates(minLat, minLon);
+        checkCoordinates(maxLat, maxLon);
+        if (minLat > maxLat) throw new IllegalArgumentException("Empty bounding box");
+        double east = minLon > maxLon ? maxLon + 360 : maxLon;
+        double centreLon = (minLon + east) / 2;
+        if (centreLon > 180) centreLon -= 360;
+        return search(minLat, maxLat, lonRanges(minLon, east), (minLat + maxLat) / 2, centreLon,
+                Double.POSITIVE_INFINITY, filter);
+    }
+
+    public void upsert(Apartment apartment) {
+        if (apartment == null || apartment.getId() == null) return;
+        Point point = apartment.getLatitude() == null || apartment.getLongitude() == null ? null
+                : new Point(apartment.getLatitude(), apartment.getLongitude(), apartment.getPrice(),
+                apartment.getSize(), apartment.getAvailable());
+        if (buffered(apartment.getId(), point)) return;
+        lock.writeLock().lock();
+        try {
+            applyLocked(apartment.getId(), point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (id == null || buffered(id, null)) return;
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops the index after bulk changes; it is rebuilt on the next query
+    public void invalidate() {
+        synchronized (pending) {
+            loaded = false;
+        }
+    }
+
+    // A rebuild may read the table before this write commits, so it replays the write afterwards
+    private boolean buffered(long id, Point point) {
+        synchronized (pending) {
+            if (loaded) return false;
+            pending.put(id, point);
+            return true;
+        }
+    }
+
+    // Splits a longitude window running past ±180 into the two ranges it covers
+    private static List<LonRange> lonRanges(double west, double east) {
+        if (east - west >= 360) return List.of(new LonRange(-180, 180));
+        if (west < -180) return List.of(new LonRange(west + 360, 180), new LonRange(-180, east));
+        if (east > 180) return List.of(new LonRange(west, 180), new LonRange(-180, east - 360));
+        return List.of(new LonRange(west, east));
+    }
+
+    private List<NearbyApartment> search(double minLat, double maxLat, List<LonRange> lonRanges,
+                                         double originLat, double originLon, double radiusKm, Filter filter) {
+        ensureLoaded();
+        int limit = Math.min(Math.max(filter.limit(), 1), MAX_LIMIT);
+        // Max-heap on distance so the farthest kept hit is evicted first
+        PriorityQueue<Hit> nearest = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(b.distanceKm(), a.distanceKm()));
+        lock.readLock().lock();
+        try {
+            for (LonRange lon : lonRanges) {
+                double minLon = lon.min();
+                double maxLon = lon.max();
+                int latFrom = cellIndex(minLat, 90);
+                int latTo = cellIndex(maxLat, 90);
+                int lonFrom = cellIndex(minLon, 180);
+                int lonTo = cellIndex(maxLon, 180);
+                long cellsInRange = (long) (latTo - latFrom + 1) * (lonTo - lonFrom + 1);
+                if (cellsInRange > cells.size()) {
+                    // Area wider than the populated cells: walk the occupied cells instead
+                    for (Cell cell : cells.values()) {
+                        collect(cell, minLat, minLon, maxLat, maxLon, originLat, originLon, radiusKm, filter, limit, nearest);
+                    }
+                } else {
+                    for (int latCell = latFrom; latCell <= latTo; latCell++) {
+                        for (int lonCell = lonFrom; lonCell <= lonTo; lonCell++) {
+                            Cell cell = cells.get(cellKey(latCell, lonCell));
+                            if (cell != null) {
+                                collect(cell, minLat, minLon, maxLat, maxLon, originLat, originLon, radiusKm, filter, limit, nearest);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Hit[] hits = nearest.toArray(new Hit[0]);
+        Arrays.sort(hits, (a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        List<NearbyApartment> result = new ArrayList<>(hits.length);
+        for (Hit hit : hits) {
+            try {
+                ListingCard card = listingCards.getById(hit.id());
+                result.add(new NearbyApartment(card, Math.round(hit.distanceKm() * 1000) / 1000.0));
+            } catch (RuntimeException e) {
+                // deleted since it was indexed
+            }
+        }
+        return result;
+    }
+
+    private void collect(Cell cell, double minLat, double minLon, double maxLat, double maxLon,
+                         double originLat, double originLon, double radiusKm, Filter filter, int limit,
+                         PriorityQueue<Hit> nearest) {
+        for (int i = 0; i < cell.size; i++) {
+            int slot = cell.slots[i];
+            double lat = lats[slot];
+            double lon = lons[slot];
+            if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) continue;
+            if (filter.availableOnly() && !available[slot]) continue;
+            if (filter.minPrice() != null && prices[slot] < filter.minPrice()) continue;
+            if (filter.maxPrice() != null && prices[slot] > filter.maxPrice()) continue;
+            if (filter.minSize() != null && sizes[slot] < filter.minSize()) continue;
+            if (filter.maxSize() != null && sizes[slot] > filter.maxSize()) continue;
+            double distance = haversineKm(originLat, originLon, lat, lon);
+            if (distance > radiusKm) continue;
+            if (nearest.size() == limit && distance >= nearest.peek().distanceKm()) continue;
+            nearest.add(new Hit(distance, ids[slot]));
+            if (nearest.size() > limit) nearest.poll();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+            slotById.clear();
+            cells.clear();
+            slotCount = 0;
+            freeCount = 0;
+            for (Object[] row : repository.findGeoColumns()) {
+                addLocked((Long) row[0], (Double) row[1], (Double) row[2], (Double) row[3], (Integer) row[4],
+                        (Boolean) row[5]);
+            }
+            synchronized (pending) {
+                pending.forEach(this::applyLocked);
+                pending.clear();
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(long id, Point point) {
+        removeLocked(id);
+        if (point != null) addLocked(id, point.lat(), point.lon(), point.price(), point.size(), point.available());
+    }
+
+    private void addLocked(long id, double lat, double lon, Double price, Integer size, Boolean isAvailable) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == ids.length) grow();
+            slot = slotCount++;
+        }
+        ids[slot] = id;
+        lats[slot] = lat;
+        lons[slot] = lon;
+        prices[slot] = price == null ? 0 : price;
+        sizes[slot] = size == null ? 0 : size;
+        available[slot] = isAvailable == null || isAvailable;
+        slotById.put(id, slot);
+        cells.computeIfAbsent(cellKey(cellIndex(lat, 90), cellIndex(lon, 180)), k -> new Cell()).add(slot);
+    }
+
+    private void removeLocked(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) return;
+        long key = cellKey(cellIndex(lats[slot], 90), cellIndex(lons[slot], 180));
+        Cell cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(slot);
+            if (cell.size == 0) cells.remove(key);
+        }
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        lats = Arrays.copyOf(lats, capacity);
+        lons = Arrays.copyOf(lons, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        available = Arrays.copyOf(available, capacity);
+    }
+
+    private static int cellIndex(double degrees, double offset) {
+        return (int) Math.floor((degrees + offset) / CELL_DEGREES);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    private static void checkCoordinates(double lat, double lon) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static final class Cell {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
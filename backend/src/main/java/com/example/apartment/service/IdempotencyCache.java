@@ -0,0 +1,108 @@
+package com.example.apartment.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-limited memory of results by client idempotency key. A retry
+ * with the same key gets the first result back (waiting up to a limit for it
+ * if the first attempt is still running) instead of repeating the action.
+ * Attempts in flight are never evicted; failed attempts are forgotten so the
+ * client can retry them.
+ */
+public class IdempotencyCache<V> {
+
+    public record Outcome<V>(V value, boolean replayed) {
+    }
+
+    private record Entry<V>(String fingerprint, CompletableFuture<V> result, long createdAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitMillis;
+    // Insertion order, so the eldest entries are evicted first
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    public IdempotencyCache(int maxEntries, Duration ttl, Duration wait) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.waitMillis = wait.toMillis();
+    }
+
+    /**
+     * @param fingerprint identifies the request body; reusing a key for a
+     *                    different request is rejected
+     * @throws IllegalStateException if the first attempt is still running
+     *                               after the wait limit
+     */
+    public Outcome<V> execute(String key, String fingerprint, Supplier<V> action) {
+        Entry<V> entry;
+        boolean owner = false;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            evictExpired(now);
+            entry = entries.get(key);
+            if (entry != null && !entry.fingerprint().equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency key " + key + " was used for a different request");
+            }
+            if (entry == null) {
+                entry = new Entry<>(fingerprint, new CompletableFuture<>(), now);
+                entries.put(key, entry);
+                owner = true;
+                evictEldest();
+            }
+        }
+        if (!owner) {
+            return new Outcome<>(await(key, entry), true);
+        }
+        try {
+            V value = action.get();
+            entry.result().complete(value);
+            return new Outcome<>(value, false);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V await(String key, Entry<V> entry) {
+        try {
+            return entry.result().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Request with idempotency key " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for idempotency key " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Only finished entries are dropped; forgetting one in flight would let its retry run the action again
+    private void evictEldest() {
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            if (eldest.next().result().isDone()) eldest.remove();
+        }
+    }
+
+    private void evictExpired(long now) {
+        for (Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Entry<V> entry = it.next().getValue();
+            if (now - entry.createdAt() < ttlMillis) break;
+            if (entry.result().isDone()) it.remove();
+        }
+    }
+}
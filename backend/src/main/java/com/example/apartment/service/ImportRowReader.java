@@ -0,0 +1,158 @@
+package com.example.apartment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams rows out of an uploaded CSV (with header) or NDJSON file one record
+ * at a time. Malformed records come back as rows carrying an error instead of
+ * failing the whole file.
+ */
+abstract class ImportRowReader implements Closeable {
+
+    record Row(Map<String, String> values, String error) {
+    }
+
+    protected final BufferedReader reader;
+
+    private ImportRowReader(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    static ImportRowReader open(Path file, String format) throws IOException {
+        if ("NDJSON".equals(format)) return new Ndjson(file);
+        if ("CSV".equals(format)) return new Csv(file);
+        throw new IllegalArgumentException("Unsupported import format " + format);
+    }
+
+    // Next data row, or null at end of file
+    abstract Row next() throws IOException;
+
+    List<Row> nextChunk(int size) throws IOException {
+        List<Row> chunk = new ArrayList<>(size);
+        Row row;
+        while (chunk.size() < size && (row = next()) != null) {
+            chunk.add(row);
+        }
+        return chunk;
+    }
+
+    long skip(long rows) throws IOException {
+        long skipped = 0;
+        while (skipped < rows && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class Ndjson extends ImportRowReader {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        Ndjson(Path file) throws IOException {
+            super(file);
+        }
+
+        @Override
+        Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isBlank());
+            try {
+                JsonNode node = MAPPER.readTree(line);
+                if (!node.isObject()) return new Row(Map.of(), "Expected a JSON object");
+                Map<String, String> values = new HashMap<>();
+                for (Map.Entry<String, JsonNode> field : node.properties()) {
+                    values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+                }
+                return new Row(values, null);
+            } catch (JsonProcessingException e) {
+                return new Row(Map.of(), "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class Csv extends ImportRowReader {
+        private final List<String> header;
+
+        Csv(Path file) throws IOException {
+            super(file);
+            List<String> columns = readRecord();
+            if (columns == null) throw new IllegalArgumentException("CSV file has no header row");
+            header = columns.stream().map(String::trim).toList();
+        }
+
+        @Override
+        Row next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) return null;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            if (fields.size() != header.size()) {
+                return new Row(Map.of(), "Expected " + header.size() + " columns but found " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = fields.get(i);
+                values.put(header.get(i), value.isEmpty() ? null : value);
+            }
+            return new Row(values, null);
+        }
+
+        // RFC 4180 record: quoted fields may contain commas, doubled quotes and newlines
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) break;
+                line = reader.readLine();
+                if (line == null) break;
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
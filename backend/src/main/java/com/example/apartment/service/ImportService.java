@@ -0,0 +1,444 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.ImportJob;
+import com.example.apartment.model.ImportRowError;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.repository.ImportJobRepository;
+import com.example.apartment.repository.ImportRowErrorRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import of apartments and inventory from CSV or NDJSON files. The file
+ * is spooled to disk and read as a stream in fixed-size chunks; each chunk is
+ * validated in parallel and written with one JDBC batch inside its own
+ * transaction, together with the job's progress counters. A job that stops
+ * part-way resumes after its last committed chunk.
+ */
+@Service
+public class ImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    public static final String APARTMENT = "APARTMENT";
+    public static final String INVENTORY = "INVENTORY";
+
+    private static final int MAX_STORED_ERRORS = 1000;
+
+    private static final String INSERT_APARTMENT =
+            "insert into apartments (location, price, size, features, photo_url, available, latitude, longitude) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INVENTORY =
+            "insert into inventory (apartment_id, stock, status, photo_url) values (?, ?, ?, ?)";
+
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @Autowired
+    private ImportRowErrorRepository errorRepository;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private InvalidationBus invalidations;
+
+    @Autowired
+    private RecommendationService recommendations;
+
+    @Autowired
+    private PriceHistoryService priceHistory;
+
+    @Value("${import.spool-dir:${java.io.tmpdir}/apartment-imports}")
+    private String spoolDir;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    private final TransactionTemplate chunkTx;
+
+    // One import at a time keeps memory bounded to a couple of chunks
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "import-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ImportService(PlatformTransactionManager transactionManager) {
+        this.chunkTx = new TransactionTemplate(transactionManager);
+    }
+
+    // Jobs left RUNNING by a previous process can be resumed from their last chunk
+    @EventListener(ApplicationReadyEvent.class)
+    void markInterruptedJobs() {
+        for (ImportJob job : jobRepository.findByStatus("RUNNING")) {
+            job.setStatus("INTERRUPTED");
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public ImportJob getById(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Import job with id " + id + " not found"));
+    }
+
+    public List<ImportRowError> getErrors(Long id) {
+        getById(id);
+        return errorRepository.findByJobIdOrderByRowIndex(id);
+    }
+
+    // Validates the request, spools the upload and runs the import in the background
+    public ImportJob submit(String entityType, String format, String fileName, InputStream content) throws IOException {
+        String type = normalizeType(entityType);
+        String normalizedFormat = normalizeFormat(format, fileName);
+        Path dir = Files.createDirectories(Path.of(spoolDir));
+        Path spooled = dir.resolve(UUID.randomUUID() + ".import");
+        Files.copy(content, spooled, StandardCopyOption.REPLACE_EXISTING);
+        ImportJob job = createJob(type, normalizedFormat, fileName, spooled);
+        worker.submit(() -> run(job.getId()));
+        return job;
+    }
+
+    // Imports a local file on the calling thread, used by the command line runner
+    public ImportJob importFile(String entityType, String format, Path file) {
+        String fileName = file.getFileName().toString();
+        ImportJob job = createJob(normalizeType(entityType), normalizeFormat(format, fileName), fileName,
+                file.toAbsolutePath());
+        run(job.getId());
+        return getById(job.getId());
+    }
+
+    // Only stopped jobs can be resumed; a pending one is already queued
+    public ImportJob resume(Long id) {
+        if (jobRepository.markPendingIfStopped(id, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Import job " + id + " is " + getById(id).getStatus());
+        }
+        ImportJob job = getById(id);
+        worker.submit(() -> run(id));
+        return job;
+    }
+
+    // Same guard as resume; a job left RUNNING by a crashed process must be resumed once the server marked it
+    public ImportJob resumeNow(Long id) {
+        if (jobRepository.markPendingIfStopped(id, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Import job " + id + " is " + getById(id).getStatus());
+        }
+        run(id);
+        return getById(id);
+    }
+
+    private ImportJob createJob(String entityType, String format, String fileName, Path source) {
+        ImportJob job = new ImportJob();
+        job.setEntityType(entityType);
+        job.setFormat(format);
+        job.setFileName(fileName);
+        job.setSourcePath(source.toString());
+        job.setStatus("PENDING");
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        return jobRepository.save(job);
+    }
+
+    private void run(Long jobId) {
+        ImportJob job = getById(jobId);
+        job.setStatus("RUNNING");
+        job.setMessage(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+        try (ImportRowReader reader = ImportRowReader.open(Path.of(job.getSourcePath()), job.getFormat())) {
+            reader.skip(job.getCommittedRows());
+            List<ImportRowReader.Row> chunk;
+            while (!(chunk = reader.nextChunk(chunkSize)).isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Import worker interrupted");
+                }
+                job = writeChunk(job, validate(job, chunk));
+                log.debug("Import job {}: {} rows read, {} failed", job.getId(), job.getRowsRead(), job.getRowsFailed());
+            }
+            job.setStatus("COMPLETED");
+            deleteSpooledFile(job);
+        } catch (Exception e) {
+            // A chunk whose commit failed has already advanced the counters of the job in hand
+            job = getById(jobId);
+            log.warn("Import job {} stopped after {} committed rows", jobId, job.getCommittedRows(), e);
+            job.setStatus("FAILED");
+            job.setMessage(truncate(e.getMessage()));
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        listingCards.rebuild();
+        geoIndex.invalidate();
+        analytics.markChanged();
+        recommendations.requestRebuild();
+        priceHistory.requestSync();
+        invalidations.publishAll(InvalidationBus.Kind.APARTMENT);
+    }
+
+    // Uploaded files are only kept until their job completes; command line sources are left alone
+    private void deleteSpooledFile(ImportJob job) {
+        Path source = Path.of(job.getSourcePath());
+        if (!source.startsWith(Path.of(spoolDir))) return;
+        try {
+            Files.deleteIfExists(source);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled import file {}", source, e);
+        }
+    }
+
+    private record ValidatedRow(long rowIndex, Object[] params, String error) {
+    }
+
+    private List<ValidatedRow> validate(ImportJob job, List<ImportRowReader.Row> chunk) {
+        long firstRow = job.getCommittedRows() + 1;
+        boolean apartments = APARTMENT.equals(job.getEntityType());
+        List<ValidatedRow> rows = IntStream.range(0, chunk.size()).parallel()
+                .mapToObj(i -> {
+                    ImportRowReader.Row row = chunk.get(i);
+                    long rowIndex = firstRow + i;
+                    if (row.error() != null) return new ValidatedRow(rowIndex, null, row.error());
+                    try {
+                        Object[] params = apartments ? apartmentParams(row.values()) : inventoryParams(row.values());
+                        return new ValidatedRow(rowIndex, params, null);
+                    } catch (IllegalArgumentException e) {
+                        return new ValidatedRow(rowIndex, null, e.getMessage());
+                    }
+                })
+                .toList();
+        return apartments ? rows : checkApartmentsExist(rows);
+    }
+
+    // One IN query per chunk instead of a lookup per row
+    private List<ValidatedRow> checkApartmentsExist(List<ValidatedRow> rows) {
+        Set<Long> ids = new HashSet<>();
+        for (ValidatedRow row : rows) {
+            if (row.params() != null) ids.add((Long) row.params()[0]);
+        }
+        if (ids.isEmpty()) return rows;
+        Set<Long> existing = new HashSet<>(apartmentRepository.findExistingIds(ids));
+        List<ValidatedRow> checked = new ArrayList<>(rows.size());
+        for (ValidatedRow row : rows) {
+            if (row.params() != null && !existing.contains((Long) row.params()[0])) {
+                checked.add(new ValidatedRow(row.rowIndex(), null, "Apartment " + row.params()[0] + " does not exist"));
+            } else {
+                checked.add(row);
+            }
+        }
+        return checked;
+    }
+
+    private ImportJob writeChunk(ImportJob job, List<ValidatedRow> rows) {
+        String sql = APARTMENT.equals(job.getEntityType()) ? INSERT_APARTMENT : INSERT_INVENTORY;
+        return chunkTx.execute(status -> {
+            List<ValidatedRow> failed = new ArrayList<>();
+            List<ValidatedRow> valid = new ArrayList<>();
+            for (ValidatedRow row : rows) {
+                (row.error() == null ? valid : failed).add(row);
+            }
+            int imported = valid.size();
+            if (!valid.isEmpty()) {
+                try {
+                    withSavepoint(() -> jdbcTemplate.batchUpdate(sql, valid.stream().map(ValidatedRow::params).toList()));
+                } catch (DataAccessException batchFailure) {
+                    // Fall back to row by row so one bad row does not reject the chunk
+                    imported = 0;
+                    for (ValidatedRow row : valid) {
+                        try {
+                            withSavepoint(() -> jdbcTemplate.update(sql, row.params()));
+                            imported++;
+                        } catch (DataAccessException e) {
+                            failed.add(new ValidatedRow(row.rowIndex(), null, rootMessage(e)));
+                        }
+                    }
+                }
+            }
+            storeErrors(job, failed);
+            job.setRowsRead(job.getRowsRead() + rows.size());
+            job.setRowsImported(job.getRowsImported() + imported);
+            job.setRowsFailed(job.getRowsFailed() + failed.size());
+            job.setCommittedRows(job.getCommittedRows() + rows.size());
+            job.setUpdatedAt(LocalDateTime.now());
+            return jobRepository.save(job);
+        });
+    }
+
+    // JPA transactions cannot nest, so the savepoint is taken on the chunk transaction's JDBC connection
+    private void withSavepoint(Runnable statements) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                statements.run();
+            } catch (RuntimeException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private void storeErrors(ImportJob job, List<ValidatedRow> failed) {
+        long room = MAX_STORED_ERRORS - Math.min(job.getRowsFailed(), MAX_STORED_ERRORS);
+        List<ImportRowError> errors = failed.stream()
+                .limit(room)
+                .map(row -> new ImportRowError(null, job.getId(), row.rowIndex(), truncate(row.error())))
+                .toList();
+        if (!errors.isEmpty()) errorRepository.saveAll(errors);
+    }
+
+    private static Object[] apartmentParams(Map<String, String> values) {
+        String location = required(values, "location");
+        double price = parseDouble(required(values, "price"), "price");
+        if (price < 0) throw new IllegalArgumentException("price must not be negative");
+        int size = parseInt(required(values, "size"), "size");
+        if (size <= 0) throw new IllegalArgumentException("size must be positive");
+        String photoUrl = optional(values, "photoUrl");
+        if (photoUrl != null && photoUrl.length() > 2048) throw new IllegalArgumentException("photoUrl is too long");
+        String available = optional(values, "available");
+        Double latitude = coordinate(values, "latitude", 90);
+        Double longitude = coordinate(values, "longitude", 180);
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("latitude and longitude must be given together");
+        }
+        return new Object[]{location, price, size, optional(values, "features"), photoUrl,
+                available == null ? null : parseBoolean(available), latitude, longitude};
+    }
+
+    private static Double coordinate(Map<String, String> values, String field, double bound) {
+        String value = optional(values, field);
+        if (value == null) return null;
+        double coordinate = parseDouble(value, field);
+        if (coordinate < -bound || coordinate > bound) throw new IllegalArgumentException(field + " is out of range");
+        return coordinate;
+    }
+
+    private static Object[] inventoryParams(Map<String, String> values) {
+        long apartmentId = parseLong(required(values, "apartmentId"), "apartmentId");
+        int stock = parseInt(required(values, "stock"), "stock");
+        if (stock < 0) throw new IllegalArgumentException("stock must not be negative");
+        String photoUrl = optional(values, "photoUrl");
+        if (photoUrl != null && photoUrl.length() > 2048) throw new IllegalArgumentException("photoUrl is too long");
+        return new Object[]{apartmentId, stock, optional(values, "status"), photoUrl};
+    }
+
+    private static String required(Map<String, String> values, String field) {
+        String value = optional(values, field);
+        if (value == null) throw new IllegalArgumentException(field + " is required");
+        return value;
+    }
+
+    private static String optional(Map<String, String> values, String field) {
+        String value = values.get(field);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static double parseDouble(String value, String field) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static int parseInt(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not an integer: " + value);
+        }
+    }
+
+    private static long parseLong(String value, String field) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not an integer: " + value);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("available is not a boolean: " + value);
+        };
+    }
+
+    private static String normalizeType(String entityType) {
+        String type = entityType == null ? "" : entityType.toUpperCase(Locale.ROOT);
+        if (type.equals("APARTMENTS")) type = APARTMENT;
+        if (type.equals("INVENTORIES")) type = INVENTORY;
+        if (!type.equals(APARTMENT) && !type.equals(INVENTORY)) {
+            throw new IllegalArgumentException("Unsupported import type " + entityType);
+        }
+        return type;
+    }
+
+    private static String normalizeFormat(String format, String fileName) {
+        if (format != null && !format.isBlank()) {
+            String upper = format.toUpperCase(Locale.ROOT);
+            if (upper.equals("CSV") || upper.equals("NDJSON")) return upper;
+            throw new IllegalArgumentException("Unsupported import format " + format);
+        }
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) return "NDJSON";
+        return "CSV";
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) root = root.getCause();
+        return root.getMessage();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return null;
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.apartment.service;
 
+import com.example.apartment.model.Installment;
 import com.example.apartment.model.InstallmentPlan;
 import com.example.apartment.repository.InstallmentPlanRepository;
+import com.example.apartment.repository.InstallmentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,6 +17,12 @@ public class InstallmentPlanService {
     @Autowired
     private InstallmentPlanRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private InstallmentRepository installmentRepository;
+
     public List<InstallmentPlan> getAll() {
         return repository.findAll();
     }
@@ -22,22 +32,35 @@ public class InstallmentPlanService {
                 .orElseThrow(() -> new RuntimeException("Installment plan with id " + id + " not found"));
     }
 
+    public List<Installment> getInstallments(Long id) {
+        if (!repository.existsById(id)) {
+            throw new RuntimeException("Installment plan with id " + id + " not found");
+        }
+        return installmentRepository.findByPlanIdOrderByInstallmentNumber(id);
+    }
+
     public InstallmentPlan create(InstallmentPlan plan) {
         return repository.save(plan);
     }
 
     public InstallmentPlan update(Long id, InstallmentPlan plan) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Installment plan with id " + id + " not found");
-        }
+        InstallmentPlan existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Installment plan with id " + id + " not found"));
+        if (plan.getVersion() == null) plan.setVersion(existing.getVersion());
         plan.setId(id);
         return repository.save(plan);
     }
 
+    public InstallmentPlan patch(Long id, JsonNode patch, Long expectedVersion) {
+        return patcher.apply(InstallmentPlan.class, id, patch, expectedVersion).entity();
+    }
+
+    @Transactional
     public void delete(Long id) {
         if (!repository.existsById(id)) {
             throw new RuntimeException("Installment plan with id " + id + " not found");
         }
+        installmentRepository.deleteByPlanId(id);
         repository.deleteById(id);
     }
 }
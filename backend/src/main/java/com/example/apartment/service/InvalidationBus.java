@@ -0,0 +1,52 @@
+package com.example.apartment.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other backend nodes which cached entities changed here, so each
+ * node can keep its listing cards and geo index in memory and still see
+ * writes made elsewhere. Publishing is fire-and-forget: inside a transaction
+ * the message goes out after commit, and messages published within the same
+ * batch window travel together. The node that wrote has already updated its
+ * own caches and does not receive its own messages.
+ */
+public interface InvalidationBus {
+
+    // Stands for every entity of a kind, e.g. after a bulk import or a lost message
+    long ALL = 0;
+
+    enum Kind {
+        // Apartment row changed: listing card, geo index entry and analytics
+        APARTMENT((byte) 1),
+        // Inventory of the apartment with this id changed: listing card only
+        INVENTORY((byte) 2);
+
+        final byte code;
+
+        Kind(byte code) {
+            this.code = code;
+        }
+
+        static Kind of(byte code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) return kind;
+            }
+            return null;
+        }
+    }
+
+    record Invalidation(Kind kind, long id) {
+        public boolean isAll() {
+            return id == ALL;
+        }
+    }
+
+    // Ignores null ids, which is what an inventory row without an apartment has
+    void publish(Kind kind, Long id);
+
+    void publishAll(Kind kind);
+
+    // Receives each batch from another node, deduplicated, on the transport's receiver thread
+    void subscribe(Consumer<List<Invalidation>> listener);
+}
@@ -0,0 +1,347 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Inventory;
+import com.example.apartment.model.StockLevel;
+import com.example.apartment.model.StockMovement;
+import com.example.apartment.repository.InventoryRepository;
+import com.example.apartment.repository.StockMovementRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stock movements for inventory rows. Each adjustment is checked and applied
+ * to an in-memory level with a single compare-and-set, so reserving never
+ * oversells on this node and reads never touch the database. A worker then
+ * writes the queued movements to stock_movement and adds their net effect
+ * to the inventory row in one transaction, every
+ * {@code inventory.ledger.flush-interval-millis}; from time to time it reads
+ * the rows back so changes from other nodes and full updates show up here.
+ * Movements acknowledged but not yet flushed are lost if the JVM dies.
+ */
+@Service
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final int MAX_QUANTITY = 1_000_000;
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_MOVEMENT =
+            "insert into stock_movement (inventory_id, type, quantity, reference, created_at) values (?, ?, ?, ?, ?)";
+    // Relative, so flushes from several nodes add up instead of overwriting each other
+    private static final String APPLY_DELTA =
+            "update inventory set stock = stock + ?, reserved = reserved + ?, version = version + 1 where id = ?";
+    private static final String SELECT_LEVELS = "select id, apartment_id, stock, reserved from inventory where id in (%s)";
+
+    public enum Type {
+        RESERVE(-1, 1),
+        RELEASE(1, -1),
+        SELL(0, -1),
+        RESTOCK(1, 0);
+
+        final int stockSign;
+        final int reservedSign;
+
+        Type(int stockSign, int reservedSign) {
+            this.stockSign = stockSign;
+            this.reservedSign = reservedSign;
+        }
+
+        static Type parse(String value) {
+            if (value == null) throw new IllegalArgumentException("type is required");
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown movement type " + value);
+            }
+        }
+    }
+
+    private record Movement(long inventoryId, Type type, int quantity, String reference, LocalDateTime createdAt) {
+    }
+
+    // Stored values as last read from the row, plus the net effect of movements not flushed yet
+    private record Level(int stock, int reserved, int pendingStock, int pendingReserved) {
+        int liveStock() {
+            return stock + pendingStock;
+        }
+
+        int liveReserved() {
+            return reserved + pendingReserved;
+        }
+    }
+
+    private record StoredLevel(long id, Long apartmentId, int stock, int reserved) {
+    }
+
+    private static final class Counter {
+        final AtomicReference<Level> level;
+
+        Counter(int stock, int reserved) {
+            level = new AtomicReference<>(new Level(stock, reserved, 0, 0));
+        }
+    }
+
+    @Autowired
+    private InventoryRepository repository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private InvalidationBus invalidations;
+
+    @Value("${inventory.ledger.flush-interval-millis:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${inventory.ledger.reconcile-interval-seconds:30}")
+    private long reconcileIntervalSeconds;
+
+    private final TransactionTemplate flushTx;
+
+    // One cell per inventory row, so adjustments to different rows never contend
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Movement> queued = new ConcurrentLinkedQueue<>();
+    // Movements of a failed flush, retried first; only touched by the worker
+    private final List<Movement> retry = new ArrayList<>();
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "inventory-ledger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryLedger(PlatformTransactionManager transactionManager) {
+        this.flushTx = new TransactionTemplate(transactionManager);
+    }
+
+    // Started once the context is up, so the CDS training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        worker.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (reconcileIntervalSeconds > 0) {
+            worker.scheduleWithFixedDelay(this::reconcileSafely, reconcileIntervalSeconds, reconcileIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+        flushSafely();
+    }
+
+    public StockLevel adjust(Long inventoryId, String type, int quantity, String reference) {
+        Type movementType = Type.parse(type);
+        if (quantity <= 0 || quantity > MAX_QUANTITY) {
+            throw new IllegalArgumentException("quantity must be between 1 and " + MAX_QUANTITY);
+        }
+        if (reference != null && reference.length() > 255) throw new IllegalArgumentException("reference is too long");
+        Counter counter = counter(inventoryId);
+        int stockDelta = movementType.stockSign * quantity;
+        int reservedDelta = movementType.reservedSign * quantity;
+        Level next;
+        while (true) {
+            Level current = counter.level.get();
+            if (current.liveStock() + stockDelta < 0) {
+                throw new IllegalStateException("Only " + current.liveStock() + " in stock");
+            }
+            if (current.liveReserved() + reservedDelta < 0) {
+                throw new IllegalStateException("Only " + current.liveReserved() + " reserved");
+            }
+            next = new Level(current.stock(), current.reserved(),
+                    current.pendingStock() + stockDelta, current.pendingReserved() + reservedDelta);
+            if (counter.level.compareAndSet(current, next)) break;
+        }
+        // Queued after the level changed, so a flush never subtracts a movement the level has not seen
+        queued.add(new Movement(inventoryId, movementType, quantity, reference, LocalDateTime.now()));
+        return new StockLevel(inventoryId, next.liveStock(), next.liveReserved());
+    }
+
+    public StockLevel getLevel(Long inventoryId) {
+        Level level = counter(inventoryId).level.get();
+        return new StockLevel(inventoryId, level.liveStock(), level.liveReserved());
+    }
+
+    // Flushed movements only, newest first
+    public List<StockMovement> getMovements(Long inventoryId, int limit) {
+        if (!repository.existsById(inventoryId)) {
+            throw new RuntimeException("Inventory with id " + inventoryId + " not found");
+        }
+        return movementRepository.findByInventoryIdOrderByIdDesc(inventoryId,
+                PageRequest.of(0, Math.min(Math.max(limit, 1), 1000)));
+    }
+
+    /**
+     * Copy of the row with live stock and reserved counts when this node
+     * tracks it. A copy, so the managed entity is never dirtied by a read.
+     */
+    public Inventory withLiveLevel(Inventory inventory) {
+        Counter counter = inventory.getId() == null ? null : counters.get(inventory.getId());
+        if (counter == null) return inventory;
+        Level level = counter.level.get();
+        return new Inventory(inventory.getId(), inventory.getApartment(), level.liveStock(), level.liveReserved(),
+                inventory.getStatus(), inventory.getPhotoUrl(), inventory.getVersion());
+    }
+
+    // After a full update or delete of the row; re-read on the worker so it cannot interleave with a flush
+    public void reload(Long inventoryId) {
+        if (inventoryId != null && counters.containsKey(inventoryId)) {
+            worker.execute(() -> reconcile(List.of(inventoryId)));
+        }
+    }
+
+    // An inventory write on another node; its stock may have changed
+    public void reloadByApartment(Long apartmentId) {
+        repository.findFirstByApartmentId(apartmentId).ifPresent(inventory -> reload(inventory.getId()));
+    }
+
+    public void reloadAll() {
+        worker.execute(this::reconcileSafely);
+    }
+
+    private Counter counter(Long inventoryId) {
+        Counter counter = counters.get(inventoryId);
+        if (counter != null) return counter;
+        Inventory inventory = repository.findById(inventoryId)
+                .orElseThrow(() -> new RuntimeException("Inventory with id " + inventoryId + " not found"));
+        return counters.computeIfAbsent(inventoryId, id -> new Counter(inventory.getStock(), inventory.getReserved()));
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Inventory ledger flush failed, retrying with the next one", e);
+        }
+    }
+
+    void flush() {
+        List<Movement> batch = new ArrayList<>(retry);
+        retry.clear();
+        for (Movement movement = queued.poll(); movement != null; movement = queued.poll()) {
+            batch.add(movement);
+        }
+        if (batch.isEmpty()) return;
+
+        Map<Long, int[]> deltas = new LinkedHashMap<>();
+        List<Object[]> movementRows = new ArrayList<>(batch.size());
+        for (Movement movement : batch) {
+            int[] delta = deltas.computeIfAbsent(movement.inventoryId(), id -> new int[2]);
+            delta[0] += movement.type().stockSign * movement.quantity();
+            delta[1] += movement.type().reservedSign * movement.quantity();
+            movementRows.add(new Object[]{movement.inventoryId(), movement.type().name(), movement.quantity(),
+                    movement.reference(), movement.createdAt()});
+        }
+        List<Object[]> deltaRows = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> deltaRows.add(new Object[]{delta[0], delta[1], id}));
+
+        Map<Long, StoredLevel> stored;
+        try {
+            stored = flushTx.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movementRows);
+                jdbcTemplate.batchUpdate(APPLY_DELTA, deltaRows);
+                return readLevels(new ArrayList<>(deltas.keySet()));
+            });
+        } catch (RuntimeException e) {
+            retry.addAll(batch);
+            throw e;
+        }
+
+        for (Map.Entry<Long, int[]> entry : deltas.entrySet()) {
+            Long id = entry.getKey();
+            StoredLevel row = stored.get(id);
+            Counter counter = counters.get(id);
+            if (row == null) {
+                // Row deleted meanwhile; the movements stay in the ledger as history
+                counters.remove(id);
+                continue;
+            }
+            if (row.stock() < 0 || row.reserved() < 0) {
+                log.warn("Inventory {} went negative (stock {}, reserved {}) after concurrent adjustments on several nodes",
+                        id, row.stock(), row.reserved());
+            }
+            if (counter != null) {
+                int[] delta = entry.getValue();
+                counter.level.updateAndGet(level -> new Level(row.stock(), row.reserved(),
+                        level.pendingStock() - delta[0], level.pendingReserved() - delta[1]));
+            }
+            listingCards.refresh(row.apartmentId());
+            invalidations.publish(InvalidationBus.Kind.INVENTORY, row.apartmentId());
+        }
+        log.debug("Flushed {} stock movements to {} inventory rows", batch.size(), deltas.size());
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile(new ArrayList<>(counters.keySet()));
+        } catch (RuntimeException e) {
+            log.warn("Inventory ledger reconciliation failed", e);
+        }
+    }
+
+    // Takes stored values from the rows and keeps the pending part; rows that are gone are dropped
+    private void reconcile(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Map<Long, StoredLevel> stored = readLevels(chunk);
+            for (Long id : chunk) {
+                StoredLevel row = stored.get(id);
+                if (row == null) {
+                    counters.remove(id);
+                    continue;
+                }
+                Counter counter = counters.get(id);
+                if (counter != null) {
+                    counter.level.updateAndGet(level -> new Level(row.stock(), row.reserved(),
+                            level.pendingStock(), level.pendingReserved()));
+                }
+            }
+        }
+    }
+
+    private Map<Long, StoredLevel> readLevels(List<Long> ids) {
+        Map<Long, StoredLevel> levels = new HashMap<>();
+        if (ids.isEmpty()) return levels;
+        String sql = String.format(SELECT_LEVELS, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        jdbcTemplate.query(sql, rs -> {
+            long id = rs.getLong("id");
+            long apartmentId = rs.getLong("apartment_id");
+            Long apartment = rs.wasNull() ? null : apartmentId;
+            levels.put(id, new StoredLevel(id, apartment, rs.getInt("stock"), rs.getInt("reserved")));
+        }, ids.toArray());
+        return levels;
+    }
+}
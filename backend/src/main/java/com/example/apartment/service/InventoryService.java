@@ -2,6 +2,7 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.Inventory;
 import com.example.apartment.repository.InventoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,38 +15,87 @@ public class InventoryService {
     @Autowired
     private InventoryRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private InvalidationBus invalidations;
+
+    @Autowired
+    private InventoryLedger ledger;
+
     public List<Inventory> getAll() {
-        return repository.findAll();
+        return repository.findAll().stream().map(ledger::withLiveLevel).toList();
     }
 
     public Optional<Inventory> getById(Long id) {
-        return repository.findById(id);
+        return repository.findById(id).map(ledger::withLiveLevel);
     }
 
     public Inventory create(Inventory inventory) {
-        return repository.save(inventory);
+        inventory.setReserved(0);
+        Inventory saved = repository.save(inventory);
+        changed(apartmentId(saved));
+        return saved;
     }
 
     public Inventory update(Long id, Inventory inventory) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Inventory with id " + id + " not found");
-        }
+        Inventory existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Inventory with id " + id + " not found"));
+        Long previousApartmentId = apartmentId(existing);
+        if (inventory.getVersion() == null) inventory.setVersion(existing.getVersion());
         inventory.setId(id);
-        return repository.save(inventory);
+        // Held units only move through the ledger; a full update sets the stock but keeps them
+        inventory.setReserved(existing.getReserved());
+        Inventory saved = repository.save(inventory);
+        ledger.reload(id);
+        changed(previousApartmentId);
+        changed(apartmentId(saved));
+        return saved;
     }
 
     public Inventory updatePhotoUrl(Long id, String photoUrl) {
         Inventory inventory = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inventory with id " + id + " not found"));
         inventory.setPhotoUrl(photoUrl);
-        return repository.save(inventory);
+        Inventory saved = repository.save(inventory);
+        changed(apartmentId(saved));
+        return saved;
     }
 
-    public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Inventory with id " + id + " not found");
+    public Inventory patch(Long id, JsonNode patch, Long expectedVersion) {
+        if (patch != null && patch.has("reserved")) {
+            throw new IllegalArgumentException("reserved only changes through stock adjustments");
         }
+        boolean moves = patch != null && patch.has("apartment");
+        Long previousApartmentId = moves ? repository.findById(id).map(InventoryService::apartmentId).orElse(null) : null;
+        MergePatcher.Result<Inventory> result = patcher.apply(Inventory.class, id, patch, expectedVersion);
+        if (!result.changed()) return result.entity();
+        ledger.reload(id);
+        if (moves) changed(previousApartmentId);
+        changed(apartmentId(result.entity()));
+        return result.entity();
+    }
+
+    public void delete(Long id) {
+        Inventory existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Inventory with id " + id + " not found"));
         repository.deleteById(id);
+        ledger.reload(id);
+        changed(apartmentId(existing));
+    }
+
+    // Inventory invalidations carry the apartment id, since that is what the listing card is keyed by
+    private void changed(Long apartmentId) {
+        listingCards.refresh(apartmentId);
+        invalidations.publish(InvalidationBus.Kind.INVENTORY, apartmentId);
+    }
+
+    private static Long apartmentId(Inventory inventory) {
+        return inventory.getApartment() == null ? null : inventory.getApartment().getId();
     }
 }
 
@@ -0,0 +1,369 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.Inventory;
+import com.example.apartment.model.ListingCard;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.repository.FeedbackRepository;
+import com.example.apartment.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves listing cards from an in-process snapshot instead of joining
+ * apartments, inventory and feedback on every request. The snapshot is built
+ * once, patched per apartment when one of the three services writes, and can
+ * be persisted to a memory-mapped file so a restart warms from disk. Cards
+ * warmed from the file are served right away and replaced by a rebuild in
+ * the background once the application is up; patched cards are written back
+ * to the file every {@code listing.cache.persist-interval-seconds}.
+ */
+@Service
+public class ListingCardService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingCardService.class);
+
+    private static final int FILE_MAGIC = 0x4C435632; // "LCV2"
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Value("${listing.cache.file:}")
+    private String cacheFile;
+
+    @Value("${listing.cache.persist-interval-seconds:30}")
+    private long persistIntervalSeconds;
+
+    // Replaced as a whole by rebuild, so readers never see it half filled
+    private volatile Map<Long, ListingCard> cards = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean warmedFromFile;
+    private volatile boolean dirty;
+
+    private final Object rebuildLock = new Object();
+    // Guarded by this; non-null while a rebuild reads the database
+    private Set<Long> refreshedDuringRebuild;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "listing-cards");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void warmFromFile() {
+        if (cacheFile.isBlank()) return;
+        Path path = Path.of(cacheFile);
+        if (!Files.exists(path)) return;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != FILE_MAGIC) {
+                log.warn("Ignoring listing card file {} with unknown format", path);
+                return;
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                ListingCard card = readCard(buffer);
+                cards.put(card.getId(), card);
+            }
+            loaded = true;
+            warmedFromFile = true;
+            log.debug("Warmed {} listing cards from {}", count, path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read listing card file {}, rebuilding from database", path, e);
+            cards.clear();
+        }
+    }
+
+    // Started once the context is up, so the CDS training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        // The file may predate writes made while this node was down
+        if (warmedFromFile) worker.execute(this::rebuildSafely);
+        if (!cacheFile.isBlank() && persistIntervalSeconds > 0) {
+            worker.scheduleWithFixedDelay(this::persistIfDirty, persistIntervalSeconds, persistIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void persistOnShutdown() {
+        worker.shutdownNow();
+        if (loaded) persist();
+    }
+
+    public List<ListingCard> getAll() {
+        ensureLoaded();
+        List<ListingCard> result = new ArrayList<>(cards.values());
+        result.sort(Comparator.comparing(ListingCard::getId));
+        return result;
+    }
+
+    public ListingCard getById(Long id) {
+        ensureLoaded();
+        ListingCard card = cards.get(id);
+        if (card == null) {
+            throw new RuntimeException("Apartment with id " + id + " not found");
+        }
+        return card;
+    }
+
+    public Optional<ListingCard> find(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(cards.get(id));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (rebuildLock) {
+            if (!loaded) rebuild();
+        }
+    }
+
+    /**
+     * Reloads every card. Cards refreshed while the database is read are
+     * newer than what the rebuild saw and are kept.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                refreshedDuringRebuild = new HashSet<>();
+            }
+            try {
+                Map<Long, ListingCard> fresh = load();
+                synchronized (this) {
+                    for (Long id : refreshedDuringRebuild) {
+                        ListingCard refreshed = cards.get(id);
+                        if (refreshed == null) {
+                            fresh.remove(id);
+                        } else {
+                            fresh.put(id, refreshed);
+                        }
+                    }
+                    cards = new ConcurrentHashMap<>(fresh);
+                    loaded = true;
+                }
+            } finally {
+                synchronized (this) {
+                    refreshedDuringRebuild = null;
+                }
+            }
+            persist();
+        }
+    }
+
+    private Map<Long, ListingCard> load() {
+        Map<Long, Inventory> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAll()) {
+            if (inventory.getApartment() != null) {
+                inventories.putIfAbsent(inventory.getApartment().getId(), inventory);
+            }
+        }
+        Map<Long, Object[]> ratings = new HashMap<>();
+        for (Object[] row : feedbackRepository.findRatingAggregates()) {
+            ratings.put((Long) row[0], row);
+        }
+        Map<Long, ListingCard> fresh = new HashMap<>();
+        for (Apartment apartment : apartmentRepository.findAll()) {
+            fresh.put(apartment.getId(), toCard(apartment,
+                    inventories.get(apartment.getId()), ratings.get(apartment.getId())));
+        }
+        return fresh;
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild listing cards; serving the warmed snapshot", e);
+        }
+    }
+
+    /**
+     * Recomputes the card of one apartment after a write to it, its inventory
+     * or its feedback. Removes the card if the apartment no longer exists.
+     */
+    public void refresh(Long apartmentId) {
+        if (apartmentId == null || !loaded) return;
+        Apartment apartment = apartmentRepository.findById(apartmentId).orElse(null);
+        if (apartment == null || apartment.getDeletedAt() != null) {
+            apply(apartmentId, null);
+            return;
+        }
+        Inventory inventory = inventoryRepository.findFirstByApartmentId(apartmentId).orElse(null);
+        List<Object[]> rating = feedbackRepository.findRatingAggregate(apartmentId);
+        apply(apartmentId, toCard(apartment, inventory, rating.isEmpty() ? null : rating.get(0)));
+    }
+
+    public void evict(Long apartmentId) {
+        if (apartmentId != null) apply(apartmentId, null);
+    }
+
+    private synchronized void apply(Long apartmentId, ListingCard card) {
+        if (card == null) {
+            cards.remove(apartmentId);
+        } else {
+            cards.put(apartmentId, card);
+        }
+        if (refreshedDuringRebuild != null) refreshedDuringRebuild.add(apartmentId);
+        dirty = true;
+    }
+
+    private void persistIfDirty() {
+        if (!dirty || !loaded) return;
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            log.warn("Could not persist listing cards", e);
+        }
+    }
+
+    // Drops the snapshot after bulk changes on another node; it is rebuilt on the next read
+    public void invalidate() {
+        loaded = false;
+    }
+
+    private ListingCard toCard(Apartment apartment, Inventory inventory, Object[] rating) {
+        ListingCard card = new ListingCard();
+        card.setId(apartment.getId());
+        card.setLocation(apartment.getLocation());
+        card.setPrice(apartment.getPrice());
+        card.setSize(apartment.getSize());
+        card.setAvailable(apartment.getAvailable());
+        card.setPhotoUrl(apartment.getPhotoUrl());
+        card.setLatitude(apartment.getLatitude());
+        card.setLongitude(apartment.getLongitude());
+        if (inventory != null) {
+            card.setStock(inventory.getStock());
+            card.setStatus(inventory.getStatus());
+            if (card.getPhotoUrl() == null) card.setPhotoUrl(inventory.getPhotoUrl());
+        }
+        if (rating != null) {
+            card.setAverageRating(((Number) rating[1]).doubleValue());
+            card.setRatingCount(((Number) rating[2]).longValue());
+        }
+        return card;
+    }
+
+    private synchronized void persist() {
+        if (cacheFile.isBlank()) return;
+        Path path = Path.of(cacheFile);
+        dirty = false;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            List<ListingCard> snapshot = new ArrayList<>(cards.values());
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(snapshot.size());
+            for (ListingCard card : snapshot) {
+                writeCard(out, card);
+            }
+            out.flush();
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes.size());
+                buffer.put(bytes.toByteArray());
+                buffer.force();
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Could not persist listing cards to {}", path, e);
+        }
+    }
+
+    private static void writeCard(DataOutputStream out, ListingCard card) throws IOException {
+        out.writeLong(card.getId());
+        writeString(out, card.getLocation());
+        out.writeDouble(card.getPrice() == null ? Double.NaN : card.getPrice());
+        out.writeInt(card.getSize() == null ? Integer.MIN_VALUE : card.getSize());
+        out.writeByte(card.getAvailable() == null ? -1 : (card.getAvailable() ? 1 : 0));
+        writeString(out, card.getPhotoUrl());
+        out.writeDouble(card.getLatitude() == null ? Double.NaN : card.getLatitude());
+        out.writeDouble(card.getLongitude() == null ? Double.NaN : card.getLongitude());
+        out.writeInt(card.getStock() == null ? Integer.MIN_VALUE : card.getStock());
+        writeString(out, card.getStatus());
+        out.writeDouble(card.getAverageRating() == null ? Double.NaN : card.getAverageRating());
+        out.writeLong(card.getRatingCount());
+    }
+
+    private static ListingCard readCard(ByteBuffer in) {
+        ListingCard card = new ListingCard();
+        card.setId(in.getLong());
+        card.setLocation(readString(in));
+        double price = in.getDouble();
+        card.setPrice(Double.isNaN(price) ? null : price);
+        int size = in.getInt();
+        card.setSize(size == Integer.MIN_VALUE ? null : size);
+        byte available = in.get();
+        card.setAvailable(available < 0 ? null : available == 1);
+        card.setPhotoUrl(readString(in));
+        double latitude = in.getDouble();
+        card.setLatitude(Double.isNaN(latitude) ? null : latitude);
+        double longitude = in.getDouble();
+        card.setLongitude(Double.isNaN(longitude) ? null : longitude);
+        int stock = in.getInt();
+        card.setStock(stock == Integer.MIN_VALUE ? null : stock);
+        card.setStatus(readString(in));
+        double rating = in.getDouble();
+        card.setAverageRating(Double.isNaN(rating) ? null : rating);
+        card.setRatingCount(in.getLong());
+        return card;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
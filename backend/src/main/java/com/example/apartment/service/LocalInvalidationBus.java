@@ -0,0 +1,37 @@
+package com.example.apartment.service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM stand-in for the network: every started instance receives the
+ * frames of the others, encoded and batched exactly as on the wire. Used by
+ * tests and single-node setups (cache.invalidation.transport=local).
+ */
+public class LocalInvalidationBus extends BatchingInvalidationBus {
+
+    private static final List<LocalInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    public LocalInvalidationBus(String cluster, Duration batchWindow, Duration heartbeat) {
+        super(cluster, batchWindow, heartbeat);
+    }
+
+    @Override
+    protected void openTransport() {
+        NODES.add(this);
+    }
+
+    @Override
+    protected void send(byte[] frame) {
+        for (LocalInvalidationBus node : NODES) {
+            if (node != this) node.receive(ByteBuffer.wrap(frame));
+        }
+    }
+
+    @Override
+    protected void closeTransport() {
+        NODES.remove(this);
+    }
+}
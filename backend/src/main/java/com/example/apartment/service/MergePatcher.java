@@ -0,0 +1,124 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.SoftDeletable;
+import com.example.apartment.model.Versioned;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7386) to a managed entity. Only the fields
+ * present in the patch are touched; together with {@code @DynamicUpdate} the
+ * flush issues one UPDATE of the changed columns guarded by the entity
+ * version, and no UPDATE at all when the patch changes nothing. Compared with
+ * PUT (existsById, merge select, full-row update) this is one select plus at
+ * most one update.
+ */
+@Component
+public class MergePatcher {
+
+    public record Result<T>(T entity, boolean changed) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * @param expectedVersion version from If-Match, or null to use a "version"
+     *                        field in the patch, if any
+     */
+    @Transactional
+    public <T extends Versioned> Result<T> apply(Class<T> type, Long id, JsonNode patch, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        T entity = entityManager.find(type, id);
+        if (entity == null || entity instanceof SoftDeletable deletable && deletable.getDeletedAt() != null) {
+            throw new RuntimeException(type.getSimpleName() + " with id " + id + " not found");
+        }
+        Long expected = expectedVersion;
+        if (expected == null && patch.hasNonNull("version")) {
+            expected = patch.get("version").asLong();
+        }
+        if (expected != null && !expected.equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+
+        ManagedType<T> managedType = entityManager.getMetamodel().managedType(type);
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(entity);
+        ObjectNode scalars = objectMapper.createObjectNode();
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            String name = field.getKey();
+            if (name.equals("id") || name.equals("version") || name.equals("deletedAt")) continue;
+            Attribute<? super T, ?> attribute;
+            try {
+                attribute = managedType.getAttribute(name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field " + name);
+            }
+            if (attribute.isAssociation()) {
+                wrapper.setPropertyValue(name, reference(attribute.getJavaType(), field.getValue()));
+            } else {
+                scalars.set(name, field.getValue());
+            }
+        }
+        if (!scalars.isEmpty()) {
+            try {
+                objectMapper.readerForUpdating(entity).readValue(scalars);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid merge patch: " + e.getMessage());
+            }
+        }
+        Session session = entityManager.unwrap(Session.class);
+        boolean changed = session.isDirty();
+        if (changed) {
+            try {
+                entityManager.flush();
+            } catch (OptimisticLockException e) {
+                // Another writer committed between the find and the flush; answered like a stale If-Match
+                throw new ObjectOptimisticLockingFailureException(type, id, e);
+            }
+        }
+        return new Result<>(entity, changed);
+    }
+
+    // Associations are patched by id ({"apartment": {"id": 5}}) without loading the target
+    private Object reference(Class<?> targetType, JsonNode value) {
+        if (value == null || value.isNull()) return null;
+        JsonNode id = value.isObject() ? value.get("id") : value;
+        if (id == null || !id.canConvertToLong()) {
+            throw new IllegalArgumentException("Association patch needs an id");
+        }
+        return entityManager.getReference(targetType, id.asLong());
+    }
+
+    // Accepts W/"3", "3" or 3 as sent in If-Match
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) value = value.substring(2);
+        value = value.replace("\"", "");
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must carry an entity version");
+        }
+    }
+}
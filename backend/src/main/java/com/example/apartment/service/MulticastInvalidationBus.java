@@ -0,0 +1,94 @@
+package com.example.apartment.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends each frame as one UDP datagram to a multicast group that every node
+ * joins, so nodes find each other without a peer list. Needs a network where
+ * multicast reaches all nodes (same LAN or VPC with multicast enabled); use
+ * the TCP transport otherwise. A lost datagram shows up as a sequence gap.
+ */
+public class MulticastInvalidationBus extends BatchingInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationBus.class);
+
+    private final InetSocketAddress group;
+    private final String interfaceName;
+    private final int timeToLive;
+    private volatile MulticastSocket socket;
+
+    private final ExecutorService receiver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "invalidation-receiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MulticastInvalidationBus(String cluster, Duration batchWindow, Duration heartbeat,
+                                    InetSocketAddress group, String interfaceName, int timeToLive) {
+        super(cluster, batchWindow, heartbeat);
+        if (!group.getAddress().isMulticastAddress()) {
+            throw new IllegalArgumentException(group.getAddress() + " is not a multicast address");
+        }
+        this.group = group;
+        this.interfaceName = interfaceName;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    protected void openTransport() throws IOException {
+        MulticastSocket opened = new MulticastSocket(group.getPort());
+        try {
+            opened.setTimeToLive(timeToLive);
+            NetworkInterface networkInterface = null;
+            if (interfaceName != null && !interfaceName.isBlank()) {
+                networkInterface = NetworkInterface.getByName(interfaceName);
+                if (networkInterface == null) throw new IOException("No network interface named " + interfaceName);
+                opened.setNetworkInterface(networkInterface);
+            }
+            opened.joinGroup(group, networkInterface);
+        } catch (IOException e) {
+            opened.close();
+            throw e;
+        }
+        socket = opened;
+        receiver.submit(this::receiveLoop);
+        log.info("Cache invalidation bus joined multicast group {}", group);
+    }
+
+    @Override
+    protected void send(byte[] frame) throws IOException {
+        socket.send(new DatagramPacket(frame, frame.length, group));
+    }
+
+    @Override
+    protected void closeTransport() {
+        receiver.shutdownNow();
+        MulticastSocket current = socket;
+        if (current != null) current.close();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_FRAME_BYTES];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                receive(ByteBuffer.wrap(buffer, 0, packet.getLength()));
+            } catch (IOException e) {
+                if (!socket.isClosed()) log.debug("Could not receive invalidation frame", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.AuditEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the monthly partitions of booking and payment (Flyway V8, MySQL
+ * only) ahead of the calendar: partition pYYYYMM holds rows dated before the
+ * first day of the following month, and pmax catches anything newer. Each
+ * run splits the next {@code partition.premake-months} months off pmax and,
+ * with {@code partition.retention-months} set, copies partitions older than
+ * that into the archive tables and drops them, which costs one DDL statement
+ * instead of a row-by-row delete. Each dropped partition is journaled as
+ * one ARCHIVE event of the "system" actor carrying the partition name and
+ * row count, since listing every row would flood the audit buffer. On other
+ * databases, or unpartitioned tables, it does nothing.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String OVERFLOW_PARTITION = "pmax";
+
+    private static final String LIST_PARTITIONS = "select partition_name from information_schema.partitions "
+            + "where table_schema = database() and table_name = ? and partition_name is not null "
+            + "order by partition_ordinal_position";
+
+    // Payments before bookings: a booking partition is only dropped once no payment points into it
+    private static final List<ManagedTable> TABLES = List.of(
+            new ManagedTable("payment", "Payment", "payment_date",
+                    "insert ignore into payment_archive (id, booking_id, amount, payment_date, status, deleted_at, archived_at) "
+                            + "select id, booking_id, amount, payment_date, status, deleted_at, ? from payment partition (%s)",
+                    "select count(*) from payment partition (%s) p "
+                            + "where exists (select 1 from installment_plan ip where ip.payment_id = p.id)"),
+            new ManagedTable("booking", "Booking", "booking_date",
+                    "insert ignore into booking_archive (id, user_id, apartment_id, booking_date, status, deleted_at, archived_at) "
+                            + "select id, user_id, apartment_id, booking_date, status, deleted_at, ? from booking partition (%s)",
+                    "select count(*) from booking partition (%s) b "
+                            + "where exists (select 1 from payment p where p.booking_id = b.id)"));
+
+    // archiveSql copies one partition into its archive table; blockerSql counts rows still referenced elsewhere
+    private record ManagedTable(String name, String entity, String column, String archiveSql, String blockerSql) {
+    }
+
+    public record PartitionPlan(List<YearMonth> create, List<YearMonth> drop) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private AuditJournal journal;
+
+    @Value("${partition.premake-months:3}")
+    private int premakeMonths;
+
+    @Value("${partition.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${partition.backfill-months:24}")
+    private int backfillMonths;
+
+    @Value("${partition.check-interval-hours:24}")
+    private long checkIntervalHours;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "partition-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            log.debug("Partition maintenance disabled on {}", product);
+            return;
+        }
+        worker.scheduleWithFixedDelay(this::runSafely, 0, Math.max(checkIntervalHours, 1), TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void runSafely() {
+        try {
+            maintain(YearMonth.now());
+        } catch (RuntimeException e) {
+            log.warn("Partition maintenance failed", e);
+        }
+    }
+
+    void maintain(YearMonth current) {
+        boolean dropped = false;
+        for (ManagedTable table : TABLES) {
+            List<String> names = jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, table.name());
+            if (!names.contains(OVERFLOW_PARTITION)) {
+                log.debug("Table {} is not partitioned by month, skipping", table.name());
+                continue;
+            }
+            List<YearMonth> existing = new ArrayList<>();
+            for (String name : names) {
+                if (name.matches("p\\d{6}")) existing.add(YearMonth.parse(name, PARTITION_NAME));
+            }
+            YearMonth earliest = null;
+            if (existing.isEmpty()) {
+                LocalDateTime min = jdbcTemplate.queryForObject(
+                        "select min(" + table.column() + ") from " + table.name(), LocalDateTime.class);
+                earliest = min == null ? null : YearMonth.from(min);
+            }
+            PartitionPlan plan = plan(existing, earliest, current, premakeMonths, retentionMonths, backfillMonths);
+            if (!plan.create().isEmpty()) {
+                jdbcTemplate.execute(reorganizeDdl(table.name(), plan.create()));
+                log.info("Created partitions {} on {}", plan.create(), table.name());
+            }
+            for (YearMonth month : plan.drop()) {
+                dropped |= rotate(table, month);
+            }
+        }
+        if (dropped) analytics.markRewritten();
+    }
+
+    // Archives and drops one partition unless rows in it are still referenced from another table
+    private boolean rotate(ManagedTable table, YearMonth month) {
+        String partition = month.format(PARTITION_NAME);
+        Long blockers = jdbcTemplate.queryForObject(String.format(table.blockerSql(), partition), Long.class);
+        if (blockers != null && blockers > 0) {
+            log.info("Keeping partition {} of {}: {} rows are still referenced", partition, table.name(), blockers);
+            return false;
+        }
+        // DDL commits implicitly, so a crash between the copy and the drop is repaired by the next run (insert ignore)
+        int copied = jdbcTemplate.update(String.format(table.archiveSql(), partition), LocalDateTime.now());
+        jdbcTemplate.execute("alter table " + table.name() + " drop partition " + partition);
+        log.info("Archived {} rows and dropped partition {} of {}", copied, partition, table.name());
+        AuditEvent event = AuditJournal.systemEvent("ARCHIVE", table.entity(), null);
+        event.setChanges(Map.of("partition", Arrays.asList(partition, null), "rows", Arrays.asList(copied, null)));
+        journal.append(event);
+        return true;
+    }
+
+    /**
+     * Months to split off pmax and months to rotate out. New partitions run
+     * from the month after the newest existing one (or from the oldest data,
+     * at most {@code backfillMonths} back) up to {@code premakeMonths} ahead
+     * of the current month. A retention of 0 keeps everything.
+     */
+    public static PartitionPlan plan(List<YearMonth> existing, YearMonth earliestData, YearMonth current,
+                                     int premakeMonths, int retentionMonths, int backfillMonths) {
+        YearMonth last = current.plusMonths(premakeMonths);
+        YearMonth first;
+        if (!existing.isEmpty()) {
+            first = existing.get(existing.size() - 1).plusMonths(1);
+        } else {
+            YearMonth oldestAllowed = current.minusMonths(backfillMonths);
+            first = earliestData == null || earliestData.isAfter(current) ? current
+                    : earliestData.isBefore(oldestAllowed) ? oldestAllowed : earliestData;
+        }
+        List<YearMonth> create = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            create.add(month);
+        }
+        List<YearMonth> drop = new ArrayList<>();
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (YearMonth month : existing) {
+                if (month.isBefore(oldestKept)) drop.add(month);
+            }
+        }
+        return new PartitionPlan(create, drop);
+    }
+
+    // pmax is only ever split at its lower end, so existing partitions are never rewritten
+    public static String reorganizeDdl(String table, List<YearMonth> months) {
+        StringBuilder ddl = new StringBuilder("alter table ").append(table)
+                .append(" reorganize partition ").append(OVERFLOW_PARTITION).append(" into (");
+        for (YearMonth month : months) {
+            ddl.append("partition ").append(month.format(PARTITION_NAME))
+                    .append(" values less than ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        return ddl.append("partition ").append(OVERFLOW_PARTITION).append(" values less than (maxvalue))").toString();
+    }
+}
@@ -2,9 +2,12 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.Payment;
 import com.example.apartment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -13,32 +16,65 @@ public class PaymentService {
     @Autowired
     private PaymentRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private AnalyticsService analytics;
+
     public List<Payment> getAll() {
         return repository.findAll();
     }
 
     public Payment getById(Long id) {
         return repository.findById(id)
+                .filter(found -> found.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Payment with id " + id + " not found"));
     }
 
+    /**
+     * Payments dated within [from, to], both days inclusive. On the partitioned
+     * production schema only the monthly partitions covering the period are read.
+     */
+    public List<Payment> getInPeriod(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return repository.findInPeriod(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
     public Payment create(Payment payment) {
-        return repository.save(payment);
+        if (payment.getPaymentDate() == null) payment.setPaymentDate(LocalDateTime.now());
+        Payment saved = repository.save(payment);
+        analytics.markChanged();
+        return saved;
     }
 
     public Payment update(Long id, Payment payment) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Payment with id " + id + " not found");
-        }
+        Payment existing = getById(id);
+        if (payment.getVersion() == null) payment.setVersion(existing.getVersion());
+        if (payment.getPaymentDate() == null) payment.setPaymentDate(existing.getPaymentDate());
         payment.setId(id);
-        return repository.save(payment);
+        Payment saved = repository.save(payment);
+        analytics.markRewritten();
+        return saved;
     }
 
+    public Payment patch(Long id, JsonNode patch, Long expectedVersion) {
+        MergePatcher.Result<Payment> result = patcher.apply(Payment.class, id, patch, expectedVersion);
+        if (!result.changed()) return result.entity();
+        analytics.markRewritten();
+        return result.entity();
+    }
+
+    // Soft delete; the archival worker moves the row to payment_archive
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("Payment with id " + id + " not found");
-        }
-        repository.deleteById(id);
+        repository.delete(getById(id));
+        analytics.markRewritten();
+        archival.requestRun();
     }
 }
 
@@ -0,0 +1,83 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.service.InvalidationBus.Invalidation;
+import com.example.apartment.service.InvalidationBus.Kind;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies invalidations from other nodes to this node's caches: the listing
+ * card snapshot, the geo index, the analytics columns, the stock counters,
+ * the recommendation vectors and the price history. Single entries are re-read from the database;
+ * "all" drops the cache so the next read rebuilds it.
+ */
+@Component
+public class PeerInvalidationHandler {
+
+    @Autowired
+    private InvalidationBus bus;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private RecommendationService recommendations;
+
+    @Autowired
+    private PriceHistoryService priceHistory;
+
+    @PostConstruct
+    void register() {
+        bus.subscribe(this::apply);
+    }
+
+    void apply(List<Invalidation> batch) {
+        boolean apartmentsChanged = false;
+        for (Invalidation invalidation : batch) {
+            if (invalidation.isAll()) {
+                listingCards.invalidate();
+                if (invalidation.kind() == Kind.INVENTORY) ledger.reloadAll();
+                if (invalidation.kind() == Kind.APARTMENT) {
+                    geoIndex.invalidate();
+                    recommendations.applyPeerRebuild();
+                    priceHistory.requestSync();
+                    apartmentsChanged = true;
+                }
+            }
+        }
+        for (Invalidation invalidation : batch) {
+            if (invalidation.isAll()) continue;
+            listingCards.refresh(invalidation.id());
+            if (invalidation.kind() == Kind.INVENTORY) ledger.reloadByApartment(invalidation.id());
+            if (invalidation.kind() == Kind.APARTMENT) {
+                Apartment apartment = apartmentRepository.findById(invalidation.id()).orElse(null);
+                if (apartment == null || apartment.getDeletedAt() != null) {
+                    geoIndex.remove(invalidation.id());
+                } else {
+                    geoIndex.upsert(apartment);
+                    priceHistory.applyPeerChange(apartment);
+                }
+                recommendations.applyPeerChange(invalidation.id());
+                apartmentsChanged = true;
+            }
+        }
+        if (apartmentsChanged) analytics.markRewritten();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.PriceBucket;
+import com.example.apartment.model.PriceDrop;
+import com.example.apartment.model.PricePoint;
+import com.example.apartment.service.PriceHistoryStore.Period;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Feeds apartment price and availability changes into the
+ * {@link PriceHistoryStore}. Writes through {@link ApartmentService} are
+ * recorded once they commit and writes on other nodes when their
+ * invalidation arrives; a sync against the apartments table at startup,
+ * after imports and after a peer's bulk change records whatever changed
+ * outside those paths. Each node keeps its own history, timed by when that
+ * node saw the change.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private static final int MAX_DROPS = 100;
+    private static final String SELECT_APARTMENTS =
+            "select id, price, available from apartments where deleted_at is null";
+
+    @Autowired
+    private PriceHistoryStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "price-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Started once the context is up, so the CDS training run never touches the database or the file
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        store.open();
+        worker.execute(this::syncSafely);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // After a write through ApartmentService; recorded once the transaction commits
+    public void record(Apartment apartment) {
+        afterCommit(() -> applyPeerChange(apartment));
+    }
+
+    // An apartment as re-read after another node changed it
+    public void applyPeerChange(Apartment apartment) {
+        if (apartment == null || apartment.getId() == null || apartment.getPrice() == null) return;
+        store.record(apartment.getId(), Instant.now(), apartment.getPrice(),
+                Boolean.TRUE.equals(apartment.getAvailable()));
+    }
+
+    // After bulk changes such as an import, here or on another node
+    public void requestSync() {
+        afterCommit(() -> worker.execute(this::syncSafely));
+    }
+
+    public List<PricePoint> getHistory(Long apartmentId, Instant from, Instant to) {
+        listingCards.getById(apartmentId);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return store.getPoints(apartmentId, from, to);
+    }
+
+    public List<PriceBucket> getRollup(Long apartmentId, String period, LocalDate from, LocalDate to) {
+        listingCards.getById(apartmentId);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return store.getRollup(apartmentId, parsePeriod(period), from, to);
+    }
+
+    // Listed apartments now cheaper than when the window of days began (to the day), largest drop first
+    public List<PriceDrop> getRecentDrops(int days, int limit) {
+        if (days < 1) throw new IllegalArgumentException("days must be at least 1");
+        int capped = Math.min(Math.max(limit, 1), MAX_DROPS);
+        List<PriceDrop> drops = new ArrayList<>(capped);
+        for (PriceHistoryStore.Drop drop : store.getDrops(Instant.now().minus(Duration.ofDays(days)))) {
+            // Deleted apartments keep their history but are not listed
+            listingCards.find(drop.apartmentId()).ifPresent(card -> drops.add(new PriceDrop(card,
+                    drop.previousPrice(), drop.price(), drop.percent(), drop.changedAt())));
+            if (drops.size() == capped) break;
+        }
+        return drops;
+    }
+
+    private static Period parsePeriod(String period) {
+        try {
+            return Period.valueOf(period.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown period " + period + ", expected day or week");
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void syncSafely() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync apartment price history", e);
+        }
+    }
+
+    private void sync() {
+        Instant now = Instant.now();
+        int[] recorded = {0};
+        jdbcTemplate.query(SELECT_APARTMENTS, rs -> {
+            if (store.record(rs.getLong("id"), now, rs.getDouble("price"), rs.getBoolean("available"))) {
+                recorded[0]++;
+            }
+        });
+        log.debug("Price history sync recorded {} changed apartments", recorded[0]);
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.PriceBucket;
+import com.example.apartment.model.PricePoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Price and availability history of every apartment. An apartment's points
+ * are one growable byte array of variable-length deltas: the seconds since
+ * the previous point with the availability in the low bit, then the
+ * zig-zag encoded price change in cents, so a typical change takes three to
+ * six bytes. Beside it, daily and weekly rollups (UTC days, weeks starting
+ * on Monday) keep the open, low, high and close price and the number of
+ * changes in parallel primitive arrays; charts and price drops are answered
+ * from those by binary search without decoding the raw points.
+ *
+ * <p>Every point is also appended to {@code file} as a fixed-size record
+ * and replayed by {@link #open()}; a torn last record is cut off. Without a
+ * file the history lives in memory only.
+ */
+public class PriceHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    public enum Period {
+        DAY,
+        WEEK;
+
+        long bucketStart(long epochDay) {
+            // Day 0 was a Thursday
+            return this == DAY ? epochDay : epochDay - Math.floorMod(epochDay + 3, 7);
+        }
+    }
+
+    // A price now below the close of the last day before the window
+    public record Drop(long apartmentId, double previousPrice, double price, Instant changedAt) {
+        public double percent() {
+            return (previousPrice - price) * 100 / previousPrice;
+        }
+    }
+
+    private static final int FILE_MAGIC = 0x50485331; // "PHS1"
+    // apartment id, epoch second, price in cents, available
+    private static final int RECORD_BYTES = 8 + 8 + 8 + 1;
+    private static final int READ_RECORDS = 4096;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final Path file;
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    // Guarded by this
+    private FileChannel channel;
+    private volatile boolean open;
+
+    public PriceHistoryStore(Path file) {
+        this.file = file;
+    }
+
+    public synchronized void open() {
+        if (open) return;
+        if (file != null) {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) Files.createDirectories(parent);
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                replay();
+                channel.position(channel.size());
+            } catch (IOException e) {
+                closeChannel();
+                throw new UncheckedIOException("Could not open price history " + file, e);
+            }
+        }
+        open = true;
+    }
+
+    public synchronized void close() {
+        open = false;
+        closeChannel();
+    }
+
+    /**
+     * Appends a point unless price and availability are what the apartment
+     * last had. A time before the apartment's last point is moved up to it.
+     * False when nothing was recorded, including before {@link #open()}.
+     */
+    public boolean record(long apartmentId, Instant time, double price, boolean available) {
+        if (!open) return false;
+        long cents = Math.round(price * 100);
+        Series history = series.computeIfAbsent(apartmentId, id -> new Series());
+        synchronized (history) {
+            if (history.count > 0 && history.lastPrice == cents && history.lastAvailable == available) return false;
+            long second = history.append(time.getEpochSecond(), cents, available);
+            write(apartmentId, second, cents, available);
+        }
+        return true;
+    }
+
+    // Raw points, oldest first; null bounds are open
+    public List<PricePoint> getPoints(long apartmentId, Instant from, Instant to) {
+        Series history = series.get(apartmentId);
+        if (history == null) return List.of();
+        long fromSecond = from == null ? Long.MIN_VALUE : from.getEpochSecond();
+        long toSecond = to == null ? Long.MAX_VALUE : to.getEpochSecond();
+        synchronized (history) {
+            return history.decode(fromSecond, toSecond);
+        }
+    }
+
+    // Buckets that saw a change, oldest first; a bucket opens at the previous bucket's close
+    public List<PriceBucket> getRollup(long apartmentId, Period period, LocalDate from, LocalDate to) {
+        Series history = series.get(apartmentId);
+        if (history == null) return List.of();
+        long fromDay = from == null ? Long.MIN_VALUE : period.bucketStart(from.toEpochDay());
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        synchronized (history) {
+            Rollup rollup = period == Period.DAY ? history.daily : history.weekly;
+            return rollup.buckets(fromDay, toDay);
+        }
+    }
+
+    /**
+     * Apartments whose price is below what it was at the end of the day
+     * before {@code since}, largest drop first. Apartments without a point
+     * before that day are left out.
+     */
+    public List<Drop> getDrops(Instant since) {
+        long day = Math.floorDiv(since.getEpochSecond(), SECONDS_PER_DAY);
+        List<Drop> drops = new ArrayList<>();
+        series.forEach((id, history) -> {
+            synchronized (history) {
+                Rollup daily = history.daily;
+                int before = daily.floor(day - 1);
+                if (before < 0) return;
+                long previous = daily.close[before];
+                if (previous > 0 && history.lastPrice < previous) {
+                    drops.add(new Drop(id, previous / 100.0, history.lastPrice / 100.0,
+                            Instant.ofEpochSecond(history.lastSecond)));
+                }
+            }
+        });
+        drops.sort(Comparator.comparingDouble(Drop::percent).reversed());
+        return drops;
+    }
+
+    private void replay() throws IOException {
+        long size = channel.size();
+        if (size < 4) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(0, FILE_MAGIC);
+            channel.write(header, 0);
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(header, 0);
+        if (header.getInt(0) != FILE_MAGIC) throw new IOException(file + " is not a price history file");
+        long whole = 4 + (size - 4) / RECORD_BYTES * RECORD_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * READ_RECORDS);
+        long points = 0;
+        for (long position = 4; position < whole; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), whole - position));
+            readFully(buffer, position);
+            position += buffer.limit();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                long id = buffer.getLong();
+                long second = buffer.getLong();
+                long cents = buffer.getLong();
+                boolean available = buffer.get() != 0;
+                series.computeIfAbsent(id, key -> new Series()).append(second, cents, available);
+                points++;
+            }
+        }
+        if (whole < size) {
+            log.warn("Cutting a torn record off the end of price history {}", file);
+            channel.truncate(whole);
+        }
+        log.info("Replayed {} price points of {} apartments from {}", points, series.size(), file);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException(file.toString());
+        }
+    }
+
+    // A point that cannot be written stays in memory; the next startup sync records the current price again
+    private synchronized void write(long apartmentId, long second, long cents, boolean available) {
+        if (channel == null) return;
+        record.clear();
+        record.putLong(apartmentId).putLong(second).putLong(cents).put((byte) (available ? 1 : 0)).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            log.warn("Could not append to price history {}", file, e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close price history {}", file, e);
+        }
+        channel = null;
+    }
+
+    private static final class Series {
+        private byte[] data = new byte[16];
+        private int length;
+        private int count;
+        private long lastSecond;
+        private long lastPrice;
+        private boolean lastAvailable;
+        private final Rollup daily = new Rollup(Period.DAY);
+        private final Rollup weekly = new Rollup(Period.WEEK);
+
+        long append(long second, long cents, boolean available) {
+            long at = count == 0 ? second : Math.max(second, lastSecond);
+            if (length + 20 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + 20));
+            writeVarLong((at - lastSecond) << 1 | (available ? 1 : 0));
+            writeVarLong(zigzag(cents - lastPrice));
+            lastSecond = at;
+            lastPrice = cents;
+            lastAvailable = available;
+            count++;
+            long day = Math.floorDiv(at, SECONDS_PER_DAY);
+            daily.add(day, cents, available);
+            weekly.add(day, cents, available);
+            return at;
+        }
+
+        List<PricePoint> decode(long fromSecond, long toSecond) {
+            List<PricePoint> points = new ArrayList<>();
+            int[] position = {0};
+            long second = 0;
+            long cents = 0;
+            for (int i = 0; i < count; i++) {
+                long head = readVarLong(position);
+                second += head >>> 1;
+                cents += unzigzag(readVarLong(position));
+                if (second > toSecond) break;
+                if (second >= fromSecond) {
+                    points.add(new PricePoint(Instant.ofEpochSecond(second), cents / 100.0, (head & 1) != 0));
+                }
+            }
+            return points;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+
+        private long readVarLong(int[] position) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private static final class Rollup {
+        private final Period period;
+        private long[] starts = new long[2];
+        private long[] open = new long[2];
+        private long[] low = new long[2];
+        private long[] high = new long[2];
+        private long[] close = new long[2];
+        private int[] changes = new int[2];
+        // At the bucket's close
+        private boolean[] available = new boolean[2];
+        private int size;
+
+        Rollup(Period period) {
+            this.period = period;
+        }
+
+        // Days never decrease within a series, so buckets only ever append
+        void add(long epochDay, long cents, boolean isAvailable) {
+            long start = period.bucketStart(epochDay);
+            if (size == 0 || starts[size - 1] != start) {
+                if (size == starts.length) grow();
+                long opening = size == 0 ? cents : close[size - 1];
+                starts[size] = start;
+                open[size] = opening;
+                low[size] = opening;
+                high[size] = opening;
+                changes[size] = 0;
+                size++;
+            }
+            int i = size - 1;
+            low[i] = Math.min(low[i], cents);
+            high[i] = Math.max(high[i], cents);
+            close[i] = cents;
+            changes[i]++;
+            available[i] = isAvailable;
+        }
+
+        // Index of the last bucket starting on or before the day, or -1
+        int floor(long epochDay) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= epochDay) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        List<PriceBucket> buckets(long fromDay, long toDay) {
+            List<PriceBucket> buckets = new ArrayList<>();
+            int first = fromDay == Long.MIN_VALUE ? 0 : floor(fromDay - 1) + 1;
+            for (int i = first; i < size && starts[i] <= toDay; i++) {
+                buckets.add(new PriceBucket(LocalDate.ofEpochDay(starts[i]), open[i] / 100.0, low[i] / 100.0,
+                        high[i] / 100.0, close[i] / 100.0, changes[i], available[i]));
+            }
+            return buckets;
+        }
+
+        private void grow() {
+            int capacity = starts.length * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            open = Arrays.copyOf(open, capacity);
+            low = Arrays.copyOf(low, capacity);
+            high = Arrays.copyOf(high, capacity);
+            close = Arrays.copyOf(close, capacity);
+            changes = Arrays.copyOf(changes, capacity);
+            available = Arrays.copyOf(available, capacity);
+        }
+    }
+}
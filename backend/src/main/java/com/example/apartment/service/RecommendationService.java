@@ -0,0 +1,496 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.SimilarApartment;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.repository.FeedbackRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Similar apartments" from precomputed nearest neighbours. Each apartment is
+ * reduced to a small feature vector (price and size on a log scale, its
+ * coordinates, a 64-bit set of feature phrases and its average rating); a
+ * fork/join job finds the closest {@code recommendation.neighbours} of every
+ * apartment and writes them to apartment_similarity, which requests then read
+ * by key. A write to an apartment or its feedback recomputes that vector and
+ * only the neighbour lists it enters or leaves. Vectors and lists live on a
+ * single worker thread; a full rebuild at startup and every
+ * {@code recommendation.rebuild-interval-minutes} rescales price and size and
+ * picks up feedback written on other nodes.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_NEIGHBOURS = 100;
+
+    // Weights of the distance terms; price and size differences are in standard deviations
+    private static final double PRICE_WEIGHT = 1.0;
+    private static final double SIZE_WEIGHT = 0.6;
+    private static final double LOCATION_WEIGHT = 1.0;
+    private static final double FEATURE_WEIGHT = 0.8;
+    private static final double RATING_WEIGHT = 0.3;
+    // Apartments this far apart weigh like one standard deviation of price
+    private static final double LOCATION_SCALE_KM = 10.0;
+    private static final double UNRATED = 3.0;
+
+    private static final String SELECT_APARTMENTS =
+            "select id, price, size, features, latitude, longitude from apartments where deleted_at is null";
+    private static final String SELECT_NEIGHBOURS =
+            "select similar_id, score from apartment_similarity where apartment_id = ? order by neighbour_rank limit ?";
+    private static final String DELETE_NEIGHBOURS = "delete from apartment_similarity where apartment_id in (%s)";
+    private static final String INSERT_NEIGHBOUR =
+            "insert into apartment_similarity (apartment_id, neighbour_rank, similar_id, score) values (?, ?, ?, ?)";
+    private static final String DELETE_STALE =
+            "delete from apartment_similarity where apartment_id not in (select id from apartments where deleted_at is null)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Value("${recommendation.neighbours:10}")
+    private int neighbourCount;
+
+    @Value("${recommendation.rebuild-interval-minutes:60}")
+    private long rebuildIntervalMinutes;
+
+    private final TransactionTemplate chunkTx;
+
+    // Apartment id -> whether this node made the change and so writes the affected lists
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+
+    // Worker thread only
+    private final Map<Long, Vector> vectors = new LinkedHashMap<>();
+    private final Map<Long, Neighbours> neighbours = new HashMap<>();
+    private Scale scale;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "recommendations");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RecommendationService(PlatformTransactionManager transactionManager) {
+        this.chunkTx = new TransactionTemplate(transactionManager);
+    }
+
+    // Log price and size are stored as z-scores of the population at the last rebuild
+    private record Vector(long id, double price, double size, double latitude, double longitude,
+                          long features, double rating) {
+        boolean located() {
+            return !Double.isNaN(latitude);
+        }
+    }
+
+    private record Scale(double priceMean, double priceDeviation, double sizeMean, double sizeDeviation) {
+    }
+
+    private record StoredNeighbour(long id, double score) {
+    }
+
+    private record Row(long id, double price, int size, String features, Double latitude, Double longitude) {
+    }
+
+    // Started once the context is up, so the CDS training run never touches the database
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        worker.execute(() -> rebuildSafely(true));
+        if (rebuildIntervalMinutes > 0) {
+            worker.scheduleWithFixedDelay(() -> rebuildSafely(true), rebuildIntervalMinutes, rebuildIntervalMinutes,
+                    TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public List<SimilarApartment> getSimilar(Long apartmentId, int limit) {
+        listingCards.getById(apartmentId);
+        int capped = Math.min(Math.max(limit, 1), capacity());
+        // Reads the whole list so neighbours deleted since it was written do not shorten the answer
+        List<StoredNeighbour> stored = jdbcTemplate.query(SELECT_NEIGHBOURS,
+                (rs, n) -> new StoredNeighbour(rs.getLong("similar_id"), rs.getDouble("score")), apartmentId, capacity());
+        List<SimilarApartment> similar = new ArrayList<>(capped);
+        for (StoredNeighbour neighbour : stored) {
+            if (similar.size() == capped) break;
+            listingCards.find(neighbour.id())
+                    .ifPresent(card -> similar.add(new SimilarApartment(card, neighbour.score())));
+        }
+        return similar;
+    }
+
+    // After a write to the apartment or its feedback; runs once the transaction commits
+    public void requestRefresh(Long apartmentId) {
+        enqueue(apartmentId, true);
+    }
+
+    // The same write made on another node, which already stored the lists it changed
+    public void applyPeerChange(Long apartmentId) {
+        enqueue(apartmentId, false);
+    }
+
+    // After bulk changes such as an import
+    public void requestRebuild() {
+        afterCommit(() -> worker.execute(() -> rebuildSafely(true)));
+    }
+
+    public void applyPeerRebuild() {
+        worker.execute(() -> rebuildSafely(false));
+    }
+
+    private void enqueue(Long apartmentId, boolean persist) {
+        if (apartmentId == null) return;
+        afterCommit(() -> {
+            pending.merge(apartmentId, persist, Boolean::logicalOr);
+            worker.execute(this::drainSafely);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void rebuildSafely(boolean persist) {
+        try {
+            rebuild(persist);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild apartment recommendations", e);
+        }
+    }
+
+    private void rebuild(boolean persist) {
+        long started = System.nanoTime();
+        List<Row> rows = jdbcTemplate.query(SELECT_APARTMENTS, (rs, n) -> {
+            double latitude = rs.getDouble("latitude");
+            Double lat = rs.wasNull() ? null : latitude;
+            double longitude = rs.getDouble("longitude");
+            Double lon = rs.wasNull() ? null : longitude;
+            return new Row(rs.getLong("id"), rs.getDouble("price"), rs.getInt("size"), rs.getString("features"), lat, lon);
+        });
+        Map<Long, Double> ratings = new HashMap<>();
+        for (Object[] row : feedbackRepository.findRatingAggregates()) {
+            ratings.put((Long) row[0], ((Number) row[1]).doubleValue());
+        }
+        Scale fresh = scaleOf(rows);
+        Vector[] all = new Vector[rows.size()];
+        for (int i = 0; i < all.length; i++) {
+            Row row = rows.get(i);
+            all[i] = vector(row, ratings.getOrDefault(row.id(), UNRATED), fresh);
+        }
+        Neighbours[] lists = new Neighbours[all.length];
+        ForkJoinPool.commonPool().invoke(new NeighbourTask(all, lists, 0, all.length, capacity()));
+
+        scale = fresh;
+        vectors.clear();
+        neighbours.clear();
+        for (int i = 0; i < all.length; i++) {
+            vectors.put(all[i].id(), all[i]);
+            neighbours.put(all[i].id(), lists[i]);
+        }
+        if (persist) {
+            write(neighbours.keySet());
+            jdbcTemplate.update(DELETE_STALE);
+        }
+        log.info("Computed nearest neighbours of {} apartments in {} ms", all.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        // Changes queued before the first rebuild finished
+        if (!pending.isEmpty()) drain();
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh apartment recommendations; the next rebuild catches up", e);
+        }
+    }
+
+    private void drain() {
+        if (scale == null) return;
+        Set<Long> changed = new HashSet<>();
+        for (Long id : new ArrayList<>(pending.keySet())) {
+            Boolean persist = pending.remove(id);
+            if (persist == null) continue;
+            Set<Long> affected = apply(id);
+            if (persist) changed.addAll(affected);
+        }
+        if (!changed.isEmpty()) write(changed);
+    }
+
+    /**
+     * Brings the vector of one apartment up to date and repairs every list it
+     * enters, leaves or moves within. Returns the apartments whose lists
+     * changed. A list is recomputed in full only when the apartment drops out
+     * of it, since only then is the replacement unknown.
+     */
+    private Set<Long> apply(long id) {
+        Vector vector = apartmentRepository.findById(id)
+                .filter(apartment -> apartment.getDeletedAt() == null)
+                .map(apartment -> vector(row(apartment), rating(id), scale))
+                .orElse(null);
+        Set<Long> changed = new HashSet<>();
+        changed.add(id);
+        vectors.remove(id);
+        neighbours.remove(id);
+        if (vector != null) vectors.put(id, vector);
+
+        for (Map.Entry<Long, Neighbours> entry : neighbours.entrySet()) {
+            Neighbours list = entry.getValue();
+            Vector owner = vectors.get(entry.getKey());
+            int index = list.indexOf(id);
+            if (vector == null) {
+                if (index < 0) continue;
+                entry.setValue(nearest(owner, vectors.values(), capacity()));
+            } else {
+                double distance = distance(owner, vector);
+                if (index >= 0) {
+                    if (list.size < list.ids.length || distance <= list.worst()) {
+                        list.removeAt(index);
+                        list.offer(id, distance);
+                    } else {
+                        entry.setValue(nearest(owner, vectors.values(), capacity()));
+                    }
+                } else if (!list.offer(id, distance)) {
+                    continue;
+                }
+            }
+            changed.add(entry.getKey());
+        }
+        if (vector != null) neighbours.put(id, nearest(vector, vectors.values(), capacity()));
+        return changed;
+    }
+
+    // Replaces the stored lists of the given apartments; ids without a list lose their rows
+    private void write(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + CHUNK_SIZE, all.size()));
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : chunk) {
+                Neighbours list = neighbours.get(id);
+                if (list == null) continue;
+                for (int rank = 0; rank < list.size; rank++) {
+                    rows.add(new Object[]{id, rank, list.ids[rank], 1 / (1 + list.distances[rank])});
+                }
+            }
+            String delete = String.format(DELETE_NEIGHBOURS, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            chunkTx.executeWithoutResult(status -> {
+                jdbcTemplate.update(delete, chunk.toArray());
+                if (!rows.isEmpty()) jdbcTemplate.batchUpdate(INSERT_NEIGHBOUR, rows);
+            });
+        }
+    }
+
+    private int capacity() {
+        return Math.min(Math.max(neighbourCount, 1), MAX_NEIGHBOURS);
+    }
+
+    private double rating(long apartmentId) {
+        List<Object[]> aggregate = feedbackRepository.findRatingAggregate(apartmentId);
+        return aggregate.isEmpty() ? UNRATED : ((Number) aggregate.get(0)[1]).doubleValue();
+    }
+
+    private static Row row(Apartment apartment) {
+        return new Row(apartment.getId(), apartment.getPrice(), apartment.getSize(), apartment.getFeatures(),
+                apartment.getLatitude(), apartment.getLongitude());
+    }
+
+    private static Scale scaleOf(List<Row> rows) {
+        double[] price = new double[rows.size()];
+        double[] size = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            price[i] = logOf(rows.get(i).price());
+            size[i] = logOf(rows.get(i).size());
+        }
+        double priceMean = Arrays.stream(price).average().orElse(0);
+        double sizeMean = Arrays.stream(size).average().orElse(0);
+        return new Scale(priceMean, deviation(price, priceMean), sizeMean, deviation(size, sizeMean));
+    }
+
+    private static double deviation(double[] values, double mean) {
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        double deviation = values.length == 0 ? 0 : Math.sqrt(sum / values.length);
+        return deviation < 1e-9 ? 1 : deviation;
+    }
+
+    private static double logOf(double value) {
+        return Math.log(Math.max(value, 1));
+    }
+
+    private static Vector vector(Row row, double rating, Scale scale) {
+        return new Vector(row.id(),
+                (logOf(row.price()) - scale.priceMean()) / scale.priceDeviation(),
+                (logOf(row.size()) - scale.sizeMean()) / scale.sizeDeviation(),
+                row.latitude() == null || row.longitude() == null ? Double.NaN : row.latitude(),
+                row.longitude() == null ? Double.NaN : row.longitude(),
+                featureBits(row.features()), rating);
+    }
+
+    // Each comma-separated phrase ("2 bedrooms", "balcony") sets one of 64 bits
+    static long featureBits(String features) {
+        if (features == null) return 0;
+        long bits = 0;
+        for (String phrase : features.split("[,;]")) {
+            String normalized = phrase.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+            if (!normalized.isEmpty()) bits |= 1L << (normalized.hashCode() & 63);
+        }
+        return bits;
+    }
+
+    private static double distance(Vector a, Vector b) {
+        double price = a.price() - b.price();
+        double size = a.size() - b.size();
+        // Unknown coordinates count as a different area
+        double location = 1;
+        if (a.located() && b.located()) {
+            double scaled = GeoIndexService.haversineKm(a.latitude(), a.longitude(), b.latitude(), b.longitude())
+                    / LOCATION_SCALE_KM;
+            location = Math.min(scaled * scaled, 4);
+        }
+        long union = a.features() | b.features();
+        double features = union == 0 ? 0 : 1 - (double) Long.bitCount(a.features() & b.features()) / Long.bitCount(union);
+        double rating = (a.rating() - b.rating()) / 4;
+        return PRICE_WEIGHT * price * price + SIZE_WEIGHT * size * size + LOCATION_WEIGHT * location
+                + FEATURE_WEIGHT * features + RATING_WEIGHT * rating * rating;
+    }
+
+    private static Neighbours nearest(Vector vector, Iterable<Vector> candidates, int capacity) {
+        Neighbours list = new Neighbours(capacity);
+        for (Vector candidate : candidates) {
+            if (candidate.id() != vector.id()) list.offer(candidate.id(), distance(vector, candidate));
+        }
+        return list;
+    }
+
+    // Ties go to the lower id, so every node computes the same lists
+    private static boolean closer(double distance, long id, double otherDistance, long otherId) {
+        return distance < otherDistance || (distance == otherDistance && id < otherId);
+    }
+
+    // The closest apartments to one apartment, nearest first
+    private static final class Neighbours {
+        final long[] ids;
+        final double[] distances;
+        int size;
+
+        Neighbours(int capacity) {
+            ids = new long[capacity];
+            distances = new double[capacity];
+        }
+
+        boolean offer(long id, double distance) {
+            if (size == ids.length && !closer(distance, id, distances[size - 1], ids[size - 1])) return false;
+            int i = size == ids.length ? size - 1 : size++;
+            while (i > 0 && closer(distance, id, distances[i - 1], ids[i - 1])) {
+                ids[i] = ids[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            ids[i] = id;
+            distances[i] = distance;
+            return true;
+        }
+
+        int indexOf(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) return i;
+            }
+            return -1;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(distances, index + 1, distances, index, size - index - 1);
+            size--;
+        }
+
+        double worst() {
+            return distances[size - 1];
+        }
+    }
+
+    private static final class NeighbourTask extends RecursiveAction {
+        private static final int THRESHOLD = 64;
+
+        private final Vector[] all;
+        private final Neighbours[] lists;
+        private final int lo;
+        private final int hi;
+        private final int capacity;
+
+        NeighbourTask(Vector[] all, Neighbours[] lists, int lo, int hi, int capacity) {
+            this.all = all;
+            this.lists = lists;
+            this.lo = lo;
+            this.hi = hi;
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new NeighbourTask(all, lists, lo, mid, capacity), new NeighbourTask(all, lists, mid, hi, capacity));
+                return;
+            }
+            List<Vector> candidates = Arrays.asList(all);
+            for (int i = lo; i < hi; i++) {
+                lists[i] = nearest(all[i], candidates, capacity);
+            }
+        }
+    }
+}
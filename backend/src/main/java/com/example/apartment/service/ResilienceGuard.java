@@ -0,0 +1,218 @@
+package com.example.apartment.service;
+
+import com.example.apartment.model.CircuitStats;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timeouts, circuit breakers and bulkheads between the apartment and
+ * inventory controllers and the database. Reads and writes run on separate
+ * bounded pools, so admin writes never take the threads public reads need
+ * and a stalled database pins at most that many threads; callers wait at
+ * most the pool's timeout. Timeouts and connection-level database errors
+ * count against a named circuit (one per repository), and an open circuit
+ * fails calls at once.
+ *
+ * <p>Every successful read is kept, by key, as the last good snapshot. A read
+ * that times out, finds its circuit open or its bulkhead full, or hits a
+ * database outage is answered from that snapshot, with the snapshot's age
+ * in seconds in the {@value #STALE_HEADER} response header. Without a
+ * snapshot, and for writes, a {@link ServiceUnavailableException} is thrown
+ * and Retry-After is set. Business errors (not found, bad input, version
+ * conflicts) pass through unchanged and count as the database answering.
+ *
+ * <p>Calls run without the request thread's context. A call that timed out
+ * is left to finish in the background, since interrupting JDBC I/O does not
+ * unblock it; a write may therefore still commit after its caller got 503.
+ */
+public class ResilienceGuard {
+
+    public static final String STALE_HEADER = "X-Stale-Seconds";
+
+    private final ThreadPoolExecutor reads;
+    private final ThreadPoolExecutor writes;
+    private final long readTimeoutNanos;
+    private final long writeTimeoutNanos;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final Map<String, Snapshot> snapshots;
+
+    private record Snapshot(Object value, long capturedAtMillis) {
+    }
+
+    private static final class Circuit {
+        private final CircuitBreaker breaker;
+        private final AtomicLong stale = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        Circuit(CircuitBreaker breaker) {
+            this.breaker = breaker;
+        }
+    }
+
+    public ResilienceGuard(int readConcurrency, Duration readTimeout, int writeConcurrency, Duration writeTimeout,
+                           int failureThreshold, Duration openDuration, int maxSnapshots) {
+        this.reads = pool("guarded-read", readConcurrency);
+        this.writes = pool("guarded-write", writeConcurrency);
+        this.readTimeoutNanos = readTimeout.toNanos();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        // Least recently served snapshots go first
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxSnapshots;
+            }
+        });
+    }
+
+    public void close() {
+        reads.shutdownNow();
+        writes.shutdownNow();
+    }
+
+    // A public read; key names the response to fall back to, e.g. "apartment:42"
+    public <T> T read(String circuit, String key, Callable<T> call) {
+        return run(reads, readTimeoutNanos, circuit, key, call);
+    }
+
+    // An admin write; never answered from a snapshot
+    public <T> T write(String circuit, Callable<T> call) {
+        return run(writes, writeTimeoutNanos, circuit, null, call);
+    }
+
+    public void write(String circuit, Runnable call) {
+        run(writes, writeTimeoutNanos, circuit, null, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public List<CircuitStats> getCircuits() {
+        List<CircuitStats> stats = new ArrayList<>();
+        circuits.forEach((name, circuit) -> stats.add(new CircuitStats(name, circuit.breaker.getState().name(),
+                circuit.breaker.getFailures(), circuit.breaker.getRetryAfterSeconds(), circuit.stale.get(),
+                circuit.rejected.get())));
+        return stats;
+    }
+
+    private <T> T run(ThreadPoolExecutor pool, long timeoutNanos, String name, String key, Callable<T> call) {
+        Circuit circuit = circuits.computeIfAbsent(name,
+                n -> new Circuit(new CircuitBreaker(n, failureThreshold, openNanos)));
+        CircuitBreaker breaker = circuit.breaker;
+        if (!breaker.tryAcquire()) {
+            circuit.rejected.incrementAndGet();
+            return degrade(circuit, key, "Circuit " + name + " is open", null);
+        }
+        Future<T> future;
+        try {
+            future = pool.submit(call);
+        } catch (RejectedExecutionException e) {
+            breaker.onIgnored();
+            circuit.rejected.incrementAndGet();
+            return degrade(circuit, key, "No free " + name + " worker", e);
+        }
+        T value;
+        try {
+            value = future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            breaker.onFailure();
+            return degrade(circuit, key, name + " did not answer in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.onIgnored();
+            throw new ServiceUnavailableException("Interrupted waiting for " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (isOutage(cause)) {
+                breaker.onFailure();
+                return degrade(circuit, key, name + " is unavailable", cause);
+            }
+            breaker.onSuccess();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new UndeclaredThrowableException(cause);
+        }
+        breaker.onSuccess();
+        if (key != null && value != null) snapshots.put(key, new Snapshot(value, System.currentTimeMillis()));
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T degrade(Circuit circuit, String key, String reason, Throwable cause) {
+        Snapshot snapshot = key == null ? null : snapshots.get(key);
+        if (snapshot == null) {
+            setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, circuit.breaker.getRetryAfterSeconds())));
+            throw new ServiceUnavailableException(reason, cause);
+        }
+        circuit.stale.incrementAndGet();
+        long ageSeconds = Math.max(0, System.currentTimeMillis() - snapshot.capturedAtMillis()) / 1000;
+        setHeader(STALE_HEADER, String.valueOf(ageSeconds));
+        return (T) snapshot.value();
+    }
+
+    private static void setHeader(String name, String value) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes servlet
+                && servlet.getResponse() != null) {
+            servlet.getResponse().setHeader(name, value);
+        }
+    }
+
+    // The database did not answer, as opposed to answering with an error
+    static boolean isOutage(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConcurrencyFailureException || t instanceof SQLTransactionRollbackException) return false;
+            if (t instanceof TransientDataAccessException || t instanceof DataAccessResourceFailureException
+                    || t instanceof RecoverableDataAccessException || t instanceof CannotCreateTransactionException
+                    || t instanceof SQLTransientException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Grows to its size and then rejects instead of queueing
+    private static ThreadPoolExecutor pool(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
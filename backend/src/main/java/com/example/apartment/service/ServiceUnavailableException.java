@@ -0,0 +1,9 @@
+package com.example.apartment.service;
+
+// The database could not answer in time and there was nothing to fall back to; controllers answer 503
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.apartment.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends each frame, length-prefixed, over one long-lived TCP connection per
+ * configured peer, for networks without multicast. Every node listens on
+ * the same port and may list itself among the peers, so all nodes can share
+ * one configuration. A peer that is down is retried at most once a second;
+ * frames sent meanwhile are lost and show up as a sequence gap once it is
+ * reachable again.
+ */
+public class TcpInvalidationBus extends BatchingInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(TcpInvalidationBus.class);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 500;
+    private static final long RETRY_NANOS = 1_000_000_000L;
+
+    private final int port;
+    private final Map<InetSocketAddress, Peer> peers = new LinkedHashMap<>();
+    private final Set<Socket> accepted = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket server;
+
+    private final ExecutorService readers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "invalidation-receiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Peer {
+        Socket socket;
+        DataOutputStream out;
+        long nextAttempt;
+        boolean reported;
+    }
+
+    public TcpInvalidationBus(String cluster, Duration batchWindow, Duration heartbeat,
+                              int port, List<InetSocketAddress> peers) {
+        super(cluster, batchWindow, heartbeat);
+        this.port = port;
+        for (InetSocketAddress peer : peers) {
+            this.peers.put(peer, new Peer());
+        }
+    }
+
+    @Override
+    protected void openTransport() throws IOException {
+        server = new ServerSocket(port);
+        readers.submit(this::acceptLoop);
+        log.info("Cache invalidation bus listening on port {} with peers {}", port, peers.keySet());
+    }
+
+    @Override
+    protected synchronized void send(byte[] frame) {
+        long now = System.nanoTime();
+        for (Map.Entry<InetSocketAddress, Peer> entry : peers.entrySet()) {
+            Peer peer = entry.getValue();
+            try {
+                if (peer.out == null) {
+                    if (now - peer.nextAttempt < 0) continue;
+                    connect(entry.getKey(), peer);
+                }
+                peer.out.writeInt(frame.length);
+                peer.out.write(frame);
+                peer.out.flush();
+            } catch (IOException e) {
+                if (!peer.reported) {
+                    log.warn("Invalidation peer {} is unreachable: {}", entry.getKey(), e.getMessage());
+                    peer.reported = true;
+                }
+                disconnect(peer);
+                peer.nextAttempt = now + RETRY_NANOS;
+            }
+        }
+    }
+
+    private void connect(InetSocketAddress address, Peer peer) throws IOException {
+        // Resolve again on every attempt so a peer that moved to a new address is found
+        InetSocketAddress target = new InetSocketAddress(address.getHostString(), address.getPort());
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(target, CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        peer.socket = socket;
+        peer.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (peer.reported) log.info("Invalidation peer {} is reachable again", address);
+        peer.reported = false;
+    }
+
+    private static void disconnect(Peer peer) {
+        if (peer.socket != null) {
+            try {
+                peer.socket.close();
+            } catch (IOException ignored) {
+                // Already broken
+            }
+        }
+        peer.socket = null;
+        peer.out = null;
+    }
+
+    @Override
+    protected synchronized void closeTransport() {
+        readers.shutdownNow();
+        peers.values().forEach(TcpInvalidationBus::disconnect);
+        try {
+            ServerSocket current = server;
+            if (current != null) current.close();
+            // Readers block in socket reads, which only closing the socket interrupts
+            for (Socket connection : accepted) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            log.debug("Could not close invalidation listener", e);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket connection = server.accept();
+                accepted.add(connection);
+                readers.submit(() -> readLoop(connection));
+            } catch (IOException e) {
+                if (!server.isClosed()) log.debug("Could not accept invalidation connection", e);
+            }
+        }
+    }
+
+    private void readLoop(Socket connection) {
+        try (connection; DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+            while (true) {
+                int length = in.readInt();
+                if (length < HEADER_BYTES || length > MAX_FRAME_BYTES) {
+                    log.debug("Dropping invalidation connection from {} after a bad frame", connection.getRemoteSocketAddress());
+                    return;
+                }
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                receive(ByteBuffer.wrap(frame));
+            }
+        } catch (IOException e) {
+            // Peer went away; it reconnects on its next frame
+        } finally {
+            accepted.remove(connection);
+        }
+    }
+}
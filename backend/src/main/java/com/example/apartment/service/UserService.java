@@ -2,6 +2,7 @@ package com.example.apartment.service;
 
 import com.example.apartment.model.User;
 import com.example.apartment.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,6 +14,9 @@ public class UserService {
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private MergePatcher patcher;
+
     public List<User> getAll() {
         return repository.findAll();
     }
@@ -27,13 +31,19 @@ public class UserService {
     }
 
     public User update(Long id, User user) {
-        if (!repository.existsById(id)) {
-            throw new RuntimeException("User with id " + id + " not found");
-        }
+        User existing = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User with id " + id + " not found"));
+        if (user.getVersion() == null) user.setVersion(existing.getVersion());
+        // Responses never carry the password, so a client echoing a user back leaves it unchanged
+        if (user.getPassword() == null || user.getPassword().isBlank()) user.setPassword(existing.getPassword());
         user.setId(id);
         return repository.save(user);
     }
 
+    public User patch(Long id, JsonNode patch, Long expectedVersion) {
+        return patcher.apply(User.class, id, patch, expectedVersion).entity();
+    }
+
     public void delete(Long id) {
         if (!repository.existsById(id)) {
             throw new RuntimeException("User with id " + id + " not found");
@@ -0,0 +1,10 @@
+-- Precomputed nearest neighbours per apartment (RecommendationService), read by /api/apartments/{id}/similar
+create table apartment_similarity (
+    id bigint not null auto_increment,
+    apartment_id bigint not null,
+    neighbour_rank integer not null,
+    similar_id bigint not null,
+    score double not null,
+    primary key (id),
+    constraint uk_apartment_similarity unique (apartment_id, neighbour_rank)
+);
@@ -0,0 +1,72 @@
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255),
+    email varchar(255),
+    password varchar(255),
+    role varchar(255),
+    primary key (id)
+);
+
+create table apartments (
+    id bigint not null auto_increment,
+    location varchar(255) not null,
+    price double not null,
+    size integer not null,
+    features varchar(255),
+    photo_url varchar(2048),
+    available bit,
+    primary key (id)
+);
+
+create table booking (
+    id bigint not null auto_increment,
+    user_id bigint,
+    apartment_id bigint,
+    booking_date datetime(6),
+    status varchar(255),
+    primary key (id),
+    constraint fk_booking_user foreign key (user_id) references users (id),
+    constraint fk_booking_apartment foreign key (apartment_id) references apartments (id)
+);
+
+create table payment (
+    id bigint not null auto_increment,
+    booking_id bigint,
+    amount double not null,
+    payment_date datetime(6),
+    status varchar(255),
+    primary key (id),
+    constraint fk_payment_booking foreign key (booking_id) references booking (id)
+);
+
+create table installment_plan (
+    id bigint not null auto_increment,
+    payment_id bigint,
+    installments integer not null,
+    monthly_amount double not null,
+    schedule varchar(255),
+    primary key (id),
+    constraint fk_installment_plan_payment foreign key (payment_id) references payment (id)
+);
+
+create table inventory (
+    id bigint not null auto_increment,
+    apartment_id bigint,
+    stock integer not null,
+    status varchar(255),
+    photo_url varchar(2048),
+    primary key (id),
+    constraint uk_inventory_apartment unique (apartment_id),
+    constraint fk_inventory_apartment foreign key (apartment_id) references apartments (id)
+);
+
+create table feedback (
+    id bigint not null auto_increment,
+    user_id bigint,
+    apartment_id bigint,
+    comment varchar(255),
+    rating integer not null,
+    primary key (id),
+    constraint fk_feedback_user foreign key (user_id) references users (id),
+    constraint fk_feedback_apartment foreign key (apartment_id) references apartments (id)
+);
@@ -0,0 +1,26 @@
+create table import_job (
+    id bigint not null auto_increment,
+    entity_type varchar(255),
+    format varchar(255),
+    file_name varchar(255),
+    source_path varchar(255),
+    status varchar(255),
+    rows_read bigint not null,
+    rows_imported bigint not null,
+    rows_failed bigint not null,
+    committed_rows bigint not null,
+    message varchar(1024),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+);
+
+create table import_row_error (
+    id bigint not null auto_increment,
+    job_id bigint,
+    row_index bigint not null,
+    message varchar(1024),
+    primary key (id)
+);
+
+create index idx_import_row_error_job on import_row_error (job_id, row_index);
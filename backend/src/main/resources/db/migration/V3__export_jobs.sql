@@ -0,0 +1,12 @@
+create table export_job (
+    id bigint not null auto_increment,
+    export_type varchar(255),
+    status varchar(255),
+    rows_written bigint not null,
+    bytes_written bigint not null,
+    file_path varchar(255),
+    message varchar(1024),
+    created_at datetime(6),
+    completed_at datetime(6),
+    primary key (id)
+);
@@ -0,0 +1,7 @@
+alter table users add column version bigint default 0 not null;
+alter table apartments add column version bigint default 0 not null;
+alter table booking add column version bigint default 0 not null;
+alter table payment add column version bigint default 0 not null;
+alter table installment_plan add column version bigint default 0 not null;
+alter table inventory add column version bigint default 0 not null;
+alter table feedback add column version bigint default 0 not null;
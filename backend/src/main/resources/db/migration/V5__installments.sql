@@ -0,0 +1,12 @@
+create table installment (
+    id bigint not null auto_increment,
+    plan_id bigint,
+    installment_number integer not null,
+    due_date date,
+    amount double not null,
+    status varchar(255),
+    primary key (id),
+    constraint fk_installment_plan foreign key (plan_id) references installment_plan (id)
+);
+
+create index idx_installment_plan on installment (plan_id, installment_number);
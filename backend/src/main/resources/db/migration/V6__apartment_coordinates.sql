@@ -0,0 +1,2 @@
+alter table apartments add column latitude double;
+alter table apartments add column longitude double;
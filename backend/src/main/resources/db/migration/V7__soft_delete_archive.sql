@@ -0,0 +1,44 @@
+alter table apartments add column deleted_at datetime(6);
+alter table booking add column deleted_at datetime(6);
+alter table payment add column deleted_at datetime(6);
+alter table feedback add column deleted_at datetime(6);
+
+create index idx_apartments_deleted on apartments (deleted_at);
+create index idx_booking_deleted on booking (deleted_at);
+create index idx_booking_date on booking (booking_date);
+create index idx_payment_deleted on payment (deleted_at);
+create index idx_payment_date on payment (payment_date);
+create index idx_feedback_deleted on feedback (deleted_at);
+
+create table booking_archive (
+    id bigint not null,
+    user_id bigint,
+    apartment_id bigint,
+    booking_date datetime(6),
+    status varchar(255),
+    deleted_at datetime(6),
+    archived_at datetime(6),
+    primary key (id)
+);
+
+create table payment_archive (
+    id bigint not null,
+    booking_id bigint,
+    amount double not null,
+    payment_date datetime(6),
+    status varchar(255),
+    deleted_at datetime(6),
+    archived_at datetime(6),
+    primary key (id)
+);
+
+create table feedback_archive (
+    id bigint not null,
+    user_id bigint,
+    apartment_id bigint,
+    comment varchar(255),
+    rating integer not null,
+    deleted_at datetime(6),
+    archived_at datetime(6),
+    primary key (id)
+);
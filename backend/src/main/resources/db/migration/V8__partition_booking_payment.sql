@@ -0,0 +1,47 @@
+-- Monthly RANGE COLUMNS partitioning of booking and payment by date. MySQL does not allow
+-- foreign keys on partitioned tables (either side), and every unique key must contain the
+-- partitioning column, so the foreign keys touching these tables are dropped (their indexes
+-- stay) and the primary keys become (id, date). Everything starts in pmax; the monthly
+-- partitions are split off by PartitionMaintenanceService.
+
+-- Constraint names are looked up rather than assumed: a schema created by Hibernate and then
+-- baselined (spring.flyway.baseline-on-migrate) has generated names instead of those in V1
+set @drop_fks = coalesce((select concat('alter table installment_plan ',
+        group_concat(concat('drop foreign key `', constraint_name, '`') separator ', '))
+    from information_schema.referential_constraints
+    where constraint_schema = database() and table_name = 'installment_plan' and referenced_table_name = 'payment'), 'do 0');
+prepare drop_fks from @drop_fks;
+execute drop_fks;
+deallocate prepare drop_fks;
+
+set @drop_fks = coalesce((select concat('alter table payment ',
+        group_concat(concat('drop foreign key `', constraint_name, '`') separator ', '))
+    from information_schema.referential_constraints
+    where constraint_schema = database() and table_name = 'payment'), 'do 0');
+prepare drop_fks from @drop_fks;
+execute drop_fks;
+deallocate prepare drop_fks;
+
+set @drop_fks = coalesce((select concat('alter table booking ',
+        group_concat(concat('drop foreign key `', constraint_name, '`') separator ', '))
+    from information_schema.referential_constraints
+    where constraint_schema = database() and table_name = 'booking'), 'do 0');
+prepare drop_fks from @drop_fks;
+execute drop_fks;
+deallocate prepare drop_fks;
+
+-- Undated rows sort into the oldest partition
+update booking set booking_date = '1970-01-01 00:00:00' where booking_date is null;
+update payment set payment_date = '1970-01-01 00:00:00' where payment_date is null;
+
+alter table booking modify booking_date datetime(6) not null;
+alter table booking drop primary key, add primary key (id, booking_date);
+alter table booking partition by range columns (booking_date) (
+    partition pmax values less than (maxvalue)
+);
+
+alter table payment modify payment_date datetime(6) not null;
+alter table payment drop primary key, add primary key (id, payment_date);
+alter table payment partition by range columns (payment_date) (
+    partition pmax values less than (maxvalue)
+);
@@ -0,0 +1,14 @@
+-- Inventory ledger (InventoryLedger): reserved units and the append-only movements behind stock changes
+alter table inventory add column reserved integer default 0 not null;
+
+create table stock_movement (
+    id bigint not null auto_increment,
+    inventory_id bigint not null,
+    type varchar(16) not null,
+    quantity integer not null,
+    reference varchar(255),
+    created_at datetime(6) not null,
+    primary key (id)
+);
+
+create index idx_stock_movement_inventory on stock_movement (inventory_id, id);
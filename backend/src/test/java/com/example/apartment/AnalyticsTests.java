@@ -0,0 +1,64 @@
+package com.example.apartment;
+
+import com.example.apartment.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Incremental column loads, including ids that commit below the highest one already read
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AnalyticsTests {
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lateCommitsBelowTheLastIdAreCounted() {
+        payment(10, 100.0);
+        analytics.markChanged();
+        assertEquals(100.0, analytics.report(null, null).getTotalRevenue());
+
+        payment(20, 50.0);
+        // Allocated before id 20 but committed after it
+        payment(15, 25.0);
+        analytics.markChanged();
+        assertEquals(175.0, analytics.report(null, null).getTotalRevenue());
+
+        // Rows re-read from the window are not counted twice
+        analytics.markChanged();
+        assertEquals(175.0, analytics.report(null, null).getTotalRevenue());
+    }
+
+    @Test
+    void reportCacheIsBounded() {
+        YearMonth start = YearMonth.of(2020, 1);
+        for (int i = 0; i < 200; i++) {
+            analytics.report(start, start.plusMonths(i));
+        }
+        Map<?, ?> reports = (Map<?, ?>) ReflectionTestUtils.getField(analytics, "reports");
+        assertTrue(reports.size() <= 64);
+    }
+
+    private void payment(long id, double amount) {
+        jdbcTemplate.update("insert into payment (id, amount, payment_date, status, version) values (?, ?, ?, 'COMPLETED', 0)",
+                id, amount, LocalDateTime.of(2025, 6, 1, 12, 0));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.ArchivalStats;
+import com.example.apartment.model.AuditEvent;
+import com.example.apartment.model.CheckoutRequest;
+import com.example.apartment.model.CheckoutResult;
+import com.example.apartment.model.Payment;
+import com.example.apartment.model.User;
+import com.example.apartment.repository.PaymentRepository;
+import com.example.apartment.repository.UserRepository;
+import com.example.apartment.service.AnalyticsService;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.ArchivalService;
+import com.example.apartment.service.AuditJournal;
+import com.example.apartment.service.CheckoutService;
+import com.example.apartment.service.PaymentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Soft-delete filters, chunked archival and analytics over archived payments
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archival;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "archive.interval-seconds=0"
+})
+class ArchivalTests {
+
+    @Autowired
+    private ArchivalService archival;
+
+    @Autowired
+    private PaymentService payments;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Autowired
+    private CheckoutService checkout;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private AuditJournal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The startup pass runs on the worker; tests that call runOnce must not overlap it
+    @BeforeEach
+    void awaitStartupPass() throws InterruptedException {
+        await(() -> archival.getLastRun() != null);
+    }
+
+    @Test
+    void deletedPaymentsAreHiddenThenArchived() throws InterruptedException {
+        Payment payment = payments.create(new Payment(null, null, 20.0, LocalDateTime.now(), "COMPLETED", null, null));
+        payments.delete(payment.getId());
+        assertTrue(paymentRepository.findById(payment.getId()).isEmpty());
+        assertTrue(paymentRepository.findAll().stream().noneMatch(p -> p.getId().equals(payment.getId())));
+
+        await(() -> count("payment_archive where id = " + payment.getId()) == 1);
+        assertEquals(0, count("payment where id = " + payment.getId()));
+    }
+
+    @Test
+    void deletedApartmentWithAnInstallmentPlanIsArchivedThroughout() throws InterruptedException {
+        Instant started = Instant.now();
+        Apartment apartment = apartments.create(new Apartment(null, "Jaffna", 60000.0, 650, null, null, true,
+                null, null, null, null));
+        CheckoutResult result = checkout.checkout(null, installmentCheckout(apartment.getId())).value();
+        long planId = result.getInstallmentPlan().getId();
+        long paymentId = result.getPayment().getId();
+        long bookingId = result.getBooking().getId();
+
+        apartments.delete(apartment.getId());
+
+        await(() -> count("apartments where id = " + apartment.getId()) == 0);
+        assertEquals(0, count("installment_plan where id = " + planId));
+        assertEquals(0, count("installment where plan_id = " + planId));
+        assertEquals(1, count("payment_archive where id = " + paymentId));
+        assertEquals(1, count("booking_archive where id = " + bookingId));
+        assertEquals(0, count("payment where id = " + paymentId));
+
+        // The cascade ran as plain SQL and is journaled by the system actor
+        await(() -> systemActions("Payment", paymentId, started).equals(List.of("ARCHIVE", "DELETE"))
+                && systemActions("Booking", bookingId, started).equals(List.of("ARCHIVE", "DELETE"))
+                && systemActions("InstallmentPlan", planId, started).equals(List.of("DELETE")));
+    }
+
+    // Newest first
+    private List<String> systemActions(String entity, long id, Instant from) {
+        return journal.query(entity, id, from, null, 10).stream()
+                .filter(event -> "system".equals(event.getActor()))
+                .map(AuditEvent::getAction)
+                .toList();
+    }
+
+    @Test
+    void retentionArchivesInChunksAndAnalyticsStillCountsIt() {
+        LocalDateTime old = LocalDateTime.now().minusDays(400);
+        for (int i = 0; i < 5; i++) insert(1000.0, old, "COMPLETED", LocalDateTime.now());
+        for (int i = 0; i < 3; i++) insert(10.0, old, "COMPLETED", null);
+        insert(5.0, old, "PENDING", null);
+        insert(7.0, LocalDateTime.now(), "COMPLETED", null);
+        analytics.markRewritten();
+        assertEquals(37.0, analytics.report(null, null).getTotalRevenue());
+
+        ReflectionTestUtils.setField(archival, "chunkSize", 2);
+        ReflectionTestUtils.setField(archival, "retentionDays", 30);
+        try {
+            ArchivalStats stats = ReflectionTestUtils.invokeMethod(archival, "runOnce");
+            assertEquals(8, stats.getArchivedPayments());
+        } finally {
+            ReflectionTestUtils.setField(archival, "retentionDays", 0);
+        }
+        assertEquals(2, count("payment"));
+
+        analytics.markRewritten();
+        assertEquals(37.0, analytics.report(null, null).getTotalRevenue());
+    }
+
+    private CheckoutRequest installmentCheckout(Long apartmentId) {
+        User user = new User();
+        user.setUsername("archived-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("secret");
+        user.setRole("USER");
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(users.save(user).getId());
+        request.setApartmentId(apartmentId);
+        request.setAmount(60000.0);
+        request.setInstallments(3);
+        return request;
+    }
+
+    private void insert(double amount, LocalDateTime paymentDate, String status, LocalDateTime deletedAt) {
+        jdbcTemplate.update("insert into payment (amount, payment_date, status, deleted_at, version) values (?, ?, ?, ?, 0)",
+                amount, paymentDate, status, deletedAt);
+    }
+
+    private long count(String from) {
+        return jdbcTemplate.queryForObject("select count(*) from " + from, Long.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition never held");
+            Thread.sleep(50);
+        }
+    }
+}
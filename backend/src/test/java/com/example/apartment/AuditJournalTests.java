@@ -0,0 +1,146 @@
+package com.example.apartment;
+
+import com.example.apartment.model.AuditEvent;
+import com.example.apartment.service.AuditJournal;
+import com.example.apartment.service.AuditJournal.OverflowPolicy;
+import com.example.apartment.service.AuditRingBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ring buffer hand-off, segment/index round trip and the drop policy, without Spring
+class AuditJournalTests {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsSurviveRestartAndAreFoundById() {
+        AuditJournal journal = journal(1024, OverflowPolicy.BLOCK);
+        journal.start();
+        journal.append(event("Payment", 1, "status", "PENDING", "COMPLETED"));
+        journal.append(event("Booking", 1, "status", "PENDING", "CONFIRMED"));
+        journal.append(event("Payment", 2, "amount", 100.0, 120.0));
+        journal.close();
+
+        AuditJournal reopened = journal(1024, OverflowPolicy.BLOCK);
+        reopened.start();
+        reopened.append(event("Payment", 1, "status", "COMPLETED", "REFUNDED"));
+        reopened.close();
+
+        List<AuditEvent> history = reopened.query("payment", 1L, null, null, 10);
+        assertEquals(2, history.size());
+        assertEquals(List.of("COMPLETED", "REFUNDED"), history.get(0).getChanges().get("status"));
+        assertEquals(4, history.get(0).getSequence());
+        assertEquals(1, history.get(1).getSequence());
+        assertEquals(1, reopened.query("Booking", null, null, null, 10).size());
+        assertTrue(reopened.query("Payment", null, Instant.now().plusSeconds(60), null, 10).isEmpty());
+        assertEquals(2, reopened.getStats().getSegments());
+    }
+
+    @Test
+    void overflowIsCountedAndJournaled() {
+        AuditJournal journal = journal(2, OverflowPolicy.DROP);
+        for (int i = 0; i < 5; i++) {
+            journal.append(event("Payment", i, "status", null, "PENDING"));
+        }
+        assertEquals(2, journal.getStats().getAccepted());
+        assertEquals(3, journal.getStats().getDropped());
+
+        journal.start();
+        journal.close();
+        List<AuditEvent> all = journal.query(null, null, null, null, 10);
+        assertEquals(3, all.size());
+        assertEquals("DROPPED", all.get(0).getAction());
+        assertEquals(3L, all.get(0).getDropped());
+    }
+
+    @Test
+    void idleWriterWakesForNewEventsAndCapsBlocks() throws InterruptedException {
+        // Blocks large enough in bytes that only the event cap closes them
+        AuditJournal journal = new AuditJournal(directory, mapper, 4096, OverflowPolicy.BLOCK, Duration.ofMillis(10),
+                1 << 24, 1 << 24, Duration.ofMillis(50), Duration.ZERO);
+        journal.start();
+        try {
+            // Long enough for the writer to park on the empty buffer
+            Thread.sleep(200);
+            int events = AuditJournal.MAX_BLOCK_EVENTS * 3;
+            for (int i = 0; i < events; i++) {
+                journal.append(event("Payment", i, "status", null, "PENDING"));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (journal.getStats().getWritten() < events) {
+                assertTrue(System.nanoTime() < deadline, "only wrote " + journal.getStats().getWritten());
+                Thread.sleep(20);
+            }
+            assertTrue(journal.getStats().getBlocks() >= 3);
+            assertEquals(1, journal.query("Payment", (long) events - 1, null, null, 10).size());
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    void ringBufferDeliversEveryElementOnceInProducerOrder() throws Exception {
+        AuditRingBuffer<long[]> ring = new AuditRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        long[] next = new long[producers];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (int received = 0; received < producers * perProducer; ) {
+            long[] element = ring.poll();
+            if (element == null) {
+                assertTrue(System.nanoTime() < deadline, "only received " + received);
+                continue;
+            }
+            assertEquals(next[(int) element[0]]++, element[1]);
+            received++;
+        }
+        pool.shutdown();
+        assertNull(ring.poll());
+    }
+
+    private AuditJournal journal(int capacity, OverflowPolicy policy) {
+        return new AuditJournal(directory, mapper, capacity, policy, Duration.ofMillis(10), 1 << 20, 1 << 12,
+                Duration.ofMillis(50), Duration.ZERO);
+    }
+
+    private static AuditEvent event(String entity, long id, String field, Object before, Object after) {
+        AuditEvent event = new AuditEvent();
+        event.setTime(Instant.now());
+        event.setAction("UPDATE");
+        event.setEntity(entity);
+        event.setEntityId(id);
+        event.setActor("test");
+        List<Object> change = new ArrayList<>();
+        change.add(before);
+        change.add(after);
+        event.setChanges(Map.of(field, change));
+        return event;
+    }
+}
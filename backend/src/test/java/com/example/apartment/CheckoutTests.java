@@ -0,0 +1,84 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.CheckoutRequest;
+import com.example.apartment.model.CheckoutResult;
+import com.example.apartment.model.Installment;
+import com.example.apartment.model.User;
+import com.example.apartment.repository.UserRepository;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.CheckoutService;
+import com.example.apartment.service.IdempotencyCache;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Purchase with generated installments and replays of the same Idempotency-Key
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkout;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class CheckoutTests {
+
+    @Autowired
+    private CheckoutService checkout;
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Autowired
+    private UserRepository users;
+
+    @Test
+    void installmentsComeBackWithIdsAndRetriesAreReplayed() {
+        CheckoutRequest request = request(apartments.create(apartment()).getId(), 3);
+        IdempotencyCache.Outcome<CheckoutResult> first = checkout.checkout("order-1", request);
+        assertFalse(first.replayed());
+        List<Installment> installments = first.value().getInstallments();
+        assertEquals(3, installments.size());
+        assertTrue(installments.stream().allMatch(installment -> installment.getId() != null));
+        assertEquals(List.of(1, 2, 3), installments.stream().map(Installment::getInstallmentNumber).toList());
+        assertEquals(90000.0, installments.stream().mapToDouble(Installment::getAmount).sum(), 0.001);
+
+        IdempotencyCache.Outcome<CheckoutResult> retry = checkout.checkout("order-1", request);
+        assertTrue(retry.replayed());
+        assertEquals(first.value().getBooking().getId(), retry.value().getBooking().getId());
+
+        CheckoutRequest other = request(request.getApartmentId(), 6);
+        assertThrows(IllegalArgumentException.class, () -> checkout.checkout("order-1", other));
+        // Sold by the first checkout
+        assertThrows(IllegalStateException.class, () -> checkout.checkout("order-2", other));
+    }
+
+    @Test
+    void unknownApartmentsAreNotFound() {
+        assertThrows(EntityNotFoundException.class, () -> checkout.checkout(null, request(-1L, 0)));
+    }
+
+    private CheckoutRequest request(Long apartmentId, int installments) {
+        User user = new User();
+        user.setUsername("buyer-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("secret");
+        user.setRole("USER");
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(users.save(user).getId());
+        request.setApartmentId(apartmentId);
+        request.setAmount(150000.0);
+        request.setInstallments(installments);
+        return request;
+    }
+
+    private static Apartment apartment() {
+        return new Apartment(null, "Negombo", 150000.0, 900, "Beach", null, true, null, null, null, null);
+    }
+}
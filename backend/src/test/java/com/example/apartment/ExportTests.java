@@ -0,0 +1,112 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.CheckoutRequest;
+import com.example.apartment.model.CheckoutResult;
+import com.example.apartment.model.ExportJob;
+import com.example.apartment.model.User;
+import com.example.apartment.repository.UserRepository;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.CheckoutService;
+import com.example.apartment.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Payment and booking CSV exports run to completion on the embedded database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exports;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ExportTests {
+
+    @TempDir
+    static Path spoolDir;
+
+    @Autowired
+    private ExportService exports;
+
+    @Autowired
+    private CheckoutService checkout;
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Autowired
+    private UserRepository users;
+
+    @DynamicPropertySource
+    static void spoolDir(DynamicPropertyRegistry registry) {
+        registry.add("export.spool-dir", spoolDir::toString);
+    }
+
+    @Test
+    void bookingsAndPaymentsAreWrittenAsCsv() throws Exception {
+        Apartment apartment = apartments.create(new Apartment(null, "Matara, South", 80000.0, 700, "Sea view", null,
+                true, null, null, null, null));
+        CheckoutResult result = checkout.checkout(null, request(apartment.getId())).value();
+        String username = result.getBooking().getUser().getUsername();
+
+        List<String> bookings = export(ExportService.BOOKINGS);
+        assertEquals("bookingId,bookingDate,status,apartmentId,location,price,userId,username,email", bookings.get(0));
+        String booking = line(bookings, result.getBooking().getId());
+        assertTrue(booking.contains(",\"Matara, South\",80000.0,"), booking);
+        assertTrue(booking.contains("," + username + "," + username + "@example.com"), booking);
+
+        List<String> payments = export(ExportService.PAYMENTS);
+        assertTrue(payments.get(0).startsWith("paymentId,amount,"));
+        String payment = line(payments, result.getPayment().getId());
+        assertTrue(payment.startsWith(result.getPayment().getId() + ",80000.0,"), payment);
+        assertTrue(payment.contains("," + result.getBooking().getId() + ","), payment);
+    }
+
+    // Waits for the job and returns the lines of its file
+    private List<String> export(String type) throws InterruptedException, IOException {
+        Long id = exports.submit(type).getId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ExportJob job = exports.getById(id);
+        while (!"COMPLETED".equals(job.getStatus())) {
+            assertNotEquals("FAILED", job.getStatus(), job.getMessage());
+            assertTrue(System.nanoTime() < deadline, "export " + id + " is still " + job.getStatus());
+            Thread.sleep(50);
+            job = exports.getById(id);
+        }
+        List<String> lines = Files.readAllLines(exports.getFile(id));
+        assertEquals(job.getRowsWritten() + 1, lines.size());
+        return lines;
+    }
+
+    private static String line(List<String> lines, Long id) {
+        return lines.stream().filter(line -> line.startsWith(id + ",")).findFirst()
+                .orElseThrow(() -> new AssertionError("no row for " + id + " in " + lines));
+    }
+
+    private CheckoutRequest request(Long apartmentId) {
+        User user = new User();
+        user.setUsername("exporter-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("secret");
+        user.setRole("USER");
+        CheckoutRequest request = new CheckoutRequest();
+        request.setUserId(users.save(user).getId());
+        request.setApartmentId(apartmentId);
+        request.setAmount(80000.0);
+        request.setInstallments(0);
+        return request;
+    }
+}
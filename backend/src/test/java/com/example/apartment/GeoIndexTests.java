@@ -0,0 +1,92 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.NearbyApartment;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.GeoIndexService;
+import com.example.apartment.service.GeoIndexService.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Distances, cell edges, antimeridian and polar windows, and writes made while the index is rebuilt
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:geo;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class GeoIndexTests {
+
+    private static final Filter ANY = new Filter(null, null, null, null, false, 10);
+
+    @Autowired
+    private GeoIndexService geoIndex;
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Test
+    void haversineDistances() {
+        assertEquals(111.195, GeoIndexService.haversineKm(0, 0, 0, 1), 0.001);
+        assertEquals(22.239, GeoIndexService.haversineKm(0, 179.9, 0, -179.9), 0.001);
+        assertEquals(0.0, GeoIndexService.haversineKm(90, 0, 90, 120), 1e-9);
+        assertEquals(20015.115, GeoIndexService.haversineKm(0, 0, 0, 180), 0.001);
+    }
+
+    @Test
+    void searchesCoverCellEdgesTheAntimeridianAndPoles() {
+        // Either side of the 7.05 and 80.00 cell boundaries
+        long south = create(7.0499, 79.9999);
+        long north = create(7.0501, 80.0001);
+        assertEquals(Set.of(south, north), ids(geoIndex.findWithinRadius(7.05, 80.0, 1, ANY)));
+
+        long east = create(-16.5, 179.99);
+        long west = create(-16.5, -179.99);
+        assertEquals(Set.of(east, west), ids(geoIndex.findWithinRadius(-16.5, 179.999, 5, ANY)));
+        assertEquals(Set.of(east, west), ids(geoIndex.findWithinBox(-17, 179.9, -16, -179.9, ANY)));
+        assertEquals(west, geoIndex.findWithinRadius(-16.5, -179.99, 1, ANY).get(0).getApartment().getId());
+
+        long polarA = create(89.99, 0);
+        long polarB = create(89.99, 180);
+        assertEquals(Set.of(polarA, polarB), ids(geoIndex.findWithinRadius(89.99, 90, 5, ANY)));
+    }
+
+    @Test
+    void pointsJustInsideTheRadiusDueNorthAreFound() {
+        // 99.9% of 10 km north of (10, 20) on the haversine sphere
+        double lat = 10 + 9.99 / (6371.0088 * Math.PI / 180);
+        long inside = create(lat, 20);
+        assertTrue(GeoIndexService.haversineKm(10, 20, lat, 20) < 10);
+        assertEquals(Set.of(inside), ids(geoIndex.findWithinRadius(10, 20, 10, ANY)));
+    }
+
+    @Test
+    void writesDuringARebuildAreReplayed() {
+        Apartment apartment = apartments.create(new Apartment(null, "Trincomalee", 60000.0, 650, null, null, true,
+                null, null, null, null));
+        geoIndex.invalidate();
+        // Indexed after the rebuild read the row without coordinates
+        apartment.setLatitude(8.57);
+        apartment.setLongitude(81.23);
+        geoIndex.upsert(apartment);
+        assertEquals(Set.of(apartment.getId()), ids(geoIndex.findWithinRadius(8.57, 81.23, 1, ANY)));
+    }
+
+    private long create(double lat, double lon) {
+        return apartments.create(new Apartment(null, "Grid " + lat + "," + lon, 50000.0, 600, null, null, true,
+                lat, lon, null, null)).getId();
+    }
+
+    private static Set<Long> ids(List<NearbyApartment> nearby) {
+        return nearby.stream().map(n -> n.getApartment().getId()).collect(Collectors.toSet());
+    }
+}
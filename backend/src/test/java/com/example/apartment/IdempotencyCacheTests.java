@@ -0,0 +1,61 @@
+package com.example.apartment;
+
+import com.example.apartment.service.IdempotencyCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Waiting on, evicting and forgetting attempts by idempotency key, without Spring
+class IdempotencyCacheTests {
+
+    @Test
+    void attemptsInFlightAreWaitedOnAndNeverEvicted() throws InterruptedException {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(1, Duration.ofHours(1), Duration.ofMillis(100));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> cache.execute("a", "body", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }));
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Over capacity while "a" is still running
+        assertEquals("b", cache.execute("b", "body", () -> "b").value());
+        assertThrows(IllegalStateException.class, () -> cache.execute("a", "body", () -> {
+            runs.incrementAndGet();
+            return "again";
+        }));
+        release.countDown();
+        first.join(5000);
+
+        IdempotencyCache.Outcome<String> replay = cache.execute("a", "body", () -> "again");
+        assertTrue(replay.replayed());
+        assertEquals("done", replay.value());
+        assertEquals(1, runs.get());
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("a", "other", () -> "other"));
+    }
+
+    @Test
+    void failedAttemptsCanBeRetried() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(10, Duration.ofHours(1), Duration.ofSeconds(1));
+        assertThrows(IllegalStateException.class, () -> cache.execute("a", "body", () -> {
+            throw new IllegalStateException("sold");
+        }));
+        IdempotencyCache.Outcome<String> retry = cache.execute("a", "body", () -> "bought");
+        assertFalse(retry.replayed());
+        assertEquals("bought", retry.value());
+    }
+}
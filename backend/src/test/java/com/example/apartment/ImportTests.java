@@ -0,0 +1,128 @@
+package com.example.apartment;
+
+import com.example.apartment.model.ImportJob;
+import com.example.apartment.model.ImportRowError;
+import com.example.apartment.repository.ImportJobRepository;
+import com.example.apartment.service.ImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Row validation, upload checks and resume rules of the bulk import
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imports;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "import.chunk-size=2"
+})
+class ImportTests {
+
+    @TempDir
+    static Path spoolDir;
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ImportService imports;
+
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @DynamicPropertySource
+    static void spoolDir(DynamicPropertyRegistry registry) {
+        registry.add("import.spool-dir", spoolDir::toString);
+    }
+
+    @Test
+    void badRowsAreRecordedAndGoodRowsImported() throws IOException {
+        Path file = directory.resolve("apartments.csv");
+        Files.writeString(file, """
+                location,price,size,available
+                Kandy,45000,650,yes
+                Galle,-1,500,yes
+                Matara,38000,abc,no
+                Jaffna,41000,720,
+                """);
+        ImportJob job = imports.importFile("apartments", null, file);
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(4, job.getRowsRead());
+        assertEquals(2, job.getRowsImported());
+        List<ImportRowError> errors = imports.getErrors(job.getId());
+        assertEquals(List.of(2L, 3L), errors.stream().map(ImportRowError::getRowIndex).toList());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void unsupportedTypesAreRejectedBeforeSpooling() throws IOException {
+        byte[] content = "location,price,size\nKandy,45000,650\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class,
+                () -> imports.submit("bookings", null, "bookings.csv", new ByteArrayInputStream(content)));
+        assertThrows(IllegalArgumentException.class,
+                () -> imports.submit("apartments", "xml", "apartments.xml", new ByteArrayInputStream(content)));
+        try (Stream<Path> spooled = Files.list(spoolDir)) {
+            assertEquals(0, spooled.count());
+        }
+    }
+
+    @Test
+    void onlyStoppedJobsResume() {
+        ImportJob job = imports.importFile("apartments", "csv", directory.resolve("missing.csv"));
+        assertEquals("FAILED", job.getStatus());
+        assertNotNull(job.getMessage());
+
+        assertThrows(IllegalStateException.class, () -> imports.resume(completedJob().getId()));
+
+        job.setStatus("PENDING");
+        jobRepository.save(job);
+        assertThrows(IllegalStateException.class, () -> imports.resume(job.getId()));
+
+        job.setStatus("INTERRUPTED");
+        jobRepository.save(job);
+        assertEquals("PENDING", imports.resume(job.getId()).getStatus());
+        assertThrows(RuntimeException.class, () -> imports.resume(-1L));
+    }
+
+    @Test
+    void commandLineResumeHasTheSameGuard() {
+        assertThrows(IllegalStateException.class, () -> imports.resumeNow(completedJob().getId()));
+
+        ImportJob job = imports.importFile("apartments", "csv", directory.resolve("missing.csv"));
+        job.setStatus("RUNNING");
+        jobRepository.save(job);
+        assertThrows(IllegalStateException.class, () -> imports.resumeNow(job.getId()));
+
+        job.setStatus("FAILED");
+        jobRepository.save(job);
+        // Runs again and fails again on the missing file, from the stored counters
+        ImportJob resumed = imports.resumeNow(job.getId());
+        assertEquals("FAILED", resumed.getStatus());
+        assertEquals(0, resumed.getCommittedRows());
+    }
+
+    private ImportJob completedJob() {
+        try {
+            Path file = directory.resolve("empty.ndjson");
+            Files.writeString(file, "");
+            return imports.importFile("inventories", null, file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
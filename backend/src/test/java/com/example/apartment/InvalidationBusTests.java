@@ -0,0 +1,126 @@
+package com.example.apartment;
+
+import com.example.apartment.service.BatchingInvalidationBus;
+import com.example.apartment.service.InvalidationBus;
+import com.example.apartment.service.InvalidationBus.Invalidation;
+import com.example.apartment.service.InvalidationBus.Kind;
+import com.example.apartment.service.LocalInvalidationBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Batching, filtering and loss detection of the invalidation bus, without Spring or sockets
+class InvalidationBusTests {
+
+    // Long enough that everything published in a test lands in one batch
+    private static final Duration WINDOW = Duration.ofMillis(50);
+    private static final Duration NO_HEARTBEAT = Duration.ofMinutes(10);
+
+    private final List<BatchingInvalidationBus> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(BatchingInvalidationBus::close);
+    }
+
+    @Test
+    void deliversOneDeduplicatedBatchToOtherNodes() throws InterruptedException {
+        LocalInvalidationBus writer = start(new LocalInvalidationBus("test", WINDOW, NO_HEARTBEAT));
+        BlockingQueue<List<Invalidation>> peer = listen(start(new LocalInvalidationBus("test", WINDOW, NO_HEARTBEAT)));
+        BlockingQueue<List<Invalidation>> self = listen(writer);
+
+        writer.publish(Kind.APARTMENT, 1L);
+        writer.publish(Kind.APARTMENT, 1L);
+        writer.publish(Kind.APARTMENT, 2L);
+        writer.publish(Kind.INVENTORY, 1L);
+        writer.publish(Kind.INVENTORY, null);
+
+        assertEquals(List.of(new Invalidation(Kind.APARTMENT, 1), new Invalidation(Kind.APARTMENT, 2),
+                new Invalidation(Kind.INVENTORY, 1)), peer.poll(5, TimeUnit.SECONDS));
+        assertNull(self.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void wholeKindReplacesSingleIdsAndOtherClustersAreIgnored() throws InterruptedException {
+        LocalInvalidationBus writer = start(new LocalInvalidationBus("test", WINDOW, NO_HEARTBEAT));
+        BlockingQueue<List<Invalidation>> peer = listen(start(new LocalInvalidationBus("test", WINDOW, NO_HEARTBEAT)));
+        BlockingQueue<List<Invalidation>> stranger = listen(start(new LocalInvalidationBus("other", WINDOW, NO_HEARTBEAT)));
+
+        writer.publish(Kind.APARTMENT, 3L);
+        writer.publishAll(Kind.APARTMENT);
+        writer.publish(Kind.INVENTORY, 3L);
+
+        assertEquals(List.of(new Invalidation(Kind.APARTMENT, InvalidationBus.ALL), new Invalidation(Kind.INVENTORY, 3)),
+                peer.poll(5, TimeUnit.SECONDS));
+        assertNull(stranger.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void lostFrameInvalidatesEverything() throws InterruptedException {
+        LossyBus writer = start(new LossyBus());
+        LossyBus reader = start(new LossyBus());
+        writer.peer = reader;
+        BlockingQueue<List<Invalidation>> received = listen(reader);
+
+        writer.publish(Kind.APARTMENT, 1L);
+        assertEquals(List.of(new Invalidation(Kind.APARTMENT, 1)), received.poll(5, TimeUnit.SECONDS));
+
+        writer.dropNext = true;
+        writer.publish(Kind.APARTMENT, 2L);
+        assertNotNull(writer.dropped.poll(5, TimeUnit.SECONDS));
+
+        writer.publish(Kind.INVENTORY, 3L);
+        assertEquals(List.of(new Invalidation(Kind.APARTMENT, InvalidationBus.ALL),
+                new Invalidation(Kind.INVENTORY, InvalidationBus.ALL)), received.poll(5, TimeUnit.SECONDS));
+    }
+
+    private <T extends BatchingInvalidationBus> T start(T bus) {
+        bus.start();
+        started.add(bus);
+        return bus;
+    }
+
+    private static BlockingQueue<List<Invalidation>> listen(InvalidationBus bus) {
+        BlockingQueue<List<Invalidation>> batches = new LinkedBlockingQueue<>();
+        bus.subscribe(batches::add);
+        return batches;
+    }
+
+    // Point-to-point transport that can lose a frame on request
+    private static final class LossyBus extends BatchingInvalidationBus {
+        final BlockingQueue<byte[]> dropped = new LinkedBlockingQueue<>();
+        volatile LossyBus peer;
+        volatile boolean dropNext;
+
+        LossyBus() {
+            super("lossy", WINDOW, NO_HEARTBEAT);
+        }
+
+        @Override
+        protected void openTransport() {
+        }
+
+        @Override
+        protected void send(byte[] frame) {
+            if (dropNext) {
+                dropNext = false;
+                dropped.add(frame);
+            } else if (peer != null) {
+                peer.receive(ByteBuffer.wrap(frame));
+            }
+        }
+
+        @Override
+        protected void closeTransport() {
+        }
+    }
+}
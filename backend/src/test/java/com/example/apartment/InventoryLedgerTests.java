@@ -0,0 +1,115 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.Inventory;
+import com.example.apartment.model.StockLevel;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.InventoryLedger;
+import com.example.apartment.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stock adjustments against the in-memory counters and their batched flush to the inventory row
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "inventory.ledger.flush-interval-millis=50"
+})
+class InventoryLedgerTests {
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ApartmentService apartmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        Apartment apartment = apartmentService.create(
+                new Apartment(null, "Kandy", 90000.0, 800, "Garden", null, true, null, null, null, null));
+        inventory = inventoryService.create(new Inventory(null, apartment, 5, 0, "AVAILABLE", null, null));
+    }
+
+    @Test
+    void movementsAreCheckedAndFlushedToTheRow() throws InterruptedException {
+        assertEquals(new StockLevel(inventory.getId(), 2, 3), ledger.adjust(inventory.getId(), "reserve", 3, "booking-1"));
+        assertThrows(IllegalStateException.class, () -> ledger.adjust(inventory.getId(), "RESERVE", 3, "booking-2"));
+        assertEquals(new StockLevel(inventory.getId(), 2, 1), ledger.adjust(inventory.getId(), "SELL", 2, "booking-1"));
+        assertEquals(new StockLevel(inventory.getId(), 3, 0), ledger.adjust(inventory.getId(), "RELEASE", 1, "booking-1"));
+        assertThrows(IllegalStateException.class, () -> ledger.adjust(inventory.getId(), "SELL", 1, null));
+        assertThrows(IllegalArgumentException.class, () -> ledger.adjust(inventory.getId(), "STEAL", 1, null));
+        assertThrows(IllegalArgumentException.class, () -> ledger.adjust(inventory.getId(), "RESTOCK", 0, null));
+
+        awaitRow(3, 0);
+        // Only the accepted reserve, sell and release are journaled
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "select count(*) from stock_movement where inventory_id = ?", Integer.class, inventory.getId()));
+        assertEquals(3, inventoryService.getById(inventory.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        ledger.adjust(inventory.getId(), "RESTOCK", 495, null);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                int reserved = 0;
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        ledger.adjust(inventory.getId(), "RESERVE", 1, null);
+                        reserved++;
+                    } catch (IllegalStateException e) {
+                        // Sold out
+                    }
+                }
+                return reserved;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(500, total);
+        assertEquals(new StockLevel(inventory.getId(), 0, 500), ledger.getLevel(inventory.getId()));
+        awaitRow(0, 500);
+    }
+
+    private void awaitRow(int stock, int reserved) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int[] row = null;
+        while (System.nanoTime() < deadline) {
+            row = jdbcTemplate.queryForObject("select stock, reserved from inventory where id = ?",
+                    (rs, n) -> new int[]{rs.getInt("stock"), rs.getInt("reserved")}, inventory.getId());
+            if (row[0] == stock && row[1] == reserved) return;
+            Thread.sleep(20);
+        }
+        fail("inventory row is stock " + row[0] + ", reserved " + row[1]);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.repository.ApartmentRepository;
+import com.example.apartment.repository.FeedbackRepository;
+import com.example.apartment.repository.InventoryRepository;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.ListingCardService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Snapshot patching, write-back to the cache file and reconciliation of a warmed snapshot
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cards;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "listing.cache.persist-interval-seconds=1"
+})
+class ListingCardTests {
+
+    private static Path cacheFile;
+
+    @Autowired
+    private ListingCardService listingCards;
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void cacheFile(DynamicPropertyRegistry registry) throws IOException {
+        cacheFile = Files.createTempFile("listing-cards", ".bin");
+        Files.delete(cacheFile);
+        registry.add("listing.cache.file", cacheFile::toString);
+    }
+
+    @AfterAll
+    static void deleteCacheFile() throws IOException {
+        Files.deleteIfExists(cacheFile);
+    }
+
+    @Test
+    void patchedCardsAreWrittenBackAndWarmedSnapshotsReconciled() throws InterruptedException {
+        Apartment apartment = apartments.create(apartment("Nuwara Eliya", 70000.0));
+        assertEquals(70000.0, listingCards.getById(apartment.getId()).getPrice());
+
+        apartment.setPrice(65000.0);
+        apartments.update(apartment.getId(), apartment);
+        assertEquals(65000.0, listingCards.getById(apartment.getId()).getPrice());
+        await(() -> {
+            ListingCardService warmed = warmed();
+            return warmed.find(apartment.getId()).map(card -> card.getPrice() == 65000.0).orElse(false);
+        });
+
+        // Written while the "restarted" node was down
+        jdbcTemplate.update("insert into apartments (location, price, size, available, version) values (?, ?, ?, ?, 0)",
+                "Ella", 55000.0, 600, true);
+        Long missed = jdbcTemplate.queryForObject("select id from apartments where location = 'Ella'", Long.class);
+        ListingCardService restarted = warmed();
+        assertTrue(restarted.find(missed).isEmpty());
+        ReflectionTestUtils.invokeMethod(restarted, "start");
+        await(() -> restarted.find(missed).isPresent());
+        ReflectionTestUtils.invokeMethod(restarted, "persistOnShutdown");
+    }
+
+    // A second service reading the cache file, as a restarted node would
+    private ListingCardService warmed() {
+        ListingCardService warmed = new ListingCardService();
+        ReflectionTestUtils.setField(warmed, "apartmentRepository", apartmentRepository);
+        ReflectionTestUtils.setField(warmed, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(warmed, "feedbackRepository", feedbackRepository);
+        ReflectionTestUtils.setField(warmed, "cacheFile", cacheFile.toString());
+        ReflectionTestUtils.invokeMethod(warmed, "warmFromFile");
+        return warmed;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition never held");
+            Thread.sleep(50);
+        }
+    }
+
+    private static Apartment apartment(String location, double price) {
+        return new Apartment(null, location, price, 700, "View", null, true, null, null, null, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.RecommendationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts JDBC statements for PUT-style update versus merge patch on an embedded database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patch;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class MergePatchRoundTripTests {
+
+    @Autowired
+    private ApartmentService service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Its worker reads apartments and ratings after each write, inside the global statistics window
+    @MockitoBean
+    private RecommendationService recommendations;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Statistics statistics;
+    private Apartment apartment;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        apartment = service.create(new Apartment(null, "Colombo 07", 250000.0, 1200, "Pool", null, true, null, null, null, null));
+        statistics.clear();
+    }
+
+    @Test
+    void patchUsesFewerStatementsThanPut() throws Exception {
+        Apartment replacement = new Apartment(null, "Colombo 07", 240000.0, 1200, "Pool", null, true, null, null, null, null);
+        service.update(apartment.getId(), replacement);
+        long putStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Apartment patched = service.patch(apartment.getId(), mapper.readTree("{\"price\": 230000}"), null);
+        long patchStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(230000.0, patched.getPrice());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertTrue(patchStatements < putStatements,
+                "patch used " + patchStatements + " statements, put used " + putStatements);
+    }
+
+    @Test
+    void noOpPatchDoesNotWrite() throws Exception {
+        service.patch(apartment.getId(), mapper.readTree("{\"location\": \"Colombo 07\"}"), null);
+
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void stalePatchIsRejected() throws Exception {
+        Long version = apartment.getVersion();
+        service.patch(apartment.getId(), mapper.readTree("{\"size\": 1300}"), version);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> service.patch(apartment.getId(), mapper.readTree("{\"size\": 1400}"), version));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Booking;
+import com.example.apartment.service.BookingService;
+import com.example.apartment.service.PartitionMaintenanceService;
+import com.example.apartment.service.PartitionMaintenanceService.PartitionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 has no table partitioning, so pruning is shown on what it does have:
+ * the period query is a half-open range on the partitioning column and is
+ * answered from a range of idx_booking_date, while an unbounded query scans
+ * the table. On MySQL the same predicate selects the monthly partitions.
+ * The partition plan and DDL that MySQL receives are checked directly.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:partitions;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class PartitionPruningTests {
+
+    private static final int PER_MONTH = 100;
+
+    @Autowired
+    private BookingService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from booking");
+        List<Object[]> rows = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            LocalDateTime start = LocalDate.of(2025, month, 1).atStartOfDay();
+            for (int i = 0; i < PER_MONTH; i++) {
+                rows.add(new Object[]{start.plusHours(i * 6L), "CONFIRMED"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into booking (booking_date, status, version) values (?, ?, 0)", rows);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void periodQueryReturnsOnlyThatPeriod() {
+        List<Booking> march = service.getInPeriod(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        assertEquals(PER_MONTH, march.size());
+        assertTrue(march.stream().allMatch(b -> b.getBookingDate().getMonthValue() == 3));
+
+        // Last moment of the 'to' day is included, the first moment after it is not
+        List<Booking> day = service.getInPeriod(LocalDate.of(2025, 3, 31), LocalDate.of(2025, 3, 31));
+        assertTrue(day.stream().allMatch(b -> b.getBookingDate().toLocalDate().equals(LocalDate.of(2025, 3, 31))));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getInPeriod(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 3, 1)));
+    }
+
+    @Test
+    void periodPredicateReadsOnlyTheMatchingRange() {
+        String bounded = explain("select * from booking where booking_date >= timestamp '2025-03-01 00:00:00' "
+                + "and booking_date < timestamp '2025-04-01 00:00:00'");
+        assertTrue(bounded.contains("idx_booking_date"), bounded);
+        assertFalse(bounded.contains("tablescan"), bounded);
+
+        String unbounded = explain("select * from booking where status = 'CONFIRMED'");
+        assertTrue(unbounded.contains("tablescan"), unbounded);
+    }
+
+    @Test
+    void planSplitsUpcomingMonthsOffOverflowPartition() {
+        YearMonth current = YearMonth.of(2025, 10);
+
+        // First run on a table with data since 2025-08: backfill from the data, three months ahead
+        PartitionPlan first = PartitionMaintenanceService.plan(List.of(), YearMonth.of(2025, 8), current, 3, 0, 24);
+        assertEquals(List.of(YearMonth.of(2025, 8), YearMonth.of(2025, 9), YearMonth.of(2025, 10),
+                YearMonth.of(2025, 11), YearMonth.of(2025, 12), YearMonth.of(2026, 1)), first.create());
+        assertTrue(first.drop().isEmpty());
+
+        // Old history is capped by the backfill window; earlier rows land in the first partition
+        PartitionPlan capped = PartitionMaintenanceService.plan(List.of(), YearMonth.of(1970, 1), current, 0, 0, 2);
+        assertEquals(List.of(YearMonth.of(2025, 8), YearMonth.of(2025, 9), YearMonth.of(2025, 10)), capped.create());
+
+        // Up to date: nothing to create; with 2 months retention, June and July rotate out
+        List<YearMonth> existing = List.of(YearMonth.of(2025, 6), YearMonth.of(2025, 7), YearMonth.of(2025, 8),
+                YearMonth.of(2025, 9), YearMonth.of(2025, 10), YearMonth.of(2025, 11), YearMonth.of(2025, 12),
+                YearMonth.of(2026, 1));
+        PartitionPlan steady = PartitionMaintenanceService.plan(existing, null, current, 3, 2, 24);
+        assertTrue(steady.create().isEmpty());
+        assertEquals(List.of(YearMonth.of(2025, 6), YearMonth.of(2025, 7)), steady.drop());
+
+        assertEquals("alter table booking reorganize partition pmax into ("
+                        + "partition p202511 values less than ('2025-12-01'), "
+                        + "partition p202512 values less than ('2026-01-01'), "
+                        + "partition pmax values less than (maxvalue))",
+                PartitionMaintenanceService.reorganizeDdl("booking",
+                        List.of(YearMonth.of(2025, 11), YearMonth.of(2025, 12))));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.apartment;
+
+import com.example.apartment.model.PriceBucket;
+import com.example.apartment.model.PricePoint;
+import com.example.apartment.service.PriceHistoryStore;
+import com.example.apartment.service.PriceHistoryStore.Drop;
+import com.example.apartment.service.PriceHistoryStore.Period;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Delta encoding, rollups and the file round trip of the price history, without Spring
+class PriceHistoryTests {
+
+    // A Wednesday
+    private static final Instant START = Instant.parse("2025-06-04T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pointsAndRollupsSurviveRestart() throws Exception {
+        Path file = directory.resolve("history.bin");
+        PriceHistoryStore store = new PriceHistoryStore(file);
+        store.open();
+        assertTrue(store.record(1, START, 1000.00, true));
+        assertFalse(store.record(1, START.plusSeconds(60), 1000.00, true));
+        assertTrue(store.record(1, START.plusSeconds(3600), 950.50, true));
+        assertTrue(store.record(1, START.plus(Duration.ofDays(1)), 1200.00, false));
+        assertTrue(store.record(1, START.plus(Duration.ofDays(6)), 1100.00, true));
+        // Clock stepped back; kept after the last point
+        assertTrue(store.record(1, START, 1150.00, true));
+        store.close();
+        Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        PriceHistoryStore reopened = new PriceHistoryStore(file);
+        reopened.open();
+        List<PricePoint> points = reopened.getPoints(1, null, null);
+        assertEquals(5, points.size());
+        assertEquals(new PricePoint(START.plusSeconds(3600), 950.50, true), points.get(1));
+        assertEquals(new PricePoint(START.plus(Duration.ofDays(6)), 1150.00, true), points.get(4));
+        assertEquals(2, reopened.getPoints(1, START.plusSeconds(1), START.plus(Duration.ofDays(1))).size());
+
+        List<PriceBucket> days = reopened.getRollup(1, Period.DAY, null, null);
+        assertEquals(3, days.size());
+        assertEquals(new PriceBucket(LocalDate.of(2025, 6, 4), 1000.00, 950.50, 1000.00, 950.50, 2, true), days.get(0));
+        assertEquals(new PriceBucket(LocalDate.of(2025, 6, 5), 950.50, 950.50, 1200.00, 1200.00, 1, false), days.get(1));
+        assertEquals(1, reopened.getRollup(1, Period.DAY, LocalDate.of(2025, 6, 5), LocalDate.of(2025, 6, 9)).size());
+
+        List<PriceBucket> weeks = reopened.getRollup(1, Period.WEEK, null, null);
+        assertEquals(2, weeks.size());
+        assertEquals(new PriceBucket(LocalDate.of(2025, 6, 2), 1000.00, 950.50, 1200.00, 1200.00, 3, false), weeks.get(0));
+        assertEquals(new PriceBucket(LocalDate.of(2025, 6, 9), 1200.00, 1100.00, 1200.00, 1150.00, 2, true), weeks.get(1));
+
+        assertTrue(reopened.record(1, START.plus(Duration.ofDays(7)), 1000.00, true));
+        reopened.close();
+        assertEquals(0, (Files.size(file) - 4) % 25);
+    }
+
+    @Test
+    void dropsCompareWithTheDayBeforeTheWindow() {
+        PriceHistoryStore store = new PriceHistoryStore(null);
+        assertFalse(store.record(1, START, 100.00, true));
+        store.open();
+        store.record(1, START, 100.00, true);
+        store.record(1, START.plus(Duration.ofDays(9)), 90.00, true);
+        store.record(2, START, 200.00, true);
+        store.record(2, START.plus(Duration.ofDays(9)), 100.00, true);
+        store.record(3, START, 100.00, true);
+        store.record(3, START.plus(Duration.ofDays(9)), 110.00, true);
+        // Listed inside the window
+        store.record(4, START.plus(Duration.ofDays(8)), 100.00, true);
+        store.record(4, START.plus(Duration.ofDays(9)), 50.00, true);
+
+        List<Drop> drops = store.getDrops(START.plus(Duration.ofDays(7)));
+        assertEquals(List.of(2L, 1L), drops.stream().map(Drop::apartmentId).toList());
+        assertEquals(50.0, drops.get(0).percent(), 1e-9);
+        assertEquals(100.00, drops.get(1).previousPrice());
+        assertTrue(store.getDrops(START.plus(Duration.ofDays(20))).isEmpty());
+    }
+}
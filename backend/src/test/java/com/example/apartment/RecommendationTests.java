@@ -0,0 +1,97 @@
+package com.example.apartment;
+
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.SimilarApartment;
+import com.example.apartment.service.ApartmentService;
+import com.example.apartment.service.RecommendationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Neighbour lists are patched on the recommendation worker after each committed write
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:similar;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class RecommendationTests {
+
+    @Autowired
+    private ApartmentService apartments;
+
+    @Autowired
+    private RecommendationService recommendations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void listsFollowApartmentWrites() throws InterruptedException {
+        Apartment base = apartments.create(apartment("Colombo 03", 100000.0, 1000, "pool, gym", 6.90, 79.85));
+        Apartment twin = apartments.create(apartment("Colombo 04", 104000.0, 1020, "Pool,  gym", 6.89, 79.86));
+        Apartment villa = apartments.create(apartment("Galle", 900000.0, 4000, "garden", 6.03, 80.22));
+
+        List<SimilarApartment> similar = await(base, list -> list.size() == 2);
+        assertEquals(twin.getId(), similar.get(0).getApartment().getId());
+        assertEquals(villa.getId(), similar.get(1).getApartment().getId());
+        assertTrue(similar.get(0).getScore() > similar.get(1).getScore());
+
+        Apartment cottage = apartments.create(apartment("Colombo 05", 98000.0, 990, "pool, gym", 6.88, 79.86));
+        await(base, list -> list.size() == 3 && list.get(2).getApartment().getId().equals(villa.getId()));
+
+        // Whether or not the stored list still holds the deleted twin, the limit counts live neighbours
+        apartments.delete(twin.getId());
+        assertEquals(List.of(cottage.getId()), ids(recommendations.getSimilar(base.getId(), 1)));
+        // Reads already skip the twin, so wait for the worker to rewrite the stored list
+        awaitStored(base, List.of(cottage.getId(), villa.getId()));
+        assertEquals(List.of(cottage.getId(), villa.getId()), ids(recommendations.getSimilar(base.getId(), 10)));
+    }
+
+    @Test
+    void unknownApartmentIsNotFound() {
+        assertThrows(RuntimeException.class, () -> recommendations.getSimilar(Long.MAX_VALUE, 5));
+    }
+
+    private List<SimilarApartment> await(Apartment apartment, Predicate<List<SimilarApartment>> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<SimilarApartment> similar = List.of();
+        while (System.nanoTime() < deadline) {
+            similar = recommendations.getSimilar(apartment.getId(), 10);
+            if (condition.test(similar)) return similar;
+            Thread.sleep(20);
+        }
+        fail("similar apartments of " + apartment.getId() + " never settled, last saw " + similar);
+        return similar;
+    }
+
+    private void awaitStored(Apartment apartment, List<Long> expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<Long> stored = List.of();
+        while (System.nanoTime() < deadline) {
+            stored = jdbcTemplate.queryForList("select similar_id from apartment_similarity where apartment_id = ? "
+                    + "order by neighbour_rank", Long.class, apartment.getId());
+            if (stored.equals(expected)) return;
+            Thread.sleep(20);
+        }
+        fail("stored neighbours of " + apartment.getId() + " never settled, last saw " + stored);
+    }
+
+    private static List<Long> ids(List<SimilarApartment> similar) {
+        return similar.stream().map(s -> s.getApartment().getId()).toList();
+    }
+
+    private static Apartment apartment(String location, double price, int size, String features, double lat, double lng) {
+        return new Apartment(null, location, price, size, features, null, true, lat, lng, null, null);
+    }
+}
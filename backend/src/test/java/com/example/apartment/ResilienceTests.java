@@ -0,0 +1,112 @@
+package com.example.apartment;
+
+import com.example.apartment.model.CircuitStats;
+import com.example.apartment.service.ResilienceGuard;
+import com.example.apartment.service.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Circuit, bulkhead and stale snapshot behaviour of the guard, without Spring
+class ResilienceTests {
+
+    private ResilienceGuard guard;
+
+    @AfterEach
+    void close() {
+        if (guard != null) guard.close();
+    }
+
+    @Test
+    void outagesOpenTheCircuitAndReadsFallBackToTheLastGoodValue() {
+        guard = guard(4, Duration.ofSeconds(5), 1, 2, Duration.ofHours(1));
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("fresh", guard.read("apartments", "apartment:1", () -> {
+            calls.incrementAndGet();
+            return "fresh";
+        }));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fresh", guard.read("apartments", "apartment:1", () -> {
+                calls.incrementAndGet();
+                throw new DataAccessResourceFailureException("connection refused");
+            }));
+        }
+        // The third read found the circuit open and never ran
+        assertEquals(3, calls.get());
+        assertThrows(ServiceUnavailableException.class, () -> guard.read("apartments", "apartment:2", () -> "never"));
+        assertThrows(ServiceUnavailableException.class, () -> guard.write("apartments", () -> "never"));
+
+        CircuitStats stats = guard.getCircuits().get(0);
+        assertEquals("OPEN", stats.getState());
+        assertEquals(3, stats.getStaleResponses());
+        assertTrue(stats.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void timeoutsFallBackAndBusinessErrorsPassThrough() {
+        guard = guard(4, Duration.ofMillis(50), 1, 5, Duration.ofHours(1));
+        guard.read("inventories", "inventories", () -> "fresh");
+        CountDownLatch release = new CountDownLatch(1);
+        assertEquals("fresh", guard.read("inventories", "inventories", () -> {
+            release.await();
+            return "late";
+        }));
+        release.countDown();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> guard.write("inventories", () -> {
+            throw new OptimisticLockingFailureException("stale version");
+        }));
+        RuntimeException notFound = assertThrows(RuntimeException.class, () -> guard.read("inventories", "inventory:9",
+                () -> {
+                    throw new RuntimeException("Inventory with id 9 not found");
+                }));
+        assertEquals("Inventory with id 9 not found", notFound.getMessage());
+        CircuitStats stats = guard.getCircuits().get(0);
+        assertEquals("CLOSED", stats.getState());
+        assertEquals(0, stats.getConsecutiveFailures());
+    }
+
+    @Test
+    void busyWritesDoNotBlockReads() throws InterruptedException {
+        guard = guard(2, Duration.ofSeconds(5), 1, 5, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> guard.write("apartments", () -> {
+            started.countDown();
+            release.await();
+            return null;
+        }));
+        writer.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceUnavailableException.class, () -> guard.write("apartments", () -> "second"));
+        assertEquals("read", guard.read("apartments", "apartments", () -> "read"));
+        release.countDown();
+        writer.join(5000);
+        assertEquals("CLOSED", guard.getCircuits().get(0).getState());
+    }
+
+    @Test
+    void trialCallClosesTheCircuit() {
+        guard = guard(2, Duration.ofSeconds(5), 1, 1, Duration.ZERO);
+        assertThrows(ServiceUnavailableException.class, () -> guard.read("apartments", "apartments", () -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        }));
+        assertEquals("OPEN", guard.getCircuits().get(0).getState());
+        assertEquals("back", guard.read("apartments", "apartments", () -> "back"));
+        assertEquals("CLOSED", guard.getCircuits().get(0).getState());
+    }
+
+    private static ResilienceGuard guard(int reads, Duration timeout, int writes, int failureThreshold, Duration open) {
+        return new ResilienceGuard(reads, timeout, writes, timeout, failureThreshold, open, 100);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.apartment;
+
+import com.example.apartment.config.CachedWriterJsonConverter;
+import com.example.apartment.model.Apartment;
+import com.example.apartment.model.Booking;
+import com.example.apartment.model.Payment;
+import com.example.apartment.model.User;
+import com.example.apartment.model.response.BookingResponse;
+import com.example.apartment.model.response.PaymentResponse;
+import com.example.apartment.model.response.Views;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and allocation per response for the booking and payment list
+ * endpoints: entities through Boot's default converter versus response
+ * models through CachedWriterJsonConverter with Blackbird. Opt-in because
+ * the numbers only mean something on a quiet machine:
+ * mvn test -Dtest=SerializationBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SerializationBenchmarkTests {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1000);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 200);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 1000);
+
+    private static final Type BOOKING_LIST = new ParameterizedTypeReference<List<Booking>>() { }.getType();
+    private static final Type BOOKING_RESPONSE_LIST = new ParameterizedTypeReference<List<BookingResponse>>() { }.getType();
+    private static final Type PAYMENT_LIST = new ParameterizedTypeReference<List<Payment>>() { }.getType();
+    private static final Type PAYMENT_RESPONSE_LIST = new ParameterizedTypeReference<List<PaymentResponse>>() { }.getType();
+
+    private static List<Booking> bookings;
+    private static List<Payment> payments;
+    private static MappingJackson2HttpMessageConverter baseline;
+    private static MappingJackson2HttpMessageConverter optimized;
+
+    @BeforeAll
+    static void setUp() {
+        bookings = new ArrayList<>(ROWS);
+        payments = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 1; i <= ROWS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret-" + i);
+            user.setRole("USER");
+            user.setVersion(0L);
+            Apartment apartment = new Apartment((long) i, "Colombo " + (i % 15), 150000.0 + i, 900 + i % 400,
+                    "Pool, Gym", "https://example.com/p/" + i + ".jpg", true, 6.9 + i * 1e-4, 79.8 + i * 1e-4,
+                    null, 0L);
+            Booking booking = new Booking((long) i, user, apartment, now.plusMinutes(i), "CONFIRMED", null, 0L);
+            bookings.add(booking);
+            payments.add(new Payment((long) i, booking, 150000.0 + i, now.plusMinutes(i), "COMPLETED", null, 0L));
+        }
+        // Boot's mapper defaults (java.time, DEFAULT_VIEW_INCLUSION off) with and without Blackbird
+        ObjectMapper plain = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper tuned = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        baseline = new MappingJackson2HttpMessageConverter(plain);
+        optimized = new CachedWriterJsonConverter(tuned);
+    }
+
+    @Test
+    void bookingList() throws IOException {
+        Result before = measure("bookings, entities", () -> bookings, BOOKING_LIST, baseline);
+        Result after = measure("bookings, summary view", () -> summary(BookingResponse.fromAll(bookings)),
+                BOOKING_RESPONSE_LIST, optimized);
+        assertFalse(after.body().contains("secret-"));
+        assertTrue(after.bodyBytes() < before.bodyBytes());
+    }
+
+    @Test
+    void paymentList() throws IOException {
+        Result before = measure("payments, entities", () -> payments, PAYMENT_LIST, baseline);
+        Result after = measure("payments, summary view", () -> summary(PaymentResponse.fromAll(payments)),
+                PAYMENT_RESPONSE_LIST, optimized);
+        assertFalse(after.body().contains("secret-"));
+        assertTrue(after.bodyBytes() < before.bodyBytes());
+    }
+
+    // What JsonViewResponseBodyAdvice hands the converter for a @JsonView(Views.Summary.class) endpoint
+    private static MappingJacksonValue summary(Object value) {
+        MappingJacksonValue container = new MappingJacksonValue(value);
+        container.setSerializationView(Views.Summary.class);
+        return container;
+    }
+
+    private record Result(String body, long bodyBytes) {
+    }
+
+    // The supplier runs inside the timed loop so mapping entities to response models is counted too
+    private static Result measure(String label, Supplier<Object> body, Type type,
+                                  MappingJackson2HttpMessageConverter converter) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        MockHttpOutputMessage last = null;
+        for (int i = 0; i < WARMUP; i++) {
+            last = write(converter, body.get(), type);
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            last = write(converter, body.get(), type);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        String json = last.getBodyAsString();
+        System.out.printf("%-24s %8.0f responses/s %10d B allocated/response %9d B body%n", label,
+                ITERATIONS / (elapsed / 1e9), allocated / ITERATIONS, json.getBytes(StandardCharsets.UTF_8).length);
+        return new Result(json, json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static MockHttpOutputMessage write(MappingJackson2HttpMessageConverter converter, Object body, Type type)
+            throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(body, type, MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+}
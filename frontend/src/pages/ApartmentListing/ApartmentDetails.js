@@ -33,6 +33,11 @@ const ApartmentDetails = () => {
     return Array.isArray(data) ? data : [];
   });
 
+  const { data: similar } = useQuery(['similarApartments', id], async () => {
+    const res = await api.get(endpoints.similarApartments(id), { params: { limit: 4 } });
+    return Array.isArray(res.data) ? res.data : [];
+  });
+
   if (isLoading) return <LoadingSpinner text="Loading apartment..." />;
 
   const inventory = (inventories || []).find((inv) => inv.apartment?.id === Number(id));
@@ -102,6 +107,28 @@ const ApartmentDetails = () => {
           <p className="text-sm text-gray-600">No inventory info for this apartment.</p>
         )}
       </div>
+
+      {similar?.length > 0 && (
+        <div className="card">
+          <h3 className="text-lg font-semibold mb-3">Similar apartments</h3>
+          <div className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-4 gap-4">
+            {similar.map(({ apartment: card }) => (
+              <button
+                key={card.id}
+                className="text-left border rounded-lg p-3 hover:shadow-md transition-shadow"
+                onClick={() => navigate(`/apartment-listing/${card.id}`)}
+              >
+                <div className="flex items-center space-x-2">
+                  <MapPin className="w-4 h-4 text-gray-500" />
+                  <span className="text-sm text-gray-600">{card.location}</span>
+                </div>
+                <div className="text-lg font-bold text-gray-900">${card.price?.toLocaleString()}</div>
+                <div className="text-xs text-gray-500">{card.size} sq ft</div>
+              </button>
+            ))}
+          </div>
+        </div>
+      )}
     </div>
   );
 };
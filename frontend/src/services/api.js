@@ -16,6 +16,15 @@ api.interceptors.request.use(
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    // Recorded as the actor in the backend audit journal
+    try {
+      const userId = JSON.parse(localStorage.getItem('user') || 'null')?.id;
+      if (userId != null) {
+        config.headers['X-User-Id'] = userId;
+      }
+    } catch (e) {
+      // Ignore a malformed stored user
+    }
     return config;
   },
   (error) => {
@@ -44,13 +53,24 @@ export const endpoints = {
   // Apartments
   apartments: '/apartments',
   apartmentById: (id) => `/apartments/${id}`,
+  apartmentCards: '/apartments/cards',
+  apartmentsNearby: '/apartments/nearby',
+  apartmentsWithin: '/apartments/within',
+  similarApartments: (id) => `/apartments/${id}/similar`,
+  apartmentPriceHistory: (id) => `/apartments/${id}/price-history`,
+  apartmentPriceRollup: (id, period) => `/apartments/${id}/price-history/${period}`,
+  apartmentPriceDrops: '/apartments/price-drops',
   
   // Inventory
   inventory: '/inventories',
   inventoryById: (id) => `/inventories/${id}`,
+  inventoryAdjust: (id) => `/inventories/${id}/adjust`,
+  inventoryStock: (id) => `/inventories/${id}/stock`,
+  inventoryMovements: (id) => `/inventories/${id}/movements`,
   
   // Bookings
   bookings: '/bookings',
+  bookingsPeriod: '/bookings/period',
   bookingById: (id) => `/bookings/${id}`,
   userBookings: '/bookings/user',
   
@@ -61,6 +81,7 @@ export const endpoints = {
   
   // Payments
   payments: '/payments',
+  paymentsPeriod: '/payments/period',
   paymentById: (id) => `/payments/${id}`,
   userPayments: '/payments/user',
   
@@ -68,6 +89,26 @@ export const endpoints = {
   installmentPlans: '/installment-plans',
   installmentPlanById: (id) => `/installment-plans/${id}`,
   userInstallmentPlans: '/installment-plans/user',
+
+  // Checkout (booking + payment + installment plan in one request)
+  checkout: '/checkout',
+  installmentPlanInstallments: (id) => `/installment-plans/${id}/installments`,
+
+  // Bulk imports
+  imports: (type) => `/imports/${type}`,
+  importById: (id) => `/imports/${id}`,
+
+  // Exports
+  exports: (type) => `/exports/${type}`,
+  exportById: (id) => `/exports/${id}`,
+  exportFile: (id) => `/exports/${id}/file`,
+
+  // Diagnostics
+  poolDiagnostics: '/diagnostics/pool',
+  archivalDiagnostics: '/diagnostics/archival',
+
+  // Analytics
+  analytics: '/analytics',
 };
 
 export default api;
@@ -0,0 +1,126 @@
+package com.example.apartment.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+/**
+ * Thin JSON client over java.net.http that times every call into the current
+ * {@link Metrics}. A response counts as an error when it is a transport
+ * failure or its status is not one the caller expected (2xx by default).
+ * Metrics can be swapped while workers run, which is how warmup traffic is
+ * kept out of the measured numbers.
+ */
+final class ApiClient {
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    static final IntPredicate SUCCESS = status -> status >= 200 && status < 300;
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private volatile Metrics metrics;
+
+    record Response(int status, byte[] body) {
+        boolean ok() {
+            return SUCCESS.test(status);
+        }
+
+        JsonNode json() {
+            try {
+                return body.length == 0 ? MAPPER.missingNode() : MAPPER.readTree(body);
+            } catch (IOException e) {
+                return MAPPER.missingNode();
+            }
+        }
+    }
+
+    ApiClient(String baseUrl, Duration timeout, Metrics metrics) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.metrics = metrics;
+    }
+
+    void useMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    Response get(String operation, String path) {
+        return send(operation, request(path).GET().build(), SUCCESS);
+    }
+
+    Response post(String operation, String path, Object body) {
+        return post(operation, path, body, Map.of(), SUCCESS);
+    }
+
+    Response post(String operation, String path, Object body, Map<String, String> headers, IntPredicate expected) {
+        HttpRequest.Builder builder = request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(toJson(body)));
+        headers.forEach(builder::header);
+        return send(operation, builder.build(), expected);
+    }
+
+    // Single-part multipart/form-data upload, as the import endpoints expect
+    Response upload(String operation, String path, String fileName, byte[] content) {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 256);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = request(path)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return send(operation, request, SUCCESS);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/json");
+    }
+
+    private Response send(String operation, HttpRequest request, IntPredicate expected) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            metrics.record(operation, response.statusCode(), System.nanoTime() - start,
+                    !expected.test(response.statusCode()));
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            metrics.record(operation, 0, System.nanoTime() - start, true);
+            return new Response(0, new byte[0]);
+        } catch (InterruptedException e) {
+            // The run is over; the worker loop sees the flag and stops without recording this call
+            Thread.currentThread().interrupt();
+            return new Response(0, new byte[0]);
+        }
+    }
+
+    private static byte[] toJson(Object body) {
+        try {
+            return MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+}
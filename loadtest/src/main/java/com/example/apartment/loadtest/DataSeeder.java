@@ -0,0 +1,242 @@
+package com.example.apartment.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Fills the backend with synthetic data through its public API: users,
+ * apartments and their inventory through the bulk import endpoints, then
+ * feedback and a year of booking and payment history. Names carry a run tag
+ * so repeated runs against the same database do not collide. Any failed
+ * call aborts seeding, since a half-seeded database would skew the run.
+ */
+final class DataSeeder {
+
+    static final String[] LOCATIONS = {"Colombo 03", "Colombo 04", "Colombo 05", "Colombo 07", "Dehiwala",
+            "Mount Lavinia", "Rajagiriya", "Nugegoda", "Battaramulla", "Wellawatte", "Kotte", "Kollupitiya"};
+    static final String[] FEATURES = {"Pool", "Gym", "Parking", "Rooftop", "Sea view", "Generator", "Security",
+            "Balcony", "Lift", "Garden"};
+    static final String[] COMMENTS = {"Great location, close to everything.", "Spacious and bright.",
+            "A bit noisy at night.", "Friendly management, quick responses.", "Price is fair for the area.",
+            "Parking was hard to find.", "Lovely view from the balcony."};
+
+    private static final long IMPORT_POLL_MILLIS = 250;
+
+    private final ApiClient client;
+    private final LoadTestOptions options;
+    private final SplittableRandom random;
+
+    DataSeeder(ApiClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+    }
+
+    SeedData seed() throws InterruptedException {
+        String runTag = Long.toString(System.currentTimeMillis(), 36);
+        ExecutorService pool = Executors.newFixedThreadPool(options.concurrency);
+        try {
+            List<Long> users = parallel(pool, options.users, i -> createUser(runTag, i));
+            log("Seeded %d users", users.size());
+
+            importRows("apartments", apartmentRows(runTag));
+            List<Long> apartments = new ArrayList<>();
+            List<Long> forSale = new ArrayList<>();
+            for (JsonNode card : require(client.get("seed", "/api/apartments/cards"), "list listing cards")) {
+                apartments.add(card.path("id").asLong());
+                if (card.path("available").asBoolean(true)) forSale.add(card.path("id").asLong());
+            }
+            log("Seeded %d apartments (%d for sale)", apartments.size(), forSale.size());
+
+            importRows("inventories", inventoryRows(apartments));
+            log("Seeded inventory for %d apartments", apartments.size());
+
+            parallel(pool, options.feedback, i -> createFeedback(users, apartments, i));
+            log("Seeded %d feedback entries", options.feedback);
+
+            // History goes on apartments that are not for sale, so checkouts still find free ones
+            List<Long> sold = new ArrayList<>(apartments);
+            sold.removeAll(forSale);
+            if (sold.isEmpty()) sold = apartments;
+            List<Long> history = sold;
+            parallel(pool, options.bookings, i -> createBookingWithPayment(users, history, i));
+            log("Seeded %d bookings with payments", options.bookings);
+
+            Collections.shuffle(forSale, new Random(options.seed));
+            return new SeedData(runTag, List.copyOf(users), List.copyOf(apartments),
+                    new ConcurrentLinkedQueue<>(forSale));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Long createUser(String runTag, int i) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("username", "load-" + runTag + "-" + i);
+        user.put("email", "load-" + runTag + "-" + i + "@example.com");
+        user.put("password", "load-" + runTag);
+        user.put("role", i % 20 == 0 ? "ADMIN" : "USER");
+        return require(client.post("seed", "/api/users", user), "create user").path("id").asLong();
+    }
+
+    private Long createFeedback(List<Long> users, List<Long> apartments, int i) {
+        SplittableRandom rnd = taskRandom(1, i);
+        Map<String, Object> feedback = new LinkedHashMap<>();
+        feedback.put("user", Map.of("id", pick(users, rnd)));
+        feedback.put("apartment", Map.of("id", pick(apartments, rnd)));
+        feedback.put("comment", COMMENTS[rnd.nextInt(COMMENTS.length)]);
+        feedback.put("rating", 1 + rnd.nextInt(5));
+        return require(client.post("seed", "/api/feedbacks", feedback), "create feedback").path("id").asLong();
+    }
+
+    private Long createBookingWithPayment(List<Long> users, List<Long> apartments, int i) {
+        SplittableRandom rnd = taskRandom(2, i);
+        LocalDateTime date = LocalDateTime.now().minusMinutes(rnd.nextLong(365L * 24 * 60));
+        Map<String, Object> booking = new LinkedHashMap<>();
+        booking.put("user", Map.of("id", pick(users, rnd)));
+        booking.put("apartment", Map.of("id", pick(apartments, rnd)));
+        booking.put("bookingDate", date.toString());
+        booking.put("status", "CONFIRMED");
+        long bookingId = require(client.post("seed", "/api/bookings", booking), "create booking").path("id").asLong();
+
+        Map<String, Object> payment = new LinkedHashMap<>();
+        payment.put("booking", Map.of("id", bookingId));
+        payment.put("amount", 50_000 + rnd.nextInt(450_000));
+        payment.put("paymentDate", date.plusHours(rnd.nextInt(72)).toString());
+        payment.put("status", rnd.nextInt(10) == 0 ? "PENDING" : "COMPLETED");
+        require(client.post("seed", "/api/payments", payment), "create payment");
+        return bookingId;
+    }
+
+    private byte[] apartmentRows(String runTag) {
+        List<Map<String, Object>> rows = new ArrayList<>(options.apartments);
+        for (int i = 0; i < options.apartments; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("location", LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            row.put("price", 50_000 + random.nextInt(450_000));
+            row.put("size", 400 + random.nextInt(2600));
+            row.put("features", features());
+            row.put("photoUrl", "https://picsum.photos/seed/" + runTag + "-" + i + "/640/480");
+            // One in five is already sold; those carry the booking history
+            row.put("available", random.nextInt(5) != 0);
+            row.put("latitude", SeedData.MIN_LAT + random.nextDouble() * (SeedData.MAX_LAT - SeedData.MIN_LAT));
+            row.put("longitude", SeedData.MIN_LNG + random.nextDouble() * (SeedData.MAX_LNG - SeedData.MIN_LNG));
+            rows.add(row);
+        }
+        return ndjson(rows);
+    }
+
+    private byte[] inventoryRows(List<Long> apartments) {
+        List<Map<String, Object>> rows = new ArrayList<>(apartments.size());
+        for (Long apartmentId : apartments) {
+            int stock = random.nextInt(10);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("apartmentId", apartmentId);
+            row.put("stock", stock);
+            row.put("status", stock == 0 ? "OUT_OF_STOCK" : "IN_STOCK");
+            rows.add(row);
+        }
+        return ndjson(rows);
+    }
+
+    private String features() {
+        List<String> picked = new ArrayList<>();
+        for (String feature : FEATURES) {
+            if (random.nextInt(3) == 0) picked.add(feature);
+        }
+        return String.join(", ", picked);
+    }
+
+    // Uploads one NDJSON file and waits for the import job to finish
+    private void importRows(String type, byte[] content) throws InterruptedException {
+        JsonNode job = require(client.upload("seed", "/api/imports/" + type, type + ".ndjson", content),
+                "import " + type);
+        long id = job.path("id").asLong();
+        while (true) {
+            String status = job.path("status").asText();
+            if ("COMPLETED".equals(status)) {
+                if (job.path("rowsFailed").asLong() > 0) {
+                    throw new IllegalStateException("Import of " + type + " rejected "
+                            + job.path("rowsFailed").asLong() + " rows");
+                }
+                return;
+            }
+            if ("FAILED".equals(status) || "INTERRUPTED".equals(status)) {
+                throw new IllegalStateException("Import of " + type + " ended " + status + ": "
+                        + job.path("message").asText());
+            }
+            Thread.sleep(IMPORT_POLL_MILLIS);
+            job = require(client.get("seed", "/api/imports/" + id), "poll import " + id);
+        }
+    }
+
+    private static <T> List<T> parallel(ExecutorService pool, int count, IntFunction<T> task)
+            throws InterruptedException {
+        List<Callable<T>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(() -> task.apply(index));
+        }
+        List<T> results = new ArrayList<>(count);
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static JsonNode require(ApiClient.Response response, String action) {
+        if (!response.ok()) {
+            throw new IllegalStateException("Seeding failed to " + action + ": HTTP " + response.status()
+                    + " " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response.json();
+    }
+
+    private static byte[] ndjson(List<Map<String, Object>> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows.size() * 256);
+        try {
+            for (Map<String, Object> row : rows) {
+                out.writeBytes(ApiClient.MAPPER.writeValueAsBytes(row));
+                out.write('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Parallel tasks get their own generator derived from the seed, so the data does not depend on scheduling
+    private SplittableRandom taskRandom(int kind, int index) {
+        return new SplittableRandom(options.seed * 31 + kind * 1_000_003L + index);
+    }
+
+    static long pick(List<Long> ids, SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf(format + "%n", args);
+    }
+}
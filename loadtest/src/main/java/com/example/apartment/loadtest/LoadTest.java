@@ -0,0 +1,140 @@
+package com.example.apartment.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Closed-loop load generator: seeds the backend, then runs --concurrency
+ * virtual users that each pick a scenario by weight, run it and optionally
+ * pause for up to --think-time ms, over and over. Traffic during --warmup is
+ * recorded into a separate Metrics that is thrown away; the --duration
+ * window after it is what the JSON summary reports.
+ *
+ * <pre>
+ * cd backend &amp;&amp; ./mvnw package -DskipTests
+ * cd ../loadtest &amp;&amp; mvn compile exec:java \
+ *     -Dexec.args="--backend-jar=../backend/target/apartment-0.0.1-SNAPSHOT.jar --concurrency=64"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+            for (String name : options.mix.keySet()) {
+                if (!Scenarios.ALL.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of "
+                            + Scenarios.ALL.keySet());
+                }
+            }
+            if (options.mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+                throw new IllegalArgumentException("--mix needs at least one scenario with a positive weight");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (options.backendJar == null) {
+            run(options);
+        } else {
+            Path log = options.output.toAbsolutePath().resolveSibling("loadtest-backend.log");
+            System.out.printf("Starting %s on port %d (log: %s)%n", options.backendJar, options.port, log);
+            try (BackendProcess ignored = BackendProcess.start(options.backendJar, options.port, log)) {
+                run(options);
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options) throws InterruptedException, IOException {
+        ApiClient client = new ApiClient(options.url, Duration.ofSeconds(options.timeoutSeconds), new Metrics());
+        SeedData data = new DataSeeder(client, options).seed();
+
+        AtomicReference<Metrics> current = new AtomicReference<>(new Metrics());
+        client.useMetrics(current.get());
+        List<Map.Entry<String, Integer>> weights = new ArrayList<>(options.mix.entrySet());
+        int totalWeight = weights.stream().mapToInt(Map.Entry::getValue).sum();
+
+        List<Thread> workers = new ArrayList<>(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(options.seed + i);
+            Thread worker = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    String name = pick(weights, totalWeight, random);
+                    boolean ok = Scenarios.ALL.get(name).run(client, data, random);
+                    if (Thread.currentThread().isInterrupted()) break;
+                    current.get().recordIteration(name, !ok);
+                    if (options.thinkTimeMillis > 0) {
+                        try {
+                            Thread.sleep(random.nextInt(options.thinkTimeMillis + 1));
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                    }
+                }
+            }, "virtual-user-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+
+        System.out.printf("Running %d virtual users against %s: %ds warmup, %ds measured%n",
+                options.concurrency, options.url, options.warmupSeconds, options.durationSeconds);
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        workers.forEach(Thread::start);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.warmupSeconds));
+
+        Metrics measured = new Metrics();
+        current.set(measured);
+        client.useMetrics(measured);
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.durationSeconds));
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        // Calls still in flight when the window closes land in a discarded Metrics
+        current.set(new Metrics());
+        client.useMetrics(current.get());
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(options.timeoutSeconds));
+        }
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("runTag", data.runTag());
+        seed.put("users", data.userIds().size());
+        seed.put("apartments", data.apartmentIds().size());
+        seed.put("feedback", options.feedback);
+        seed.put("bookings", options.bookings);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("startedAt", startedAt.toString());
+        summary.put("options", options.describe());
+        summary.put("seed", seed);
+        summary.putAll(measured.summary(elapsedSeconds));
+        ApiClient.MAPPER.writerWithDefaultPrettyPrinter().writeValue(options.output.toFile(), summary);
+
+        System.out.printf("%s requests, %s req/s, error rate %s, latency %s ms%nSummary written to %s%n",
+                summary.get("requests"), summary.get("throughputPerSecond"), summary.get("errorRate"),
+                summary.get("latencyMillis"), options.output.toAbsolutePath());
+    }
+
+    private static String pick(List<Map.Entry<String, Integer>> weights, int totalWeight, SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> weight : weights) {
+            ticket -= weight.getValue();
+            if (ticket < 0) return weight.getKey();
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.apartment.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, all given as --name=value. Without --backend-jar the
+ * harness drives whatever is listening on --url; with it, the backend is
+ * started on --port under the loadtest profile (in-memory H2) and stopped
+ * when the run ends.
+ */
+final class LoadTestOptions {
+
+    String url = "http://localhost:8080";
+    Path backendJar;
+    int port = 18080;
+    int concurrency = 32;
+    int warmupSeconds = 15;
+    int durationSeconds = 60;
+    int thinkTimeMillis = 0;
+    int timeoutSeconds = 30;
+    int users = 200;
+    int apartments = 2000;
+    int feedback = 2000;
+    int bookings = 1000;
+    long seed = 42;
+    // Relative weights of the scenarios in Scenarios.ALL
+    Map<String, Integer> mix = parseMix("browse=50,details=30,checkout=10,admin=10");
+    Path output = Path.of("loadtest-summary.json");
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "url" -> options.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "backend-jar" -> options.backendJar = Path.of(value);
+                case "port" -> options.port = positive(name, value);
+                case "concurrency" -> options.concurrency = positive(name, value);
+                case "warmup" -> options.warmupSeconds = notNegative(name, value);
+                case "duration" -> options.durationSeconds = positive(name, value);
+                case "think-time" -> options.thinkTimeMillis = notNegative(name, value);
+                case "timeout" -> options.timeoutSeconds = positive(name, value);
+                case "users" -> options.users = positive(name, value);
+                case "apartments" -> options.apartments = positive(name, value);
+                case "feedback" -> options.feedback = notNegative(name, value);
+                case "bookings" -> options.bookings = notNegative(name, value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "output" -> options.output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.backendJar != null) {
+            options.url = "http://localhost:" + options.port;
+        }
+        return options;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("url", url);
+        described.put("embeddedBackend", backendJar != null);
+        described.put("concurrency", concurrency);
+        described.put("warmupSeconds", warmupSeconds);
+        described.put("durationSeconds", durationSeconds);
+        described.put("thinkTimeMillis", thinkTimeMillis);
+        described.put("users", users);
+        described.put("apartments", apartments);
+        described.put("feedback", feedback);
+        described.put("bookings", bookings);
+        described.put("seed", seed);
+        described.put("mix", mix);
+        return described;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) throw new IllegalArgumentException("Expected scenario=weight in --mix but got " + part);
+            weights.put(pair[0].trim(), notNegative("mix", pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private static int positive(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) throw new IllegalArgumentException("--" + name + " must be positive");
+        return parsed;
+    }
+
+    private static int notNegative(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) throw new IllegalArgumentException("--" + name + " must not be negative");
+        return parsed;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.apartment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms and outcome counters, shared by all
+ * workers. Latency is recorded in microseconds with three significant
+ * digits; anything slower than five minutes is clamped. Operations are keyed
+ * by method and route template ("GET /api/apartments/{id}") so every id lands
+ * in the same histogram.
+ */
+final class Metrics {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Map<String, ScenarioStats> scenarios = new ConcurrentHashMap<>();
+
+    private static final class OperationStats {
+        final ConcurrentHistogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    private static final class ScenarioStats {
+        final LongAdder iterations = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    // status 0 stands for a transport failure or timeout, which is always an error
+    void record(String operation, int status, long elapsedNanos, boolean error) {
+        OperationStats stats = operations.computeIfAbsent(operation, key -> new OperationStats());
+        stats.latency.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 1), MAX_LATENCY_MICROS));
+        stats.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (error) stats.errors.increment();
+    }
+
+    void recordIteration(String scenario, boolean failed) {
+        ScenarioStats stats = scenarios.computeIfAbsent(scenario, key -> new ScenarioStats());
+        stats.iterations.increment();
+        if (failed) stats.failed.increment();
+    }
+
+    Map<String, Object> summary(double elapsedSeconds) {
+        Histogram all = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        long errors = 0;
+        Map<String, Object> perOperation = new TreeMap<>();
+        for (Map.Entry<String, OperationStats> entry : operations.entrySet()) {
+            OperationStats stats = entry.getValue();
+            Histogram latency = stats.latency.copy();
+            all.add(latency);
+            long count = latency.getTotalCount();
+            long failed = stats.errors.sum();
+            errors += failed;
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("count", count);
+            operation.put("throughputPerSecond", round(count / elapsedSeconds));
+            operation.put("errors", failed);
+            operation.put("errorRate", rate(failed, count));
+            operation.put("latencyMillis", percentiles(latency));
+            Map<String, Long> statuses = new TreeMap<>();
+            stats.statuses.forEach((status, counter) -> statuses.put(String.valueOf(status), counter.sum()));
+            operation.put("statuses", statuses);
+            perOperation.put(entry.getKey(), operation);
+        }
+
+        Map<String, Object> perScenario = new TreeMap<>();
+        scenarios.forEach((name, stats) -> {
+            long iterations = stats.iterations.sum();
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("iterations", iterations);
+            scenario.put("iterationsPerSecond", round(iterations / elapsedSeconds));
+            scenario.put("failed", stats.failed.sum());
+            scenario.put("failureRate", rate(stats.failed.sum(), iterations));
+            perScenario.put(name, scenario);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("elapsedSeconds", round(elapsedSeconds));
+        summary.put("requests", all.getTotalCount());
+        summary.put("throughputPerSecond", round(all.getTotalCount() / elapsedSeconds));
+        summary.put("errors", errors);
+        summary.put("errorRate", rate(errors, all.getTotalCount()));
+        summary.put("latencyMillis", percentiles(all));
+        summary.put("scenarios", perScenario);
+        summary.put("operations", perOperation);
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(Histogram latency) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("mean", round(latency.getMean() / 1000.0));
+        values.put("p50", millis(latency.getValueAtPercentile(50)));
+        values.put("p90", millis(latency.getValueAtPercentile(90)));
+        values.put("p99", millis(latency.getValueAtPercentile(99)));
+        values.put("p999", millis(latency.getValueAtPercentile(99.9)));
+        values.put("max", millis(latency.getMaxValue()));
+        return values;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double rate(long part, long total) {
+        return total == 0 ? 0 : Math.round(part * 1_000_000.0 / total) / 1_000_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.apartment.loadtest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * One iteration of each scenario is the traffic a single page visit in the
+ * React app produces. Each returns whether every call came back as expected.
+ */
+final class Scenarios {
+
+    interface Scenario {
+        boolean run(ApiClient client, SeedData data, SplittableRandom random);
+    }
+
+    // Keyed by the names used in --mix
+    static final Map<String, Scenario> ALL = Map.of(
+            "browse", Scenarios::listingBrowse,
+            "details", Scenarios::apartmentDetails,
+            "checkout", Scenarios::bookingCheckout,
+            "admin", Scenarios::adminDashboard);
+
+    private Scenarios() {
+    }
+
+    // ApartmentListing: the full list plus the cards, and sometimes the map view around a point
+    static boolean listingBrowse(ApiClient client, SeedData data, SplittableRandom random) {
+        boolean ok = client.get("GET /api/apartments", "/api/apartments").ok();
+        ok &= client.get("GET /api/apartments/cards", "/api/apartments/cards").ok();
+        if (random.nextInt(3) == 0) {
+            double lat = SeedData.MIN_LAT + random.nextDouble() * (SeedData.MAX_LAT - SeedData.MIN_LAT);
+            double lng = SeedData.MIN_LNG + random.nextDouble() * (SeedData.MAX_LNG - SeedData.MIN_LNG);
+            ok &= client.get("GET /api/apartments/nearby", "/api/apartments/nearby?lat=" + lat + "&lng=" + lng
+                    + "&radiusKm=" + (1 + random.nextInt(5)) + "&availableOnly=true").ok();
+        }
+        return ok;
+    }
+
+    // ApartmentDetails: the apartment, inventory and its card; one visitor in ten leaves feedback
+    static boolean apartmentDetails(ApiClient client, SeedData data, SplittableRandom random) {
+        long apartmentId = DataSeeder.pick(data.apartmentIds(), random);
+        boolean ok = client.get("GET /api/apartments/{id}", "/api/apartments/" + apartmentId).ok();
+        ok &= client.get("GET /api/inventories", "/api/inventories").ok();
+        ok &= client.get("GET /api/apartments/{id}/card", "/api/apartments/" + apartmentId + "/card").ok();
+        if (random.nextInt(10) == 0) {
+            Map<String, Object> feedback = new LinkedHashMap<>();
+            feedback.put("user", Map.of("id", DataSeeder.pick(data.userIds(), random)));
+            feedback.put("apartment", Map.of("id", apartmentId));
+            feedback.put("comment", DataSeeder.COMMENTS[random.nextInt(DataSeeder.COMMENTS.length)]);
+            feedback.put("rating", 1 + random.nextInt(5));
+            ok &= client.post("POST /api/feedbacks", "/api/feedbacks", feedback).ok();
+        }
+        return ok;
+    }
+
+    /*
+     * Booking checkout: look at an apartment for sale, buy it, then check this
+     * month's bookings. A 409 means another buyer got there first, which is a
+     * normal outcome under load and not an error. One checkout in twenty is
+     * sent twice with the same Idempotency-Key, like a client retrying after a
+     * timeout, and must be answered with the original result.
+     */
+    static boolean bookingCheckout(ApiClient client, SeedData data, SplittableRandom random) {
+        Long apartmentId = data.forSale().poll();
+        boolean ok = true;
+        if (apartmentId == null) {
+            apartmentId = listApartment(client, data, random);
+            if (apartmentId == null) return false;
+        }
+        ok &= client.get("GET /api/apartments/{id}", "/api/apartments/" + apartmentId).ok();
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("userId", DataSeeder.pick(data.userIds(), random));
+        request.put("apartmentId", apartmentId);
+        request.put("installments", List.of(0, 12, 24, 60).get(random.nextInt(4)));
+        Map<String, String> headers = Map.of("Idempotency-Key", UUID.randomUUID().toString());
+        ApiClient.Response first = client.post("POST /api/checkout", "/api/checkout", request, headers,
+                status -> status == 201 || status == 409);
+        ok &= first.status() == 201 || first.status() == 409;
+        if (first.status() == 201 && random.nextInt(20) == 0) {
+            ok &= client.post("POST /api/checkout (replay)", "/api/checkout", request, headers,
+                    status -> status == 200).status() == 200;
+        }
+        ok &= client.get("GET /api/bookings/period", "/api/bookings/period?from="
+                + LocalDate.now().withDayOfMonth(1)).ok();
+        return ok;
+    }
+
+    // A seller lists a new apartment when the seeded stock is sold out
+    private static Long listApartment(ApiClient client, SeedData data, SplittableRandom random) {
+        Map<String, Object> apartment = new LinkedHashMap<>();
+        apartment.put("location", DataSeeder.LOCATIONS[random.nextInt(DataSeeder.LOCATIONS.length)]);
+        apartment.put("price", 50_000 + random.nextInt(450_000));
+        apartment.put("size", 400 + random.nextInt(2600));
+        apartment.put("features", DataSeeder.FEATURES[random.nextInt(DataSeeder.FEATURES.length)]);
+        apartment.put("available", true);
+        apartment.put("latitude", SeedData.MIN_LAT + random.nextDouble() * (SeedData.MAX_LAT - SeedData.MIN_LAT));
+        apartment.put("longitude", SeedData.MIN_LNG + random.nextDouble() * (SeedData.MAX_LNG - SeedData.MIN_LNG));
+        ApiClient.Response created = client.post("POST /api/apartments", "/api/apartments", apartment);
+        return created.ok() ? created.json().path("id").asLong() : null;
+    }
+
+    /*
+     * Admin dashboard: the management pages' lists, the sales report for the
+     * last twelve months and the pool diagnostics. The Dashboard page itself
+     * calls /dashboard, which the backend does not serve, so this stands in
+     * for what an admin actually loads.
+     */
+    static boolean adminDashboard(ApiClient client, SeedData data, SplittableRandom random) {
+        YearMonth now = YearMonth.now();
+        boolean ok = client.get("GET /api/users", "/api/users").ok();
+        ok &= client.get("GET /api/bookings", "/api/bookings").ok();
+        ok &= client.get("GET /api/payments", "/api/payments").ok();
+        ok &= client.get("GET /api/feedbacks", "/api/feedbacks").ok();
+        ok &= client.get("GET /api/installment-plans", "/api/installment-plans").ok();
+        ok &= client.get("GET /api/analytics", "/api/analytics?from=" + now.minusMonths(11) + "&to=" + now).ok();
+        ok &= client.get("GET /api/diagnostics/pool", "/api/diagnostics/pool").ok();
+        return ok;
+    }
+}
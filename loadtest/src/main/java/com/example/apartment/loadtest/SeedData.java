@@ -0,0 +1,19 @@
+package com.example.apartment.loadtest;
+
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Ids created by {@link DataSeeder}. A checkout takes its apartment off
+ * {@code forSale} so concurrent buyers mostly go for different apartments,
+ * the way real traffic spreads out; the checkout scenario lists a new one
+ * when the queue runs dry.
+ */
+record SeedData(String runTag, List<Long> userIds, List<Long> apartmentIds, Queue<Long> forSale) {
+
+    // Area the synthetic listings are spread over (greater Colombo)
+    static final double MIN_LAT = 6.85;
+    static final double MAX_LAT = 7.00;
+    static final double MIN_LNG = 79.83;
+    static final double MAX_LNG = 79.95;
+}